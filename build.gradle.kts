@@ -51,8 +51,35 @@ jagr {
     }
 }
 
+// The vectorized noise kernel uses the incubating module jdk.incubator.vector, which makes javac and the JVM warn on
+// every use. It's only built and enabled with -Pvector, otherwise the noise uses the scalar kernel.
+val vector = providers.gradleProperty("vector").isPresent
+
+sourceSets {
+    main {
+        java {
+            if (!vector) {
+                exclude("h13/noise/VectorSpanKernel.java")
+            }
+        }
+    }
+}
+
 tasks {
+    withType<JavaCompile> {
+        if (vector) {
+            options.compilerArgs.addAll(listOf("--add-modules", "jdk.incubator.vector"))
+        }
+    }
+    withType<JavaExec> {
+        if (vector) {
+            jvmArgs("--add-modules=jdk.incubator.vector")
+        }
+    }
     test {
+        if (vector) {
+            jvmArgs("--add-modules=jdk.incubator.vector")
+        }
         jvmArgs(
             "-Djava.awt.headless=true",
             "-Dtestfx.robot=glass",
@@ -1,19 +1,27 @@
 package h13;
 
+import h13.batch.BatchRenderer;
 import h13.ui.app.PerlinNoiseApp;
 import javafx.application.Application;
 
+import java.util.Arrays;
+
 /**
  * Main entry point in executing the program.
  */
 public class Main {
 
     /**
-     * Main entry point in executing the program.
+     * Main entry point in executing the program. If the first argument is {@code batch}, the maps are rendered
+     * headless with the remaining arguments by the {@link BatchRenderer}, otherwise the application is launched.
      *
-     * @param args program arguments, currently ignored
+     * @param args program arguments
      */
     public static void main(String[] args) {
+        if (args.length > 0 && args[0].equals("batch")) {
+            BatchRenderer.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
         Application.launch(PerlinNoiseApp.class, args);
     }
 
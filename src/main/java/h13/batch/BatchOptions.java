@@ -0,0 +1,416 @@
+package h13.batch;
+
+import h13.noise.AbstractPerlinNoise;
+import h13.noise.GradientMode;
+
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * The options of a headless batch rendering, parsed from command-line arguments of the form {@code --name value}.
+ *
+ * <p>Supported options, all of them are optional:
+ * <ul>
+ *     <li>{@code --algorithm simple|improved|fractal}: the noise algorithm, default {@code simple}</li>
+ *     <li>{@code --base simple|improved}: the underlying algorithm of the fractal noise, default {@code improved}</li>
+ *     <li>{@code --gradients table|parallel-table|hashed|fixed}: the {@link GradientMode} of the noise, default
+ *     {@code table}, the improved noise does not support {@code hashed}</li>
+ *     <li>{@code --seeds from..to} or {@code --seeds seed}: the inclusive range of seeds to render, default
+ *     {@code 0}</li>
+ *     <li>{@code --size widthxheight}: the size of a map in pixels, default {@code 512x512}</li>
+ *     <li>{@code --frequency}, {@code --amplitude}, {@code --octaves}, {@code --lacunarity},
+ *     {@code --persistence}: the noise parameters, defaults as in the application</li>
+ *     <li>{@code --coloring gray|simple|mountain}: the coloring of image files, default {@code gray}</li>
+ *     <li>{@code --format png|raw16|raw32|npy16|npy32}: the file format, default {@code png}</li>
+ *     <li>{@code --tile n}: the edge length of the tiles of a heightmap which is generated by a resumable
+ *     {@link TiledJob}, default {@code 0} for no tiling</li>
+ *     <li>{@code --output directory}: the directory to write the files to, default the working directory</li>
+ *     <li>{@code --threads n}: the number of maps rendered in parallel, default the number of processors</li>
+ * </ul>
+ */
+public final class BatchOptions {
+
+    /**
+     * The usage message which describes the supported options.
+     */
+    public static final String USAGE = """
+        Usage: batch [options]
+          --algorithm simple|improved|fractal  the noise algorithm (default simple)
+          --base simple|improved               the underlying algorithm of the fractal noise (default improved)
+          --gradients table|parallel-table|hashed|fixed
+                                               the gradients of the noise (default table)
+          --seeds from..to                     the inclusive range of seeds to render (default 0)
+          --size widthxheight                  the size of a map in pixels (default 512x512)
+          --frequency f                        the frequency of the noise (default 0.005)
+          --amplitude a                        the amplitude of the fractal noise (default 1.0)
+          --octaves n                          the number of octaves of the fractal noise (default 8)
+          --lacunarity l                       the lacunarity of the fractal noise (default 2.0)
+          --persistence p                      the persistence of the fractal noise (default 0.5)
+          --coloring gray|simple|mountain      the coloring of image files (default gray)
+          --format png|raw16|raw32|npy16|npy32 the file format (default png)
+          --tile n                             the tile size of resumable heightmap jobs (default 0, no tiling)
+          --output directory                   the directory to write the files to (default .)
+          --threads n                          the number of maps rendered in parallel (default processors)
+        """;
+
+    /**
+     * The noise algorithm.
+     */
+    private String algorithm = "simple";
+
+    /**
+     * The underlying algorithm of the fractal noise.
+     */
+    private String base = "improved";
+
+    /**
+     * The way the gradient vectors of the noise are determined.
+     */
+    private GradientMode gradientMode = GradientMode.TABLE;
+
+    /**
+     * The first seed to render.
+     */
+    private long fromSeed = 0;
+
+    /**
+     * The last seed to render.
+     */
+    private long toSeed = 0;
+
+    /**
+     * The width of a map in pixels.
+     */
+    private int width = 512;
+
+    /**
+     * The height of a map in pixels.
+     */
+    private int height = 512;
+
+    /**
+     * The frequency of the noise.
+     */
+    private double frequency = AbstractPerlinNoise.DEFAULT_FREQUENCY;
+
+    /**
+     * The amplitude of the fractal noise.
+     */
+    private double amplitude = 1.0;
+
+    /**
+     * The number of octaves of the fractal noise.
+     */
+    private int octaves = 8;
+
+    /**
+     * The lacunarity of the fractal noise.
+     */
+    private double lacunarity = 2.0;
+
+    /**
+     * The persistence of the fractal noise.
+     */
+    private double persistence = 0.5;
+
+    /**
+     * The coloring of image files.
+     */
+    private String coloring = "gray";
+
+    /**
+     * The file format.
+     */
+    private BatchRenderer.Format format = BatchRenderer.Format.PNG;
+
+    /**
+     * The edge length of the tiles of a heightmap job or 0 if heightmaps are not tiled.
+     */
+    private int tileSize = 0;
+
+    /**
+     * The directory to write the files to.
+     */
+    private Path output = Path.of(".");
+
+    /**
+     * The number of maps rendered in parallel.
+     */
+    private int threads = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Constructs the default options.
+     */
+    public BatchOptions() {
+    }
+
+    /**
+     * Parses the given command-line arguments.
+     *
+     * @param args the command-line arguments
+     * @return the parsed options
+     * @throws IllegalArgumentException if an argument is unknown, a value is missing or a value is invalid
+     */
+    public static BatchOptions parse(String... args) {
+        BatchOptions options = new BatchOptions();
+        for (int i = 0; i < args.length; i += 2) {
+            String name = args[i];
+            if (i + 1 == args.length) {
+                throw new IllegalArgumentException("Missing value of option " + name);
+            }
+            String value = args[i + 1];
+            try {
+                options.set(name, value);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid value of option %s: %s".formatted(name, value), e);
+            }
+        }
+        if (options.fromSeed > options.toSeed) {
+            throw new IllegalArgumentException("The seed range cannot be empty");
+        }
+        if (options.width <= 0 || options.height <= 0) {
+            throw new IllegalArgumentException("Width and height must be positive");
+        }
+        if (options.octaves <= 0) {
+            throw new IllegalArgumentException("Octaves must be positive");
+        }
+        String base = options.algorithm.equals("fractal") ? options.base : options.algorithm;
+        if (base.equals("improved") && options.gradientMode == GradientMode.HASHED) {
+            throw new IllegalArgumentException("The improved noise does not support hashed gradients");
+        }
+        if (options.tileSize < 0) {
+            throw new IllegalArgumentException("Tile size cannot be negative");
+        }
+        if (options.tileSize > 0 && options.format != BatchRenderer.Format.NPY16
+            && options.format != BatchRenderer.Format.NPY32) {
+            throw new IllegalArgumentException("Only npy16 and npy32 heightmaps can be tiled");
+        }
+        if (options.threads <= 0) {
+            throw new IllegalArgumentException("Threads must be positive");
+        }
+        return options;
+    }
+
+    /**
+     * Sets the option with the given name to the given value.
+     *
+     * @param name  the name of the option including the leading dashes
+     * @param value the value of the option
+     * @throws IllegalArgumentException if the option is unknown or the value is invalid
+     */
+    private void set(String name, String value) {
+        switch (name) {
+            case "--algorithm" -> algorithm = choice(name, value, "simple", "improved", "fractal");
+            case "--base" -> base = choice(name, value, "simple", "improved");
+            case "--gradients" -> gradientMode = GradientMode.valueOf(
+                choice(name, value, "table", "parallel-table", "hashed", "fixed")
+                    .replace('-', '_')
+                    .toUpperCase(Locale.ROOT)
+            );
+            case "--seeds" -> {
+                int separator = value.indexOf("..");
+                if (separator < 0) {
+                    fromSeed = toSeed = Long.parseLong(value);
+                } else {
+                    fromSeed = Long.parseLong(value.substring(0, separator));
+                    toSeed = Long.parseLong(value.substring(separator + 2));
+                }
+            }
+            case "--size" -> {
+                int separator = value.toLowerCase(Locale.ROOT).indexOf('x');
+                if (separator < 0) {
+                    throw new IllegalArgumentException("Size must have the form widthxheight: " + value);
+                }
+                width = Integer.parseInt(value.substring(0, separator));
+                height = Integer.parseInt(value.substring(separator + 1));
+            }
+            case "--frequency" -> frequency = Double.parseDouble(value);
+            case "--amplitude" -> amplitude = Double.parseDouble(value);
+            case "--octaves" -> octaves = Integer.parseInt(value);
+            case "--lacunarity" -> lacunarity = Double.parseDouble(value);
+            case "--persistence" -> persistence = Double.parseDouble(value);
+            case "--coloring" -> coloring = choice(name, value, "gray", "simple", "mountain");
+            case "--format" -> format = BatchRenderer.Format.valueOf(
+                choice(name, value, "png", "raw16", "raw32", "npy16", "npy32").toUpperCase(Locale.ROOT)
+            );
+            case "--tile" -> tileSize = Integer.parseInt(value);
+            case "--output" -> output = Path.of(value);
+            case "--threads" -> threads = Integer.parseInt(value);
+            default -> throw new IllegalArgumentException("Unknown option " + name);
+        }
+    }
+
+    /**
+     * Returns the given value in lower case if it is one of the given choices.
+     *
+     * @param name    the name of the option
+     * @param value   the value of the option
+     * @param choices the allowed values of the option
+     * @return the value in lower case
+     * @throws IllegalArgumentException if the value is not one of the choices
+     */
+    private static String choice(String name, String value, String... choices) {
+        String lower = value.toLowerCase(Locale.ROOT);
+        for (String choice : choices) {
+            if (choice.equals(lower)) {
+                return lower;
+            }
+        }
+        throw new IllegalArgumentException(
+            "Invalid value of option %s: %s, expected one of %s".formatted(name, value, String.join(", ", choices))
+        );
+    }
+
+    /**
+     * Returns the noise algorithm.
+     *
+     * @return the noise algorithm
+     */
+    public String getAlgorithm() {
+        return algorithm;
+    }
+
+    /**
+     * Returns the underlying algorithm of the fractal noise.
+     *
+     * @return the underlying algorithm of the fractal noise
+     */
+    public String getBase() {
+        return base;
+    }
+
+    /**
+     * Returns the way the gradient vectors of the noise are determined.
+     *
+     * @return the way the gradient vectors of the noise are determined
+     */
+    public GradientMode getGradientMode() {
+        return gradientMode;
+    }
+
+    /**
+     * Returns the first seed to render.
+     *
+     * @return the first seed to render
+     */
+    public long getFromSeed() {
+        return fromSeed;
+    }
+
+    /**
+     * Returns the last seed to render.
+     *
+     * @return the last seed to render
+     */
+    public long getToSeed() {
+        return toSeed;
+    }
+
+    /**
+     * Returns the width of a map in pixels.
+     *
+     * @return the width of a map in pixels
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Returns the height of a map in pixels.
+     *
+     * @return the height of a map in pixels
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Returns the frequency of the noise.
+     *
+     * @return the frequency of the noise
+     */
+    public double getFrequency() {
+        return frequency;
+    }
+
+    /**
+     * Returns the amplitude of the fractal noise.
+     *
+     * @return the amplitude of the fractal noise
+     */
+    public double getAmplitude() {
+        return amplitude;
+    }
+
+    /**
+     * Returns the number of octaves of the fractal noise.
+     *
+     * @return the number of octaves of the fractal noise
+     */
+    public int getOctaves() {
+        return octaves;
+    }
+
+    /**
+     * Returns the lacunarity of the fractal noise.
+     *
+     * @return the lacunarity of the fractal noise
+     */
+    public double getLacunarity() {
+        return lacunarity;
+    }
+
+    /**
+     * Returns the persistence of the fractal noise.
+     *
+     * @return the persistence of the fractal noise
+     */
+    public double getPersistence() {
+        return persistence;
+    }
+
+    /**
+     * Returns the coloring of image files.
+     *
+     * @return the coloring of image files
+     */
+    public String getColoring() {
+        return coloring;
+    }
+
+    /**
+     * Returns the file format.
+     *
+     * @return the file format
+     */
+    public BatchRenderer.Format getFormat() {
+        return format;
+    }
+
+    /**
+     * Returns the edge length of the tiles of a heightmap job.
+     *
+     * @return the edge length of the tiles of a heightmap job or 0 if heightmaps are not tiled
+     */
+    public int getTileSize() {
+        return tileSize;
+    }
+
+    /**
+     * Returns the directory to write the files to.
+     *
+     * @return the directory to write the files to
+     */
+    public Path getOutput() {
+        return output;
+    }
+
+    /**
+     * Returns the number of maps rendered in parallel.
+     *
+     * @return the number of maps rendered in parallel
+     */
+    public int getThreads() {
+        return threads;
+    }
+}
@@ -0,0 +1,386 @@
+package h13.batch;
+
+import h13.noise.FractalPerlinNoise;
+import h13.noise.GradientMode;
+import h13.noise.ImprovedPerlinNoise;
+import h13.noise.PerlinNoise;
+import h13.noise.SimplePerlinNoise;
+import h13.render.ColorScheme;
+import h13.render.Palette;
+import h13.render.PngWriter;
+import h13.render.TileRenderer;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.Deflater;
+
+/**
+ * A headless renderer which writes noise maps for a range of seeds to files. The maps of different seeds are rendered
+ * in parallel, each map is rendered band by band on a single thread, so only a few bands of a map are in memory at
+ * once.
+ *
+ * <p>The renderer does not start a UI toolkit, so it can run on machines without a display. Image files are written
+ * as PNG, height files as headerless little-endian rows of 16-bit unsigned integers or 32-bit floats with the
+ * normalized noise values in {@code [0, 1]} or as memory-mapped {@link NpyHeightmap}s.
+ */
+public class BatchRenderer {
+
+    /**
+     * The number of rows of a map which are rendered at once.
+     */
+    private static final int BAND_HEIGHT = 64;
+
+    /**
+     * The file formats of the rendered maps.
+     */
+    public enum Format {
+
+        /**
+         * An RGBA image with the selected coloring.
+         */
+        PNG("png", 8),
+
+        /**
+         * A height file with 16-bit unsigned integers.
+         */
+        RAW16("r16", 16),
+
+        /**
+         * A height file with 32-bit floats.
+         */
+        RAW32("r32", 0),
+
+        /**
+         * A NumPy heightmap with 16-bit unsigned integers which records the noise parameters.
+         */
+        NPY16("npy", 16),
+
+        /**
+         * A NumPy heightmap with 32-bit floats which records the noise parameters.
+         */
+        NPY32("npy", 0),
+        ;
+
+        /**
+         * The file extension of the format.
+         */
+        private final String extension;
+
+        /**
+         * The number of bits the normalized noise values are quantized to, or 0 if they are stored as floats.
+         */
+        private final int bits;
+
+        /**
+         * Constructs a file format with the given file extension and precision.
+         *
+         * @param extension the file extension of the format
+         * @param bits      the number of bits the normalized noise values are quantized to, or 0 if they are stored
+         *                  as floats
+         */
+        Format(String extension, int bits) {
+            this.extension = extension;
+            this.bits = bits;
+        }
+
+        /**
+         * Returns the tolerance of fractal noise for this format, which skips the octaves that cannot change a
+         * quantized value by more than one step. Floats are not quantized, so all octaves are evaluated for them.
+         *
+         * @return the tolerance of fractal noise for this format
+         * @see FractalPerlinNoise#quantizationTolerance(int)
+         */
+        public double getTolerance() {
+            return bits > 0 ? FractalPerlinNoise.quantizationTolerance(bits) : 0;
+        }
+
+        /**
+         * Returns the file extension of the format.
+         *
+         * @return the file extension of the format
+         */
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    /**
+     * The options of the rendering.
+     */
+    private final BatchOptions options;
+
+    /**
+     * Constructs a batch renderer with the given options.
+     *
+     * @param options the options of the rendering
+     */
+    public BatchRenderer(BatchOptions options) {
+        this.options = options;
+    }
+
+    /**
+     * Renders the maps with the options given as command-line arguments and prints the written files.
+     *
+     * @param args the command-line arguments, see {@link BatchOptions}
+     */
+    public static void main(String[] args) {
+        BatchOptions options;
+        try {
+            options = BatchOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.print(BatchOptions.USAGE);
+            System.exit(2);
+            return;
+        }
+        try {
+            for (Path file : new BatchRenderer(options).run()) {
+                System.out.println(file);
+            }
+        } catch (IOException | UncheckedIOException e) {
+            System.err.println("Could not write the maps: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Renders the maps of all seeds and writes them to the output directory.
+     *
+     * @return the written files ordered by seed
+     * @throws IOException if the output directory cannot be created or a file cannot be written
+     */
+    public List<Path> run() throws IOException {
+        Files.createDirectories(options.getOutput());
+        long count = options.getToSeed() - options.getFromSeed() + 1;
+        ExecutorService executor = Executors.newFixedThreadPool((int) Math.min(options.getThreads(), count), task -> {
+            Thread thread = new Thread(task, "noise-batch");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<CompletableFuture<Path>> files = new ArrayList<>();
+            for (long seed = options.getFromSeed(); seed <= options.getToSeed(); seed++) {
+                long current = seed;
+                files.add(CompletableFuture.supplyAsync(() -> {
+                    try {
+                        return write(current);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }, executor));
+                if (seed == Long.MAX_VALUE) {
+                    break;
+                }
+            }
+            List<Path> result = new ArrayList<>();
+            for (CompletableFuture<Path> file : files) {
+                result.add(file.join());
+            }
+            return result;
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof UncheckedIOException cause) {
+                throw cause.getCause();
+            }
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Renders the map of the given seed on the calling thread and writes it to the output directory.
+     *
+     * @param seed the seed of the map
+     * @return the written file
+     * @throws IOException if the file cannot be written
+     */
+    public Path write(long seed) throws IOException {
+        PerlinNoise noise = PerlinNoise.normalized(createNoise(seed));
+        int width = options.getWidth();
+        int height = options.getHeight();
+        Format format = options.getFormat();
+        Path file = options.getOutput().resolve(
+            "%s-%d.%s".formatted(options.getAlgorithm(), seed, format.getExtension())
+        );
+        if (format == Format.NPY16 || format == Format.NPY32) {
+            NpyHeightmap.Type type = format == Format.NPY16 ? NpyHeightmap.Type.UINT16 : NpyHeightmap.Type.FLOAT32;
+            if (options.getTileSize() > 0) {
+                new TiledJob(
+                    noise, file, type, width, height, options.getTileSize(), parameters(seed), ForkJoinPool.commonPool()
+                ).run();
+                return file;
+            }
+            // The values are evaluated directly into the mapped file without an intermediate buffer of the map
+            try (NpyHeightmap heightmap = NpyHeightmap.create(file, type, width, height, parameters(seed))) {
+                heightmap.write(noise, 0, 0, Runnable::run);
+            }
+            return file;
+        }
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file), 64 * 1024)) {
+            if (format == Format.PNG) {
+                Palette palette = createPalette();
+                TileRenderer renderer = new TileRenderer(Runnable::run, BAND_HEIGHT);
+                // The writer compresses on the calling thread, the seeds are already rendered in parallel
+                new PngWriter(Runnable::run, Deflater.DEFAULT_COMPRESSION, BAND_HEIGHT).write(
+                    width,
+                    height,
+                    (y, h, pixels) -> renderer.renderTile(noise, palette, 0, y, width, h, pixels, 0, width),
+                    out
+                );
+            } else {
+                writeHeights(noise, width, height, format, out);
+            }
+        }
+        return file;
+    }
+
+    /**
+     * Writes the normalized noise values of a map as a headerless little-endian height file.
+     *
+     * @param noise  the normalized noise to write
+     * @param width  the width of the map
+     * @param height the height of the map
+     * @param format the format of the height file
+     * @param out    the stream to write the height file to
+     * @throws IOException if an I/O error occurs
+     */
+    private static void writeHeights(
+        PerlinNoise noise,
+        int width,
+        int height,
+        Format format,
+        OutputStream out
+    ) throws IOException {
+        float[] row = new float[width];
+        int bytes = format == Format.RAW16 ? Short.BYTES : Float.BYTES;
+        ByteBuffer buffer = ByteBuffer.allocate(width * bytes).order(ByteOrder.LITTLE_ENDIAN);
+        for (int y = 0; y < height; y++) {
+            noise.computeRow(0, y, width, row, 0);
+            buffer.clear();
+            for (float value : row) {
+                float clamped = Math.max(0, Math.min(1, value));
+                if (format == Format.RAW16) {
+                    buffer.putShort((short) Math.round(clamped * 65535));
+                } else {
+                    buffer.putFloat(clamped);
+                }
+            }
+            out.write(buffer.array(), 0, buffer.position());
+        }
+    }
+
+    /**
+     * Returns the noise parameters of the map of the given seed which are recorded in a heightmap.
+     *
+     * @param seed the seed of the map
+     * @return the noise parameters of the map
+     */
+    Map<String, String> parameters(long seed) {
+        Map<String, String> parameters = new LinkedHashMap<>();
+        parameters.put("algorithm", options.getAlgorithm());
+        parameters.put("seed", Long.toString(seed));
+        parameters.put("frequency", Double.toString(options.getFrequency()));
+        parameters.put("gradients", options.getGradientMode().name().toLowerCase(Locale.ROOT).replace('_', '-'));
+        if (options.getAlgorithm().equals("fractal")) {
+            parameters.put("base", options.getBase());
+            parameters.put("amplitude", Double.toString(options.getAmplitude()));
+            parameters.put("octaves", Integer.toString(options.getOctaves()));
+            parameters.put("lacunarity", Double.toString(options.getLacunarity()));
+            parameters.put("persistence", Double.toString(options.getPersistence()));
+            parameters.put("tolerance", Double.toString(options.getFormat().getTolerance()));
+        }
+        return parameters;
+    }
+
+    /**
+     * Creates the noise of the given seed with the parameters of the options. The gradient domain only covers the
+     * lattice cells which are sampled by the map, so its size does not grow with the map size but with the frequency.
+     * The improved noise only creates the gradients accessed through its permutation table, so its construction cost
+     * is constant. Hashed and fixed gradients do not need a gradient domain at all. The noise is created from the seed,
+     * so it has a {@link PerlinNoise#getSpec() specification}. The fractal noise skips the octaves which cannot change
+     * a value of the output format, see {@link Format#getTolerance()}.
+     *
+     * @param seed the seed of the noise
+     * @return the noise of the given seed
+     * @throws IllegalArgumentException if the gradient table of the simple noise is too large
+     */
+    PerlinNoise createNoise(long seed) {
+        String algorithm = options.getAlgorithm();
+        String base = algorithm.equals("fractal") ? options.getBase() : algorithm;
+        PerlinNoise noise;
+        if (base.equals("improved")) {
+            noise = new ImprovedPerlinNoise(
+                options.getWidth(),
+                options.getHeight(),
+                options.getFrequency(),
+                seed,
+                options.getGradientMode()
+            );
+        } else if (!options.getGradientMode().hasTable()) {
+            noise = new SimplePerlinNoise(
+                options.getWidth(),
+                options.getHeight(),
+                options.getFrequency(),
+                seed,
+                options.getGradientMode()
+            );
+        } else {
+            double frequency = options.getFrequency();
+            if (algorithm.equals("fractal")) {
+                double highest = frequency * Math.pow(options.getLacunarity(), options.getOctaves() - 1);
+                frequency = Math.max(frequency, highest);
+            }
+            int gradientsX = (int) Math.ceil(options.getWidth() * frequency) + 1;
+            int gradientsY = (int) Math.ceil(options.getHeight() * frequency) + 1;
+            if ((gradientsX + 1L) * (gradientsY + 1L) > Integer.MAX_VALUE - 8) {
+                throw new IllegalArgumentException("Too many gradients, use hashed gradients or a lower frequency");
+            }
+            noise = new SimplePerlinNoise(
+                gradientsX,
+                gradientsY,
+                options.getFrequency(),
+                seed,
+                options.getGradientMode()
+            );
+        }
+        if (algorithm.equals("fractal")) {
+            noise = new FractalPerlinNoise(
+                noise,
+                options.getAmplitude(),
+                options.getOctaves(),
+                options.getLacunarity(),
+                options.getPersistence(),
+                options.getFormat().getTolerance()
+            );
+        }
+        return noise;
+    }
+
+    /**
+     * Creates the palette of the coloring of the options.
+     *
+     * @return the palette of the coloring
+     */
+    private Palette createPalette() {
+        return ColorScheme.valueOf(options.getColoring().toUpperCase(Locale.ROOT)).getPalette();
+    }
+}
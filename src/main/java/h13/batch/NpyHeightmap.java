@@ -0,0 +1,670 @@
+package h13.batch;
+
+import h13.noise.GradientNoise;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A heightmap file in the NumPy {@code .npy} format (version 1.0) whose values are accessed through memory-mapped
+ * windows of the file, so maps larger than the heap can be written and read. The values are stored row-major as
+ * little-endian 32-bit floats or 16-bit unsigned integers, the latter represent the values in {@code [0, 1]} scaled
+ * to {@code [0, 65535]}.
+ *
+ * <p>The header is a valid {@code .npy} header, so the file can be loaded or memory-mapped by NumPy. The noise
+ * parameters are recorded as {@code key=value} pairs in a comment behind the header dictionary which NumPy ignores,
+ * for example:
+ * <pre>{@code
+ * {'descr': '<f4', 'fortran_order': False, 'shape': (1024, 2048), } # noise: algorithm=fractal seed=3
+ * }</pre>
+ *
+ * <p>Disjoint regions of a map can be written concurrently.
+ *
+ * @see <a href="https://numpy.org/doc/stable/reference/generated/numpy.lib.format.html">NPY format</a>
+ */
+public final class NpyHeightmap implements AutoCloseable {
+
+    /**
+     * The magic string at the beginning of a {@code .npy} file.
+     */
+    private static final byte[] MAGIC = {(byte) 0x93, 'N', 'U', 'M', 'P', 'Y'};
+
+    /**
+     * The alignment of the data, the header is padded so the data starts at a multiple of it.
+     */
+    private static final int ALIGNMENT = 64;
+
+    /**
+     * The maximum number of bytes of a single mapped window.
+     */
+    private static final int MAX_WINDOW = 1 << 26;
+
+    /**
+     * The prefix of the comment which records the noise parameters.
+     */
+    private static final String PARAMETERS = "# noise:";
+
+    /**
+     * The pattern of a parameter key or value.
+     */
+    private static final Pattern TOKEN = Pattern.compile("[!-<>-~]+");
+
+    /**
+     * The value types of a heightmap.
+     */
+    public enum Type {
+
+        /**
+         * Little-endian 32-bit floats.
+         */
+        FLOAT32("<f4", Float.BYTES),
+
+        /**
+         * Little-endian 16-bit unsigned integers which represent the values in {@code [0, 1]}.
+         */
+        UINT16("<u2", Short.BYTES),
+        ;
+
+        /**
+         * The NumPy type descriptor of the type.
+         */
+        private final String descriptor;
+
+        /**
+         * The number of bytes of a value.
+         */
+        private final int bytes;
+
+        /**
+         * Constructs a value type with the given NumPy type descriptor and size.
+         *
+         * @param descriptor the NumPy type descriptor of the type
+         * @param bytes      the number of bytes of a value
+         */
+        Type(String descriptor, int bytes) {
+            this.descriptor = descriptor;
+            this.bytes = bytes;
+        }
+
+        /**
+         * Returns the number of bytes of a value.
+         *
+         * @return the number of bytes of a value
+         */
+        public int bytes() {
+            return bytes;
+        }
+    }
+
+    /**
+     * The channel of the file.
+     */
+    private final FileChannel channel;
+
+    /**
+     * The value type of the heightmap.
+     */
+    private final Type type;
+
+    /**
+     * The width of the heightmap.
+     */
+    private final int width;
+
+    /**
+     * The height of the heightmap.
+     */
+    private final int height;
+
+    /**
+     * The position of the first value in the file.
+     */
+    private final long dataOffset;
+
+    /**
+     * The noise parameters recorded in the header.
+     */
+    private final Map<String, String> parameters;
+
+    /**
+     * Whether the values can be written.
+     */
+    private final boolean writable;
+
+    /**
+     * Constructs a heightmap backed by the given channel.
+     *
+     * @param channel    the channel of the file
+     * @param type       the value type of the heightmap
+     * @param width      the width of the heightmap
+     * @param height     the height of the heightmap
+     * @param dataOffset the position of the first value in the file
+     * @param parameters the noise parameters recorded in the header
+     * @param writable   whether the values can be written
+     */
+    private NpyHeightmap(
+        FileChannel channel,
+        Type type,
+        int width,
+        int height,
+        long dataOffset,
+        Map<String, String> parameters,
+        boolean writable
+    ) {
+        this.channel = channel;
+        this.type = type;
+        this.width = width;
+        this.height = height;
+        this.dataOffset = dataOffset;
+        this.parameters = Collections.unmodifiableMap(parameters);
+        this.writable = writable;
+    }
+
+    /**
+     * Creates a heightmap file of the given size, an existing file is replaced. All values are initially zero.
+     *
+     * @param file       the file to create
+     * @param type       the value type of the heightmap
+     * @param width      the width of the heightmap
+     * @param height     the height of the heightmap
+     * @param parameters the noise parameters to record in the header
+     * @return the created heightmap which can be written and read
+     * @throws IOException              if the file cannot be created
+     * @throws IllegalArgumentException if the size is not positive or a parameter key or value is empty or contains
+     *                                  other characters than printable ASCII characters except {@code =}
+     */
+    public static NpyHeightmap create(
+        Path file,
+        Type type,
+        int width,
+        int height,
+        Map<String, String> parameters
+    ) throws IOException {
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("Width and height must be positive");
+        }
+        if ((long) width * type.bytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Heightmap is too wide");
+        }
+        StringBuilder header = new StringBuilder("{'descr': '%s', 'fortran_order': False, 'shape': (%d, %d), }"
+            .formatted(type.descriptor, height, width));
+        if (!parameters.isEmpty()) {
+            header.append(' ').append(PARAMETERS);
+            parameters.forEach((key, value) -> {
+                if (!TOKEN.matcher(key).matches() || !TOKEN.matcher(value).matches()) {
+                    throw new IllegalArgumentException("Invalid parameter %s=%s".formatted(key, value));
+                }
+                header.append(' ').append(key).append('=').append(value);
+            });
+        }
+        // Magic string, version and header length precede the header, which ends with a newline
+        int prefix = MAGIC.length + 4;
+        int length = header.length() + 1;
+        int padded = (prefix + length + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT - prefix;
+        if (padded > 0xFFFF) {
+            throw new IllegalArgumentException("Too many parameters");
+        }
+        header.append(" ".repeat(padded - length)).append('\n');
+
+        ByteBuffer start = ByteBuffer.allocate(prefix + padded).order(ByteOrder.LITTLE_ENDIAN);
+        start.put(MAGIC).put((byte) 1).put((byte) 0).putShort((short) padded);
+        start.put(header.toString().getBytes(StandardCharsets.US_ASCII)).flip();
+
+        FileChannel channel = FileChannel.open(
+            file,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING,
+            StandardOpenOption.READ,
+            StandardOpenOption.WRITE
+        );
+        try {
+            while (start.hasRemaining()) {
+                channel.write(start);
+            }
+            long size = prefix + padded + (long) width * height * type.bytes;
+            // Extends the file without writing the values, so it is sparse on most file systems
+            channel.write(ByteBuffer.allocate(1), size - 1);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        return new NpyHeightmap(channel, type, width, height, prefix + padded, new LinkedHashMap<>(parameters), true);
+    }
+
+    /**
+     * Opens an existing heightmap file for reading.
+     *
+     * @param file the file to open
+     * @return the opened heightmap which can only be read
+     * @throws IOException if the file cannot be read or is not a supported heightmap file
+     */
+    public static NpyHeightmap open(Path file) throws IOException {
+        return open(file, false);
+    }
+
+    /**
+     * Opens an existing heightmap file.
+     *
+     * @param file     the file to open
+     * @param writable whether the values of the heightmap can be written
+     * @return the opened heightmap
+     * @throws IOException if the file cannot be opened or is not a supported heightmap file
+     */
+    public static NpyHeightmap open(Path file, boolean writable) throws IOException {
+        FileChannel channel = writable
+            ? FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)
+            : FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            ByteBuffer start = ByteBuffer.allocate(MAGIC.length + 6).order(ByteOrder.LITTLE_ENDIAN);
+            readFully(channel, start, 0);
+            for (byte b : MAGIC) {
+                if (start.get() != b) {
+                    throw new IOException("Not a .npy file: " + file);
+                }
+            }
+            int major = start.get();
+            start.get();
+            long length;
+            int prefix;
+            if (major == 1) {
+                length = Short.toUnsignedInt(start.getShort());
+                prefix = MAGIC.length + 4;
+            } else if (major == 2 || major == 3) {
+                length = Integer.toUnsignedLong(start.getInt());
+                prefix = MAGIC.length + 6;
+            } else {
+                throw new IOException("Unsupported .npy version " + major);
+            }
+            if (length > 1 << 20) {
+                throw new IOException("Header is too long");
+            }
+            ByteBuffer headerBuffer = ByteBuffer.allocate((int) length);
+            readFully(channel, headerBuffer, prefix);
+            String header = new String(headerBuffer.array(), StandardCharsets.ISO_8859_1);
+            return parse(channel, header, prefix + length, file, writable);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Parses the header of a heightmap file.
+     *
+     * @param channel    the channel of the file
+     * @param header     the header of the file
+     * @param dataOffset the position of the first value in the file
+     * @param file       the file, used for error messages
+     * @param writable   whether the values of the heightmap can be written
+     * @return the opened heightmap
+     * @throws IOException if the header is not a header of a supported heightmap
+     */
+    private static NpyHeightmap parse(
+        FileChannel channel,
+        String header,
+        long dataOffset,
+        Path file,
+        boolean writable
+    ) throws IOException {
+        Matcher descr = Pattern.compile("'descr'\\s*:\\s*'([^']*)'").matcher(header);
+        Matcher order = Pattern.compile("'fortran_order'\\s*:\\s*(True|False)").matcher(header);
+        Matcher shape = Pattern.compile("'shape'\\s*:\\s*\\(\\s*(\\d+)\\s*,\\s*(\\d+)\\s*,?\\s*\\)").matcher(header);
+        if (!descr.find() || !order.find() || !shape.find()) {
+            throw new IOException("Not a two-dimensional .npy file: " + file);
+        }
+        Type type = null;
+        for (Type candidate : Type.values()) {
+            if (candidate.descriptor.equals(descr.group(1))) {
+                type = candidate;
+            }
+        }
+        if (type == null) {
+            throw new IOException("Unsupported value type " + descr.group(1));
+        }
+        if (order.group(1).equals("True")) {
+            throw new IOException("Column-major heightmaps are not supported");
+        }
+        int height = Integer.parseInt(shape.group(1));
+        int width = Integer.parseInt(shape.group(2));
+        if (channel.size() < dataOffset + (long) width * height * type.bytes) {
+            throw new IOException("File is truncated: " + file);
+        }
+        Map<String, String> parameters = new LinkedHashMap<>();
+        int comment = header.indexOf(PARAMETERS, header.indexOf('}'));
+        if (comment >= 0) {
+            String[] pairs = header.substring(comment + PARAMETERS.length()).trim().split("\\s+");
+            for (String pair : pairs) {
+                int separator = pair.indexOf('=');
+                if (separator > 0) {
+                    parameters.put(pair.substring(0, separator), pair.substring(separator + 1));
+                }
+            }
+        }
+        return new NpyHeightmap(channel, type, width, height, dataOffset, parameters, writable);
+    }
+
+    /**
+     * Reads bytes from the given position of the channel until the buffer is full and flips the buffer.
+     *
+     * @param channel  the channel to read from
+     * @param buffer   the buffer to read into
+     * @param position the position to start reading at
+     * @throws IOException if the end of the channel is reached before the buffer is full
+     */
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                throw new IOException("Unexpected end of file");
+            }
+        }
+        buffer.flip();
+    }
+
+    /**
+     * Evaluates the noise for every value of the heightmap and writes the values directly into the mapped file, i.e.
+     * the value at {@code (i, j)} is the noise value at {@code (x + i, y + j)}. The rows are evaluated with the bulk
+     * row evaluation of the noise in bands which are computed in parallel by the executor. Each band is forced to the
+     * storage device when it is complete. This method blocks until all values are written.
+     *
+     * @param noise    the noise to evaluate
+     * @param x        the x-coordinate of the noise value of the first column
+     * @param y        the y-coordinate of the noise value of the first row
+     * @param executor the executor which computes the bands
+     * @throws IOException           if a band cannot be mapped
+     * @throws IllegalStateException if the heightmap was opened for reading
+     */
+    public void write(GradientNoise noise, int x, int y, Executor executor) throws IOException {
+        checkWritable();
+        int rows = bandRows();
+        List<CompletableFuture<Void>> bands = new ArrayList<>();
+        for (int start = 0; start < height; start += rows) {
+            int from = start;
+            int count = Math.min(rows, height - start);
+            bands.add(CompletableFuture.runAsync(() -> {
+                MappedByteBuffer band = map(from, count);
+                float[] row = new float[width];
+                for (int j = 0; j < count; j++) {
+                    noise.computeRow(x, y + from + j, width, row, 0);
+                    put(band, j * width, row, 0, width);
+                }
+                band.force();
+            }, executor));
+        }
+        join(bands);
+    }
+
+    /**
+     * Writes a region of values, i.e. the value at {@code (x + i, y + j)} is read from
+     * {@code values[offset + j * stride + i]}.
+     *
+     * <p>The rows of the region are written by positional writes of the channel instead of a mapped window, so a
+     * small region does not map whole rows of the heightmap and {@link #force()} writes the region to the storage
+     * device.
+     *
+     * @param x      the column of the first value of the region
+     * @param y      the row of the first value of the region
+     * @param w      the width of the region
+     * @param h      the height of the region
+     * @param values the values to write
+     * @param offset the index of the first value
+     * @param stride the distance between the starting indices of two consecutive rows of the values
+     * @throws IOException               if the region cannot be written
+     * @throws IndexOutOfBoundsException if the region is not inside the heightmap
+     * @throws IllegalStateException     if the heightmap was opened for reading
+     */
+    public void write(int x, int y, int w, int h, float[] values, int offset, int stride) throws IOException {
+        checkWritable();
+        checkRegion(x, y, w, h);
+        ByteBuffer row = ByteBuffer.allocate(w * type.bytes).order(ByteOrder.LITTLE_ENDIAN);
+        for (int j = 0; j < h; j++) {
+            row.clear();
+            put(row, 0, values, offset + j * stride, w);
+            long position = dataOffset + ((long) (y + j) * width + x) * type.bytes;
+            while (row.hasRemaining()) {
+                position += channel.write(row, position);
+            }
+        }
+    }
+
+    /**
+     * Reads a region of values, i.e. the value at {@code (x + i, y + j)} is stored at
+     * {@code values[offset + j * stride + i]}.
+     *
+     * @param x      the column of the first value of the region
+     * @param y      the row of the first value of the region
+     * @param w      the width of the region
+     * @param h      the height of the region
+     * @param values the buffer to store the values in
+     * @param offset the index to store the first value at
+     * @param stride the distance between the starting indices of two consecutive rows in the buffer
+     * @throws IOException               if the region cannot be mapped
+     * @throws IndexOutOfBoundsException if the region is not inside the heightmap
+     */
+    public void read(int x, int y, int w, int h, float[] values, int offset, int stride) throws IOException {
+        checkRegion(x, y, w, h);
+        int rows = bandRows();
+        try {
+            for (int start = 0; start < h; start += rows) {
+                int count = Math.min(rows, h - start);
+                MappedByteBuffer band = map(y + start, count);
+                for (int j = 0; j < count; j++) {
+                    get(band, j * width + x, values, offset + (start + j) * stride, w);
+                }
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Returns the value at the given position.
+     *
+     * @param x the column of the value
+     * @param y the row of the value
+     * @return the value at the given position
+     * @throws IOException               if the value cannot be read
+     * @throws IndexOutOfBoundsException if the position is not inside the heightmap
+     */
+    public float get(int x, int y) throws IOException {
+        float[] value = new float[1];
+        read(x, y, 1, 1, value, 0, 1);
+        return value[0];
+    }
+
+    /**
+     * Returns the number of rows which are mapped at once, so a window does not exceed {@value #MAX_WINDOW} bytes.
+     *
+     * @return the number of rows which are mapped at once
+     */
+    private int bandRows() {
+        return (int) Math.max(1, MAX_WINDOW / ((long) width * type.bytes));
+    }
+
+    /**
+     * Maps the given rows of the heightmap.
+     *
+     * @param y    the first row to map
+     * @param rows the number of rows to map
+     * @return the mapped rows with little-endian byte order
+     * @throws UncheckedIOException if the rows cannot be mapped
+     */
+    private MappedByteBuffer map(int y, int rows) {
+        long rowBytes = (long) width * type.bytes;
+        FileChannel.MapMode mode = isWritable() ? FileChannel.MapMode.READ_WRITE : FileChannel.MapMode.READ_ONLY;
+        try {
+            MappedByteBuffer buffer = channel.map(mode, dataOffset + y * rowBytes, rows * rowBytes);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            return buffer;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Stores values in a mapped window or a buffer of a row without changing its position.
+     *
+     * @param band   the mapped window or buffer with little-endian byte order
+     * @param index  the index of the first value in the window
+     * @param values the values to store
+     * @param offset the index of the first value to store
+     * @param length the number of values to store
+     */
+    private void put(ByteBuffer band, int index, float[] values, int offset, int length) {
+        if (type == Type.FLOAT32) {
+            band.asFloatBuffer().put(index, values, offset, length);
+        } else {
+            short[] scaled = new short[length];
+            for (int i = 0; i < length; i++) {
+                float clamped = Math.max(0, Math.min(1, values[offset + i]));
+                scaled[i] = (short) Math.round(clamped * 65535);
+            }
+            band.asShortBuffer().put(index, scaled, 0, length);
+        }
+    }
+
+    /**
+     * Loads values from a mapped window.
+     *
+     * @param band   the mapped window
+     * @param index  the index of the first value in the window
+     * @param values the buffer to store the values in
+     * @param offset the index to store the first value at
+     * @param length the number of values to load
+     */
+    private void get(MappedByteBuffer band, int index, float[] values, int offset, int length) {
+        if (type == Type.FLOAT32) {
+            band.asFloatBuffer().get(index, values, offset, length);
+        } else {
+            short[] scaled = new short[length];
+            band.asShortBuffer().get(index, scaled, 0, length);
+            for (int i = 0; i < length; i++) {
+                values[offset + i] = Short.toUnsignedInt(scaled[i]) / 65535f;
+            }
+        }
+    }
+
+    /**
+     * Checks whether a region is inside the heightmap.
+     *
+     * @param x the column of the first value of the region
+     * @param y the row of the first value of the region
+     * @param w the width of the region
+     * @param h the height of the region
+     * @throws IndexOutOfBoundsException if the region is not inside the heightmap
+     */
+    private void checkRegion(int x, int y, int w, int h) {
+        Objects.checkFromIndexSize(x, w, width);
+        Objects.checkFromIndexSize(y, h, height);
+    }
+
+    /**
+     * Checks whether the values of this heightmap can be written.
+     *
+     * @throws IllegalStateException if the heightmap was opened for reading
+     */
+    private void checkWritable() {
+        if (!writable) {
+            throw new IllegalStateException("Heightmap was opened for reading");
+        }
+    }
+
+    /**
+     * Waits until all given tasks are completed and rethrows the first failure.
+     *
+     * @param tasks the tasks to wait for
+     * @throws IOException if a task failed to map its band
+     */
+    private static void join(List<CompletableFuture<Void>> tasks) throws IOException {
+        try {
+            CompletableFuture.allOf(tasks.toArray(CompletableFuture[]::new)).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof UncheckedIOException cause) {
+                throw cause.getCause();
+            }
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Returns whether the values of this heightmap can be written.
+     *
+     * @return {@code true} if this heightmap was created or opened for writing
+     */
+    public boolean isWritable() {
+        return writable;
+    }
+
+    /**
+     * Returns the value type of this heightmap.
+     *
+     * @return the value type of this heightmap
+     */
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Returns the width of this heightmap.
+     *
+     * @return the width of this heightmap
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Returns the height of this heightmap.
+     *
+     * @return the height of this heightmap
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Returns the noise parameters recorded in the header.
+     *
+     * @return the noise parameters recorded in the header
+     */
+    public Map<String, String> getParameters() {
+        return parameters;
+    }
+
+    /**
+     * Writes all values which were written by {@link #write(int, int, int, int, float[], int, int)} to the storage
+     * device, so they survive a crash of the system. The bands of {@link #write(GradientNoise, int, int, Executor)}
+     * are already forced by that method.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    public void force() throws IOException {
+        channel.force(false);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,303 @@
+package h13.batch;
+
+import h13.noise.GradientNoise;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * A job which evaluates a noise into a {@link NpyHeightmap} which can be much larger than the heap. The heightmap is
+ * split into square tiles which are evaluated in parallel by an executor and written into the file row by row, only a
+ * bounded number of tiles is in memory at once.
+ *
+ * <p>The finished tiles are recorded in a manifest next to the heightmap, the file name of the heightmap followed by
+ * {@code .manifest}. If a job is killed, running it again with the same configuration resumes it and only evaluates
+ * the tiles which are not recorded yet. The first line of the manifest describes the configuration, each further line
+ * contains the index of a finished tile in row-major order. Tiles are only recorded after their values are written to
+ * the storage device.
+ */
+public class TiledJob {
+
+    /**
+     * The default edge length of a tile.
+     */
+    public static final int DEFAULT_TILE_SIZE = 1024;
+
+    /**
+     * The prefix of the line of the manifest which describes the configuration.
+     */
+    private static final String CONFIGURATION = "# ";
+
+    /**
+     * The noise to evaluate.
+     */
+    private final GradientNoise noise;
+
+    /**
+     * The heightmap file to write.
+     */
+    private final Path file;
+
+    /**
+     * The value type of the heightmap.
+     */
+    private final NpyHeightmap.Type type;
+
+    /**
+     * The width of the heightmap.
+     */
+    private final int width;
+
+    /**
+     * The height of the heightmap.
+     */
+    private final int height;
+
+    /**
+     * The edge length of a tile.
+     */
+    private final int tileSize;
+
+    /**
+     * The noise parameters to record in the heightmap.
+     */
+    private final Map<String, String> parameters;
+
+    /**
+     * The executor which evaluates the tiles.
+     */
+    private final Executor executor;
+
+    /**
+     * The maximum number of tiles which are evaluated or waiting to be written at once.
+     */
+    private final int window;
+
+    /**
+     * Constructs a job which evaluates the noise at {@code (x, y)} into the value at {@code (x, y)} of the heightmap.
+     *
+     * @param noise      the noise to evaluate
+     * @param file       the heightmap file to write
+     * @param type       the value type of the heightmap
+     * @param width      the width of the heightmap
+     * @param height     the height of the heightmap
+     * @param tileSize   the edge length of a tile
+     * @param parameters the noise parameters to record in the heightmap, they identify the job when it is resumed
+     * @param executor   the executor which evaluates the tiles
+     * @throws IllegalArgumentException if the size or tile size is not positive
+     */
+    public TiledJob(
+        GradientNoise noise,
+        Path file,
+        NpyHeightmap.Type type,
+        int width,
+        int height,
+        int tileSize,
+        Map<String, String> parameters,
+        Executor executor
+    ) {
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("Width and height must be positive");
+        }
+        if (tileSize <= 0) {
+            throw new IllegalArgumentException("Tile size must be positive");
+        }
+        this.noise = noise;
+        this.file = file;
+        this.type = type;
+        this.width = width;
+        this.height = height;
+        this.tileSize = tileSize;
+        this.parameters = Collections.unmodifiableMap(new LinkedHashMap<>(parameters));
+        this.executor = executor;
+        this.window = 2 * Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Evaluates all tiles which are not recorded in the manifest yet. If the manifest does not exist, the heightmap
+     * is created. This method blocks until all tiles are written.
+     *
+     * @return the number of tiles evaluated by this run
+     * @throws IOException if the heightmap or manifest cannot be written or the manifest belongs to another job
+     */
+    public int run() throws IOException {
+        Path manifest = getManifest();
+        BitSet finished = new BitSet(getTileCount());
+        NpyHeightmap heightmap;
+        if (Files.exists(manifest) && Files.exists(file)) {
+            readManifest(manifest, finished);
+            heightmap = NpyHeightmap.open(file, true);
+            if (heightmap.getType() != type || heightmap.getWidth() != width || heightmap.getHeight() != height) {
+                heightmap.close();
+                throw new IOException("Heightmap does not match the manifest: " + file);
+            }
+        } else {
+            heightmap = NpyHeightmap.create(file, type, width, height, parameters);
+            Files.writeString(manifest, CONFIGURATION + configuration() + System.lineSeparator());
+        }
+
+        int rendered = 0;
+        try (
+            heightmap;
+            BufferedWriter writer = Files.newBufferedWriter(
+                manifest,
+                StandardCharsets.US_ASCII,
+                StandardOpenOption.APPEND
+            )
+        ) {
+            Deque<CompletableFuture<Integer>> pending = new ArrayDeque<>();
+            List<Integer> written = new ArrayList<>();
+            int next = finished.nextClearBit(0);
+            while (next < getTileCount() || !pending.isEmpty()) {
+                while (next < getTileCount() && pending.size() < window) {
+                    int tile = next;
+                    pending.add(CompletableFuture.supplyAsync(() -> render(heightmap, tile), executor));
+                    next = finished.nextClearBit(next + 1);
+                }
+                written.add(join(pending.removeFirst()));
+                if (written.size() == window || pending.isEmpty()) {
+                    // Record the tiles only after their values are on the storage device
+                    heightmap.force();
+                    for (int tile : written) {
+                        writer.write(Integer.toString(tile));
+                        writer.newLine();
+                    }
+                    writer.flush();
+                    rendered += written.size();
+                    written.clear();
+                }
+            }
+        }
+        return rendered;
+    }
+
+    /**
+     * Evaluates a tile and writes it into the heightmap.
+     *
+     * @param heightmap the heightmap to write to
+     * @param tile      the index of the tile in row-major order
+     * @return the index of the tile
+     * @throws UncheckedIOException if the tile cannot be written
+     */
+    private int render(NpyHeightmap heightmap, int tile) {
+        int columns = (int) (((long) width + tileSize - 1) / tileSize);
+        int x = tile % columns * tileSize;
+        int y = tile / columns * tileSize;
+        int w = Math.min(tileSize, width - x);
+        int h = Math.min(tileSize, height - y);
+        float[] values = new float[w * h];
+        for (int j = 0; j < h; j++) {
+            noise.computeRow(x, y + j, w, values, j * w);
+        }
+        try {
+            heightmap.write(x, y, w, h, values, 0, w);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return tile;
+    }
+
+    /**
+     * Reads the finished tiles of the manifest. A partially written last line of a killed job is ignored.
+     *
+     * @param manifest the manifest to read
+     * @param finished the set to add the indices of the finished tiles to
+     * @throws IOException if the manifest cannot be read or belongs to another job
+     */
+    private void readManifest(Path manifest, BitSet finished) throws IOException {
+        List<String> lines = Files.readAllLines(manifest, StandardCharsets.US_ASCII);
+        if (lines.isEmpty() || !lines.get(0).equals(CONFIGURATION + configuration())) {
+            throw new IOException("Manifest belongs to another job: " + manifest);
+        }
+        for (String line : lines.subList(1, lines.size())) {
+            try {
+                int tile = Integer.parseInt(line.trim());
+                if (tile >= 0 && tile < getTileCount()) {
+                    finished.set(tile);
+                }
+            } catch (NumberFormatException e) {
+                // Partially written line
+            }
+        }
+    }
+
+    /**
+     * Returns the description of the configuration of this job which is stored in the manifest.
+     *
+     * @return the description of the configuration of this job
+     */
+    private String configuration() {
+        StringBuilder configuration = new StringBuilder("width=%d height=%d tile=%d type=%s"
+            .formatted(width, height, tileSize, type));
+        parameters.entrySet().stream()
+            .sorted(Map.Entry.comparingByKey())
+            .forEach(entry -> configuration.append(' ').append(entry.getKey()).append('=').append(entry.getValue()));
+        return configuration.toString();
+    }
+
+    /**
+     * Waits until the given task is completed and rethrows its failure.
+     *
+     * @param task the task to wait for
+     * @return the result of the task
+     * @throws IOException if the task failed to write its tile
+     */
+    private static int join(CompletableFuture<Integer> task) throws IOException {
+        try {
+            return task.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof UncheckedIOException cause) {
+                throw cause.getCause();
+            }
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the manifest which records the finished tiles.
+     *
+     * @return the manifest which records the finished tiles
+     */
+    public Path getManifest() {
+        return file.resolveSibling(file.getFileName() + ".manifest");
+    }
+
+    /**
+     * Returns the number of tiles of the heightmap.
+     *
+     * @return the number of tiles of the heightmap
+     */
+    public int getTileCount() {
+        long columns = ((long) width + tileSize - 1) / tileSize;
+        long rows = ((long) height + tileSize - 1) / tileSize;
+        return Math.toIntExact(columns * rows);
+    }
+
+    /**
+     * Returns the edge length of a tile.
+     *
+     * @return the edge length of a tile
+     */
+    public int getTileSize() {
+        return tileSize;
+    }
+}
@@ -1,12 +1,14 @@
 package h13.noise;
 
 import javafx.geometry.Point2D;
+import org.jetbrains.annotations.Nullable;
 import org.tudalgo.algoutils.student.annotation.StudentImplementationRequired;
 
 import java.util.Arrays;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Random;
+import java.util.stream.IntStream;
 
 import static org.tudalgo.algoutils.student.Student.crash;
 
@@ -24,6 +26,24 @@ public abstract class AbstractPerlinNoise implements PerlinNoise {
      */
     public static final double DEFAULT_FREQUENCY = 0.005;
 
+    /**
+     * The number of gradient vectors which are created by a single task in {@link GradientMode#PARALLEL_TABLE} mode.
+     */
+    private static final int GRADIENT_CHUNK_SIZE = 1 << 14;
+
+    /**
+     * Whether a class looks up its gradient vectors with the {@link #getGradient(int, int)} method of the class which
+     * also declares the {@link #gradientIndex(int, int)} it uses, so the gradient vectors can be read from the
+     * component arrays without calling {@link #getGradient(int, int)}.
+     */
+    private static final ClassValue<Boolean> DEFAULT_GRADIENT = new ClassValue<>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            Class<?> gradient = declaringClass(type, "getGradient");
+            return gradient != null && gradient == declaringClass(type, "gradientIndex");
+        }
+    };
+
     /**
      * The random generator used for generating gradient vectors.
      */
@@ -39,14 +59,64 @@ public abstract class AbstractPerlinNoise implements PerlinNoise {
      */
 
     private final int height;
+
+    /**
+     * The way the gradient vectors are determined.
+     */
+    private final GradientMode mode;
+
+    /**
+     * The gradient vectors which are derived from a hash in {@link GradientMode#HASHED} mode, or {@code null} if the
+     * gradient vectors are determined in another way.
+     */
+    private final @Nullable HashedGradients hashedGradients;
+
+    /**
+     * The seed of the hash which selects the fixed gradient vectors in {@link GradientMode#FIXED} mode.
+     */
+    private final long fixedSeed;
+
+    /**
+     * The array of gradient vectors where each vector is associated with a grid cell. If no gradient table is used,
+     * the array is the view of the derived gradient vectors created by {@link #getGradients()}, or {@code null} if it
+     * was not requested yet.
+     */
+    private Point2D[] gradients;
+
+    /**
+     * The components of the gradient table which are read by the noise computation, or {@code null} if they were not
+     * needed yet. They are unpacked from {@link #gradients} on first use and again whenever the gradient table was
+     * replaced.
+     */
+    private @Nullable GradientComponents components;
+
+    /**
+     * Whether the random generator was created from {@link #seed}, so the noise has a {@link NoiseSpec}.
+     */
+    private final boolean seeded;
+
     /**
-     * The array of gradient vectors where each vector is associated with a grid cell.
+     * The seed of the random generator, or 0 if the noise was not created from a seed.
      */
-    private final Point2D[] gradients;
+    private final long seed;
+
     /**
-     * The hash code of this Perlin noise object used for caching.
+     * The hash code of the gradient vectors, or 0 if it was not computed yet. It is computed on the first call of
+     * {@link #hashCode()} since hashing the gradient vectors takes time proportional to the noise domain.
      */
-    protected int hashCode = -1;
+    private int gradientHash;
+
+    /**
+     * Whether the hash code of the gradient vectors was computed and is 0.
+     */
+    private boolean gradientHashIsZero;
+
+    /**
+     * The specification of this noise, or {@code null} if the noise was not created from a seed. It is replaced when
+     * the frequency changes.
+     */
+    private volatile @Nullable NoiseSpec spec;
+
     /**
      * The frequency of the Perlin noise.
      */
@@ -74,6 +144,116 @@ public abstract class AbstractPerlinNoise implements PerlinNoise {
      * @throws IllegalArgumentException if the width or height is negative, or if the frequency is not between 0 and 1
      */
     public AbstractPerlinNoise(int width, int height, double frequency, Random randomGenerator) {
+        this(width, height, frequency, randomGenerator, GradientMode.TABLE);
+    }
+
+    /**
+     * Constructs an abstract Perlin noise with the specified noise domain, frequency, randomGenerator and the way the
+     * gradient vectors are determined. In all modes except {@link GradientMode#TABLE}, a single seed is drawn from the
+     * random generator. In {@link GradientMode#HASHED} and {@link GradientMode#FIXED} mode, no gradient table is
+     * allocated, so the noise domain can be arbitrarily large.
+     *
+     * @param width           the width of the noise domain
+     * @param height          the height of the noise domain
+     * @param frequency       the frequency of the Perlin noise
+     * @param randomGenerator the random generator used for generating gradient vectors
+     * @param mode            the way the gradient vectors are determined
+     * @throws IllegalArgumentException if the width or height is negative, or if the frequency is not between 0 and 1
+     */
+    public AbstractPerlinNoise(int width, int height, double frequency, Random randomGenerator, GradientMode mode) {
+        this(
+            width,
+            height,
+            frequency,
+            randomGenerator,
+            mode,
+            gradientCount(width, height, mode)
+        );
+    }
+
+    /**
+     * Constructs an abstract Perlin noise with the specified noise domain, frequency, randomGenerator, the way the
+     * gradient vectors are determined and the size of the gradient table. The gradient table can contain fewer
+     * gradient vectors than the gradient domain has points, which is intended for subclasses which map the gradient
+     * domain onto a small gradient table in {@link #gradientIndex(int, int)}, so the construction cost does not depend
+     * on the size of the noise domain.
+     *
+     * @param width           the width of the noise domain
+     * @param height          the height of the noise domain
+     * @param frequency       the frequency of the Perlin noise
+     * @param randomGenerator the random generator used for generating gradient vectors
+     * @param mode            the way the gradient vectors are determined
+     * @param gradientCount   the number of gradient vectors in the gradient table, ignored if no gradient table is
+     *                        used
+     * @throws IllegalArgumentException if the width, height or gradient count is negative, or if the frequency is not
+     *                                  between 0 and 1
+     */
+    protected AbstractPerlinNoise(
+        int width,
+        int height,
+        double frequency,
+        Random randomGenerator,
+        GradientMode mode,
+        int gradientCount
+    ) {
+        this(width, height, frequency, randomGenerator, mode, gradientCount, false, 0);
+    }
+
+    /**
+     * Constructs an abstract Perlin noise like
+     * {@link #AbstractPerlinNoise(int, int, double, Random, GradientMode, int)} whose random generator was created
+     * from the given seed by {@code new Random(seed)}. Everything drawn from the random generator, including draws
+     * of a subclass before this constructor, must only depend on the seed, so the noise is identified by its
+     * {@link #getSpec() specification}.
+     *
+     * @param width           the width of the noise domain
+     * @param height          the height of the noise domain
+     * @param frequency       the frequency of the Perlin noise
+     * @param seed            the seed of the random generator
+     * @param randomGenerator the random generator created from the seed
+     * @param mode            the way the gradient vectors are determined
+     * @param gradientCount   the number of gradient vectors in the gradient table, ignored if no gradient table is
+     *                        used
+     * @throws IllegalArgumentException if the width, height or gradient count is negative, or if the frequency is not
+     *                                  between 0 and 1
+     */
+    protected AbstractPerlinNoise(
+        int width,
+        int height,
+        double frequency,
+        long seed,
+        Random randomGenerator,
+        GradientMode mode,
+        int gradientCount
+    ) {
+        this(width, height, frequency, randomGenerator, mode, gradientCount, true, seed);
+    }
+
+    /**
+     * Constructs an abstract Perlin noise which is optionally identified by the seed of its random generator.
+     *
+     * @param width           the width of the noise domain
+     * @param height          the height of the noise domain
+     * @param frequency       the frequency of the Perlin noise
+     * @param randomGenerator the random generator used for generating gradient vectors
+     * @param mode            the way the gradient vectors are determined
+     * @param gradientCount   the number of gradient vectors in the gradient table, ignored if no gradient table is
+     *                        used
+     * @param seeded          whether the random generator was created from the seed
+     * @param seed            the seed of the random generator, ignored if it was not created from a seed
+     * @throws IllegalArgumentException if the width, height or gradient count is negative, or if the frequency is not
+     *                                  between 0 and 1
+     */
+    private AbstractPerlinNoise(
+        int width,
+        int height,
+        double frequency,
+        Random randomGenerator,
+        GradientMode mode,
+        int gradientCount,
+        boolean seeded,
+        long seed
+    ) {
         if (width < 0) {
             throw new IllegalArgumentException("Width cannot be negative");
         }
@@ -84,7 +264,113 @@ public abstract class AbstractPerlinNoise implements PerlinNoise {
         this.height = height;
         setFrequency(frequency);
         this.randomGenerator = randomGenerator;
-        this.gradients = createGradients(width + 1, height + 1);
+        this.mode = mode;
+        if (!mode.hasTable()) {
+            long hashSeed = randomGenerator.nextLong();
+            this.hashedGradients = mode == GradientMode.HASHED ? new HashedGradients(hashSeed) : null;
+            this.fixedSeed = mode == GradientMode.FIXED ? hashSeed : 0;
+        } else {
+            if (gradientCount < 0) {
+                throw new IllegalArgumentException("Gradient count cannot be negative");
+            }
+            this.hashedGradients = null;
+            this.fixedSeed = 0;
+            if (mode == GradientMode.PARALLEL_TABLE) {
+                this.gradients = new Point2D[gradientCount];
+                createGradients(randomGenerator.nextLong(), gradients);
+            } else if (gradientCount == gradientCount(width, height, mode)) {
+                this.gradients = createGradients(width + 1, height + 1);
+            } else {
+                this.gradients = createGradients(gradientCount, 1);
+            }
+        }
+        this.seeded = seeded;
+        this.seed = seeded ? seed : 0;
+        this.spec = createSpec();
+    }
+
+    /**
+     * Returns the number of gradient vectors of the gradient table which covers the whole gradient domain.
+     *
+     * @param width  the width of the noise domain
+     * @param height the height of the noise domain
+     * @param mode   the way the gradient vectors are determined
+     * @return the number of gradient vectors of the gradient table, or 0 if no gradient table is used
+     */
+    protected static int gradientCount(int width, int height, GradientMode mode) {
+        return mode.hasTable() ? (width + 1) * (height + 1) : 0;
+    }
+
+    /**
+     * Returns whether the given class looks up its gradient vectors by {@link #gradientIndex(int, int)} within the
+     * gradient table, i.e. it does not override {@link #getGradient(int, int)} alone.
+     *
+     * @param type the class to check
+     * @return {@code true} if the gradient vectors can be read from the gradient table
+     */
+    static boolean hasDefaultGradient(Class<? extends AbstractPerlinNoise> type) {
+        return DEFAULT_GRADIENT.get(type);
+    }
+
+    /**
+     * Returns the class which declares the method with the given name and two {@code int} parameters that is called
+     * on instances of the given class.
+     *
+     * @param type the class of the instances
+     * @param name the name of the method
+     * @return the class which declares the method, or {@code null} if no class declares it
+     */
+    private static @Nullable Class<?> declaringClass(Class<?> type, String name) {
+        for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+            try {
+                current.getDeclaredMethod(name, int.class, int.class);
+                return current;
+            } catch (NoSuchMethodException ignored) {
+                // Declared by a superclass
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Fills the given array with random 2D gradient vectors within the unit circle in parallel. The i-th gradient
+     * vector is derived from the seed and its index by a counter-based generator, so chunks of the array are filled
+     * independently of each other and the result does not depend on the number of threads.
+     *
+     * <p>The gradient vectors are the same as if they were drawn sequentially like in {@link #createGradient()} from
+     * a {@code new SplittableRandom(seed)}, whose i-th double is computed from the seed and i without any shared state.
+     * Since the gradient vectors are not drawn from the random generator of the noise, this fill does not use
+     * {@link #createGradient()}.
+     *
+     * @param seed      the seed of the gradient vectors
+     * @param gradients the array to store the gradient vectors in
+     */
+    protected static void createGradients(long seed, Point2D[] gradients) {
+        int chunks = (gradients.length + GRADIENT_CHUNK_SIZE - 1) / GRADIENT_CHUNK_SIZE;
+        IntStream.range(0, chunks).parallel().forEach(chunk -> {
+            int end = (int) Math.min(gradients.length, (chunk + 1L) * GRADIENT_CHUNK_SIZE);
+            for (int i = chunk * GRADIENT_CHUNK_SIZE; i < end; i++) {
+                double angle = splitDouble(seed, 2L * i) * Math.PI;
+                double radius = Math.nextUp(splitDouble(seed, 2L * i + 1));
+                gradients[i] = new Point2D(Math.cos(angle) * radius, Math.sin(angle) * radius);
+            }
+        });
+    }
+
+    /**
+     * Returns the double with the given index of the sequence of a {@code new SplittableRandom(seed)}, which is the
+     * mixed value of the seed advanced by the golden gamma {@code index + 1} times.
+     *
+     * @param seed  the seed of the sequence
+     * @param index the index of the double in the sequence
+     * @return the double with the given index between 0 (inclusive) and 1 (exclusive)
+     */
+    private static double splitDouble(long seed, long index) {
+        long z = seed + (index + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ z >>> 30) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ z >>> 27) * 0x94D049BB133111EBL;
+        z ^= z >>> 31;
+        return (z >>> 11) * 0x1.0p-53;
     }
 
     /**
@@ -95,6 +381,9 @@ public abstract class AbstractPerlinNoise implements PerlinNoise {
      *
      * <p>The gradient vectors are stored in a 1D array, where we need to map the 2D coordinates to the 1D index.
      *
+     * <p>The noise computation reads the gradient vectors from primitive component arrays which are unpacked from
+     * the created array on first use (see {@link #getGradientsX()}).
+     *
      * <p>Visual representation of the gradient domain:
      *
      * <pre>{@code
@@ -116,11 +405,9 @@ public abstract class AbstractPerlinNoise implements PerlinNoise {
     @StudentImplementationRequired
     protected Point2D[] createGradients(int width, int height) {
         // H1.1
-        Point2D[] gradients = new Point2D[(width ) * (height )];
-        for (int i=0; i < height; i++){
-            for (int j=0; j < width; j++){
-                gradients[j * (width ) + i] = createGradient();
-            }
+        Point2D[] gradients = new Point2D[width * height];
+        for (int i = 0; i < gradients.length; i++) {
+            gradients[i] = createGradient();
         }
         return gradients;
     }
@@ -159,6 +446,10 @@ public abstract class AbstractPerlinNoise implements PerlinNoise {
             throw new IllegalArgumentException("Frequency must be between 0 and 1");
         }
         this.frequency = frequency;
+        // The constructor sets the frequency before the seed is known and creates the specification itself
+        if (seeded) {
+            this.spec = createSpec();
+        }
     }
 
     @Override
@@ -166,11 +457,114 @@ public abstract class AbstractPerlinNoise implements PerlinNoise {
         return randomGenerator;
     }
 
+    /**
+     * Returns the gradient vectors. In {@link GradientMode#HASHED} and {@link GradientMode#FIXED} mode, no gradient
+     * table exists and a view of the derived gradient vectors is created by {@link #createGradientView()} on the first
+     * call, otherwise the gradient table is returned.
+     *
+     * <p>The noise computation reads the components of the gradient table, which are unpacked again if the gradient
+     * table is replaced, but not if it is modified in place.
+     *
+     * @return the gradient vectors
+     */
     @Override
     public Point2D[] getGradients() {
+        if (gradients == null) {
+            gradients = createGradientView();
+        }
         return gradients;
     }
 
+    /**
+     * Creates the view of the derived gradient vectors if no gradient table is used. The view contains the gradient
+     * vectors of the gradient domain in row-major order.
+     *
+     * @return the view of the derived gradient vectors
+     */
+    protected Point2D[] createGradientView() {
+        Point2D[] view = new Point2D[(width + 1) * (height + 1)];
+        for (int i = 0; i < view.length; i++) {
+            int x = i % (width + 1);
+            int y = i / (width + 1);
+            view[i] = new Point2D(dotGradient(x, y, 1, 0), dotGradient(x, y, 0, 1));
+        }
+        return view;
+    }
+
+    /**
+     * Returns the components of the gradient table, unpacking them if the gradient table was not unpacked yet or was
+     * replaced since.
+     *
+     * @return the components of the gradient table
+     */
+    private GradientComponents getComponents() {
+        GradientComponents current = components;
+        Point2D[] table = gradients;
+        if (current == null || current.table() != table) {
+            double[] x = new double[table.length];
+            double[] y = new double[table.length];
+            for (int i = 0; i < table.length; i++) {
+                x[i] = table[i].getX();
+                y[i] = table[i].getY();
+            }
+            current = new GradientComponents(table, x, y);
+            components = current;
+        }
+        return current;
+    }
+
+    /**
+     * Returns the x components of the gradient vectors of the gradient table. The returned array is the internal
+     * storage and must not be modified.
+     *
+     * @return the x components of the gradient vectors, or an empty array if no gradient table is used
+     */
+    protected double[] getGradientsX() {
+        return mode.hasTable() ? getComponents().x() : new double[0];
+    }
+
+    /**
+     * Returns the y components of the gradient vectors of the gradient table. The returned array is the internal
+     * storage and must not be modified.
+     *
+     * @return the y components of the gradient vectors, or an empty array if no gradient table is used
+     */
+    protected double[] getGradientsY() {
+        return mode.hasTable() ? getComponents().y() : new double[0];
+    }
+
+    /**
+     * Returns the gradient vectors which are derived from a hash in {@link GradientMode#HASHED} mode.
+     *
+     * @return the hashed gradient vectors, or {@code null} if the gradient vectors are stored in a table
+     */
+    protected @Nullable HashedGradients getHashedGradients() {
+        return hashedGradients;
+    }
+
+    /**
+     * Returns the way the gradient vectors are determined.
+     *
+     * @return the way the gradient vectors are determined
+     */
+    public GradientMode getGradientMode() {
+        return mode;
+    }
+
+    /**
+     * Returns the direction of the fixed gradient vector at the position (x, y) in the gradient domain in
+     * {@link GradientMode#FIXED} mode. The direction is selected by a hash of the coordinates and the seed drawn from
+     * the random generator.
+     *
+     * @param x the x coordinate of the gradient domain
+     * @param y the y coordinate of the gradient domain
+     * @return the direction of the fixed gradient vector at the position (x, y)
+     * @see FixedGradients#direction(int)
+     */
+    protected int fixedDirection(int x, int y) {
+        return FixedGradients.direction((int) (HashedGradients.hash(fixedSeed, x, y) >>> 32));
+    }
+
     /**
      * Gibt den Gradienten an der Position (x, y) in der Gradienten-Domän
      * @param x the x coordinate of the gradient domain
@@ -184,6 +578,106 @@ public abstract class AbstractPerlinNoise implements PerlinNoise {
         return gradients[y * (width + 1) + x];
     }
 
+    /**
+     * Returns the index of the gradient vector at the position (x, y) in the gradient domain within the gradient
+     * table. A subclass which overrides {@link #getGradient(int, int)} must override this method as well, otherwise
+     * the noise computation looks up the gradient vectors by {@link #getGradient(int, int)}.
+     *
+     * @param x the x coordinate of the gradient domain
+     * @param y the y coordinate of the gradient domain
+     * @return the index of the gradient vector at the position (x, y)
+     */
+    protected int gradientIndex(int x, int y) {
+        return y * (width + 1) + x;
+    }
+
+    /**
+     * Computes the dot product of the gradient vector at the position (x, y) in the gradient domain and the given
+     * distance vector without creating any intermediate objects. If a subclass looks up the gradient vectors of the
+     * gradient table by its own {@link #getGradient(int, int)}, the dot product is computed from its result instead.
+     *
+     * @param x  the x coordinate of the gradient domain
+     * @param y  the y coordinate of the gradient domain
+     * @param dx the x component of the distance vector
+     * @param dy the y component of the distance vector
+     * @return the dot product of the gradient vector and the distance vector
+     */
+    protected double dotGradient(int x, int y, double dx, double dy) {
+        if (hashedGradients != null) {
+            return hashedGradients.dot(x, y, dx, dy);
+        }
+        if (mode == GradientMode.FIXED) {
+            return FixedGradients.dot(fixedDirection(x, y), dx, dy);
+        }
+        if (!hasDefaultGradient(getClass())) {
+            Point2D gradient = getGradient(x, y);
+            return gradient.getX() * dx + gradient.getY() * dy;
+        }
+        GradientComponents table = getComponents();
+        int index = gradientIndex(x, y);
+        return table.x()[index] * dx + table.y()[index] * dy;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>The estimate is dominated by the gradient table, which grows with the gradient domain in
+     * {@link GradientMode#TABLE} mode, and its components once they were unpacked. Without a gradient table, only the
+     * view of the derived gradient vectors is counted if it was requested.
+     */
+    @Override
+    public long estimatedSize() {
+        long size = 64;
+        Point2D[] table = gradients;
+        if (table != null) {
+            // A compressed reference and a Point2D object with two doubles and a cached hash code per gradient
+            size += arraySize(table.length, 4) + 40L * table.length;
+        }
+        GradientComponents unpacked = components;
+        if (unpacked != null) {
+            size += arraySize(unpacked.x().length, Double.BYTES) + arraySize(unpacked.y().length, Double.BYTES);
+        }
+        return size;
+    }
+
+    /**
+     * Returns an estimate of the heap memory of an array in bytes.
+     *
+     * @param length      the length of the array
+     * @param elementSize the size of an element in bytes
+     * @return an estimate of the heap memory of the array in bytes
+     */
+    protected static long arraySize(int length, int elementSize) {
+        return 16 + (long) length * elementSize;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>The root specification contains the class of the noise, the seed of the random generator, the noise domain,
+     * the frequency and the gradient mode.
+     */
+    @Override
+    public @Nullable NoiseSpec getSpec() {
+        return spec;
+    }
+
+    /**
+     * Creates the specification of this noise from its current frequency.
+     *
+     * @return the specification of this noise, or {@code null} if the noise was not created from a seed
+     */
+    private @Nullable NoiseSpec createSpec() {
+        return seeded ? NoiseSpec.of(getClass().getName(), seed, width, height, frequency, mode) : null;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Two noises which were both created from a seed are compared by their {@link #getSpec() specifications} in
+     * constant time. Otherwise, the gradient vectors are only compared if the hash codes are equal, so the comparison
+     * of unequal noises usually takes constant time once their hash codes are known.
+     */
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -193,18 +687,51 @@ public abstract class AbstractPerlinNoise implements PerlinNoise {
             return false;
         }
         AbstractPerlinNoise that = (AbstractPerlinNoise) o;
+        if (seeded && that.seeded) {
+            return Objects.equals(spec, that.spec);
+        }
+        if (hashCode() != that.hashCode()) {
+            return false;
+        }
         return width == that.width
             && height == that.height
             && Double.compare(frequency, that.frequency) == 0
-            && Arrays.equals(gradients, that.gradients);
+            && mode == that.mode
+            && fixedSeed == that.fixedSeed
+            && Objects.equals(hashedGradients, that.hashedGradients)
+            && (!mode.hasTable() || Arrays.equals(gradients, that.gradients));
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * <p>The hash code does not depend on the frequency, so it does not change when the frequency is changed. The
+     * gradient vectors are hashed on the first call only.
+     */
     @Override
     public int hashCode() {
-        if (hashCode == -1) {
-            int result = Objects.hash(width, height, frequency, Arrays.hashCode(gradients));
-            hashCode = 31 * result + Arrays.hashCode(gradients);
+        int hash = gradientHash;
+        if (hash == 0 && !gradientHashIsZero) {
+            hash = Objects.hash(mode.ordinal(), fixedSeed, hashedGradients);
+            if (mode.hasTable()) {
+                hash = 31 * hash + Arrays.hashCode(gradients);
+            }
+            if (hash == 0) {
+                gradientHashIsZero = true;
+            } else {
+                gradientHash = hash;
+            }
         }
-        return hashCode;
+        return 31 * Objects.hash(width, height) + hash;
+    }
+
+    /**
+     * The components of a gradient table, which are stored in the same order as the gradient table.
+     *
+     * @param table the gradient table the components were unpacked from
+     * @param x     the x components of the gradient vectors
+     * @param y     the y components of the gradient vectors
+     */
+    private record GradientComponents(Point2D[] table, double[] x, double[] y) {
     }
 }
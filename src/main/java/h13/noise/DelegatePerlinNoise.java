@@ -1,6 +1,7 @@
 package h13.noise;
 
 import javafx.geometry.Point2D;
+import org.jetbrains.annotations.Nullable;
 import org.tudalgo.algoutils.student.annotation.StudentImplementationRequired;
 
 import java.util.Objects;
@@ -28,6 +29,12 @@ public abstract class DelegatePerlinNoise implements PerlinNoise {
      */
     protected final PerlinNoise delegate;
 
+    /**
+     * The specification of this noise together with the specification of the underlying noise it was derived from,
+     * or {@code null} if it was not derived yet or has to be derived again.
+     */
+    private volatile @Nullable DerivedSpec derivedSpec;
+
     /**
      * Constructs a delegated Perlin noise object with the specified underlying Perlin noise object.
      *
@@ -91,6 +98,60 @@ public abstract class DelegatePerlinNoise implements PerlinNoise {
         return delegate.interpolate(x1, x2, alpha);
     }
 
+    @Override
+    public long estimatedSize() {
+        return 32 + delegate.estimatedSize();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>The specification is derived from the specification of the underlying Perlin noise object by
+     * {@link #deriveSpec(NoiseSpec)}. It is derived again only if the specification of the underlying Perlin noise
+     * object changed or {@link #invalidateSpec()} was called.
+     */
+    @Override
+    public @Nullable NoiseSpec getSpec() {
+        NoiseSpec base = delegate.getSpec();
+        if (base == null) {
+            return null;
+        }
+        DerivedSpec derived = derivedSpec;
+        if (derived == null || derived.base() != base) {
+            derived = new DerivedSpec(base, deriveSpec(base));
+            derivedSpec = derived;
+        }
+        return derived.spec();
+    }
+
+    /**
+     * Derives the specification of this Perlin noise object from the specification of the underlying Perlin noise
+     * object. The default implementation derives it by the class of this Perlin noise object.
+     *
+     * @param base the specification of the underlying Perlin noise object
+     * @return the specification of this Perlin noise object
+     */
+    protected NoiseSpec deriveSpec(NoiseSpec base) {
+        return base.derive(getClass().getName());
+    }
+
+    /**
+     * Discards the derived specification, so it is derived again on the next call of {@link #getSpec()}. Subclasses
+     * must call this method whenever a parameter of their specification changes.
+     */
+    protected void invalidateSpec() {
+        derivedSpec = null;
+    }
+
+    /**
+     * A derived specification together with the specification it was derived from.
+     *
+     * @param base the specification of the underlying Perlin noise object
+     * @param spec the specification derived from the base specification
+     */
+    private record DerivedSpec(NoiseSpec base, NoiseSpec spec) {
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -0,0 +1,97 @@
+package h13.noise;
+
+/**
+ * Perlin's fixed set of gradient vectors which is used in {@link GradientMode#FIXED} mode. A gradient vector is one of
+ * the {@value #DIRECTIONS} directions {@code (±1, ±1)}, {@code (±1, 0)} and {@code (0, ±1)} selected by the lower bits
+ * of a hash, which is the two-dimensional form of the twelve cube edge directions of Perlin's improved noise.
+ *
+ * <p>Since the components are -1, 0 or 1, a dot product with a gradient vector is a selection of additions and
+ * subtractions of the distance vector components. No gradient vectors are stored and no multiplication is needed, and
+ * the dot products are exact, so the noise values are identical on every platform.
+ */
+public final class FixedGradients {
+
+    /**
+     * The number of directions of the gradient vectors.
+     */
+    public static final int DIRECTIONS = 8;
+
+    /**
+     * Don't let anyone instantiate this class.
+     */
+    private FixedGradients() {
+    }
+
+    /**
+     * Returns the direction of the gradient vector with the given hash.
+     *
+     * @param hash the hash of the lattice coordinates
+     * @return the direction of the gradient vector between 0 and {@value #DIRECTIONS} - 1
+     */
+    public static int direction(int hash) {
+        return hash & DIRECTIONS - 1;
+    }
+
+    /**
+     * Computes the dot product of the gradient vector with the given direction and the given distance vector.
+     *
+     * @param direction the direction of the gradient vector, see {@link #direction(int)}
+     * @param dx        the x component of the distance vector
+     * @param dy        the y component of the distance vector
+     * @return the dot product of the gradient vector and the distance vector
+     */
+    public static double dot(int direction, double dx, double dy) {
+        return switch (direction) {
+            case 0 -> dx + dy;
+            case 1 -> -dx + dy;
+            case 2 -> dx - dy;
+            case 3 -> -dx - dy;
+            case 4 -> dx;
+            case 5 -> -dx;
+            case 6 -> dy;
+            default -> -dy;
+        };
+    }
+
+    /**
+     * Computes the dot product of the gradient vector with the given direction and the given distance vector with
+     * single precision.
+     *
+     * @param direction the direction of the gradient vector, see {@link #direction(int)}
+     * @param dx        the x component of the distance vector
+     * @param dy        the y component of the distance vector
+     * @return the dot product of the gradient vector and the distance vector
+     */
+    public static float dot(int direction, float dx, float dy) {
+        return switch (direction) {
+            case 0 -> dx + dy;
+            case 1 -> -dx + dy;
+            case 2 -> dx - dy;
+            case 3 -> -dx - dy;
+            case 4 -> dx;
+            case 5 -> -dx;
+            case 6 -> dy;
+            default -> -dy;
+        };
+    }
+
+    /**
+     * Returns the x component of the gradient vector with the given direction.
+     *
+     * @param direction the direction of the gradient vector, see {@link #direction(int)}
+     * @return the x component of the gradient vector
+     */
+    public static double gradientX(int direction) {
+        return dot(direction, 1.0, 0.0);
+    }
+
+    /**
+     * Returns the y component of the gradient vector with the given direction.
+     *
+     * @param direction the direction of the gradient vector, see {@link #direction(int)}
+     * @return the y component of the gradient vector
+     */
+    public static double gradientY(int direction) {
+        return dot(direction, 0.0, 1.0);
+    }
+}
@@ -0,0 +1,266 @@
+package h13.noise;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A single precision version of a Perlin noise object. The gradient vectors of the underlying Perlin noise are
+ * converted to single precision once, all noise values are computed with single precision using the same algorithm as
+ * {@link SimplePerlinNoise}. Gradient vectors are accessed in the same way as by the underlying Perlin noise, e.g. using
+ * the permutation array of an {@link ImprovedPerlinNoise}.
+ *
+ * <p>Single precision halves the memory traffic of the gradient vectors and the computed values, and doubles the
+ * number of values which can be computed at once by the vectorized {@link SpanKernel}. Since the noise values are
+ * usually mapped to 8-bit or 16-bit pixels, the precision loss is not visible.
+ *
+ * <p>The single precision gradient table is kept in addition to the double precision table of the underlying Perlin
+ * noise, which stays reachable as the delegate, so a converted noise needs up to 1.5 times the memory of its
+ * underlying Perlin noise. The conversion trades memory for speed and should only be kept for the noise which is
+ * drawn.
+ *
+ * @see PerlinNoise#singlePrecision(PerlinNoise)
+ */
+public class FloatPerlinNoise extends DelegatePerlinNoise implements PerlinNoise {
+
+    /**
+     * The underlying Perlin noise object which determines how the gradient vectors are accessed.
+     */
+    private final AbstractPerlinNoise noise;
+
+    /**
+     * The x components of the gradient vectors with single precision.
+     */
+    private final float[] gradientsX;
+
+    /**
+     * The y components of the gradient vectors with single precision.
+     */
+    private final float[] gradientsY;
+
+    /**
+     * The gradient vectors of the underlying Perlin noise which are derived from a hash, or {@code null} if they are
+     * stored in a table.
+     */
+    private final @Nullable HashedGradients hashedGradients;
+
+    /**
+     * Whether the underlying Perlin noise uses the {@link FixedGradients}.
+     */
+    private final boolean fixed;
+
+    /**
+     * Constructs a single precision Perlin noise object of the specified Perlin noise object.
+     *
+     * @param noise the Perlin noise object to convert
+     */
+    public FloatPerlinNoise(AbstractPerlinNoise noise) {
+        super(noise);
+        this.noise = noise;
+        this.hashedGradients = noise.getHashedGradients();
+        this.fixed = noise.getGradientMode() == GradientMode.FIXED;
+        double[] x = noise.getGradientsX();
+        double[] y = noise.getGradientsY();
+        this.gradientsX = new float[x.length];
+        this.gradientsY = new float[y.length];
+        for (int i = 0; i < x.length; i++) {
+            gradientsX[i] = (float) x[i];
+            gradientsY[i] = (float) y[i];
+        }
+    }
+
+    @Override
+    public double compute(int x, int y) {
+        float f = (float) getFrequency();
+        return compute(x * f, y * f);
+    }
+
+    @Override
+    public double compute(double x, double y) {
+        return compute((float) x, (float) y);
+    }
+
+    @Override
+    public float compute(float x, float y) {
+        int x0 = (int) Math.floor(x);
+        int x1 = x0 + 1;
+        int y0 = (int) Math.floor(y);
+        int y1 = y0 + 1;
+
+        float dx = x - x0;
+        float dy = y - y0;
+
+        float sx0y0 = dotGradient(x0, y0, dx, dy);
+        float sx1y0 = dotGradient(x1, y0, dx - 1, dy);
+        float sx0y1 = dotGradient(x0, y1, dx, dy - 1);
+        float sx1y1 = dotGradient(x1, y1, dx - 1, dy - 1);
+
+        float fx = fade(dx);
+        float lx0 = interpolate(sx0y0, sx1y0, fx);
+        float lx1 = interpolate(sx0y1, sx1y1, fx);
+
+        return interpolate(lx0, lx1, fade(dy));
+    }
+
+    /**
+     * Computes the noise values of a single row by walking the row cell by cell with single precision.
+     *
+     * @param x      the x-coordinate of the starting point of the row
+     * @param y      the y-coordinate of the row
+     * @param w      the number of values to compute
+     * @param buffer the buffer to store the computed values in
+     * @param offset the index of the buffer to store the first value at
+     * @see SimplePerlinNoise#computeRow(int, int, int, double[], int)
+     */
+    @Override
+    public void computeRow(int x, int y, int w, float[] buffer, int offset) {
+        computeRow(x, y, w, (float) getFrequency(), buffer, offset);
+    }
+
+    @Override
+    public void computeRow(int x, int y, int w, float f, float[] buffer, int offset) {
+        if (w <= 0) {
+            return;
+        }
+        float py = y * f;
+        int y0 = (int) Math.floor(py);
+        int y1 = y0 + 1;
+        float dy = py - y0;
+        float fy = fade(dy);
+        SpanKernel kernel = SpanKernel.VECTORIZED;
+
+        float[] coefficients = RowScratch.get().floatCoefficients;
+        int previousX1 = 0;
+        int start = 0;
+        while (start < w) {
+            int x0 = (int) Math.floor((x + start) * f);
+            int x1 = x0 + 1;
+            int end = SpanKernel.cellEnd(x, start, w, f, x1);
+            if (start > 0 && x0 == previousX1) {
+                // The left corners are the right corners of the previous cell
+                coefficients[0] = coefficients[2];
+                coefficients[1] = coefficients[3];
+                coefficients[4] = coefficients[6];
+                coefficients[5] = coefficients[7];
+            } else {
+                coefficients[0] = dotGradient(x0, y0, 1, 0);
+                coefficients[1] = dotGradient(x0, y0, 0, dy);
+                coefficients[4] = dotGradient(x0, y1, 1, 0);
+                coefficients[5] = dotGradient(x0, y1, 0, dy - 1);
+            }
+            coefficients[2] = dotGradient(x1, y0, 1, 0);
+            coefficients[3] = dotGradient(x1, y0, 0, dy);
+            coefficients[6] = dotGradient(x1, y1, 1, 0);
+            coefficients[7] = dotGradient(x1, y1, 0, dy - 1);
+            previousX1 = x1;
+            float kx0y0 = coefficients[0];
+            float cx0y0 = coefficients[1];
+            float kx1y0 = coefficients[2];
+            float cx1y0 = coefficients[3];
+            float kx0y1 = coefficients[4];
+            float cx0y1 = coefficients[5];
+            float kx1y1 = coefficients[6];
+            float cx1y1 = coefficients[7];
+
+            if (kernel != null && end - start >= kernel.minimumLength()) {
+                kernel.computeSpan(buffer, offset + start, x + start, end - start, f, x0, fy, coefficients);
+            } else {
+                for (int i = start; i < end; i++) {
+                    float dx = (x + i) * f - x0;
+                    float fx = fade(dx);
+                    float lx0 = interpolate(kx0y0 * dx + cx0y0, kx1y0 * (dx - 1) + cx1y0, fx);
+                    float lx1 = interpolate(kx0y1 * dx + cx0y1, kx1y1 * (dx - 1) + cx1y1, fx);
+                    buffer[offset + i] = interpolate(lx0, lx1, fy);
+                }
+            }
+            start = end;
+        }
+    }
+
+    /**
+     * Computes the noise values of every {@code step}-th point of a single row. If the starting point lies on the
+     * coarser grid, the row is evaluated by the cell walker with the frequency scaled by the step.
+     *
+     * @param x      the x-coordinate of the starting point of the row
+     * @param y      the y-coordinate of the row
+     * @param w      the number of values to compute
+     * @param step   the distance between two consecutive points of the row
+     * @param buffer the buffer to store the computed values in
+     * @param offset the index of the buffer to store the first value at
+     */
+    @Override
+    public void computeStridedRow(int x, int y, int w, int step, float[] buffer, int offset) {
+        if (x % step == 0 && y % step == 0) {
+            computeRow(x / step, y / step, w, (float) getFrequency() * step, buffer, offset);
+        } else {
+            super.computeStridedRow(x, y, w, step, buffer, offset);
+        }
+    }
+
+    @Override
+    public void computeRow(int x, int y, int w, double[] buffer, int offset) {
+        computeRow(x, y, w, getFrequency(), buffer, offset);
+    }
+
+    @Override
+    public void computeRow(int x, int y, int w, double frequency, double[] buffer, int offset) {
+        RowScratch scratch = RowScratch.get();
+        float[] row = scratch.borrowFloats(w);
+        try {
+            computeRow(x, y, w, (float) frequency, row, 0);
+            for (int i = 0; i < w; i++) {
+                buffer[offset + i] = row[i];
+            }
+        } finally {
+            scratch.release(row);
+        }
+    }
+
+    @Override
+    public long estimatedSize() {
+        return super.estimatedSize()
+            + AbstractPerlinNoise.arraySize(gradientsX.length, Float.BYTES)
+            + AbstractPerlinNoise.arraySize(gradientsY.length, Float.BYTES);
+    }
+
+    /**
+     * Computes the dot product of the gradient vector at the position (x, y) in the gradient domain and the given
+     * distance vector with single precision.
+     *
+     * @param x  the x coordinate of the gradient domain
+     * @param y  the y coordinate of the gradient domain
+     * @param dx the x component of the distance vector
+     * @param dy the y component of the distance vector
+     * @return the dot product of the gradient vector and the distance vector
+     */
+    private float dotGradient(int x, int y, float dx, float dy) {
+        if (hashedGradients != null) {
+            return hashedGradients.dot(x, y, dx, dy);
+        }
+        if (fixed) {
+            return FixedGradients.dot(noise.fixedDirection(x, y), dx, dy);
+        }
+        int index = noise.gradientIndex(x, y);
+        return gradientsX[index] * dx + gradientsY[index] * dy;
+    }
+
+    /**
+     * Applies the quintic fade function f(t) = 6t^5 - 15t^4 + 10t^3 with single precision.
+     *
+     * @param t the value to which the fade function will be applied
+     * @return the result of applying the fade function to the input value
+     */
+    private static float fade(float t) {
+        return t * t * t * (t * (t * 6 - 15) + 10);
+    }
+
+    /**
+     * Performs linear interpolation between two values with single precision.
+     *
+     * @param x1    The first value.
+     * @param x2    The second value.
+     * @param alpha The interpolation factor, typically in the range [0, 1].
+     * @return the interpolated value
+     */
+    private static float interpolate(float x1, float x2, float alpha) {
+        return x1 + alpha * (x2 - x1);
+    }
+}
@@ -1,8 +1,9 @@
 package h13.noise;
 
+import org.jetbrains.annotations.Nullable;
 import org.tudalgo.algoutils.student.annotation.StudentImplementationRequired;
 
-import java.util.Objects;
+import java.util.Arrays;
 
 import static org.tudalgo.algoutils.student.Student.crash;
 
@@ -48,6 +49,17 @@ public class FractalPerlinNoise extends DelegatePerlinNoise implements PerlinNoi
      */
     private double lacunarity;
 
+    /**
+     * The maximum error allowed by skipping trailing octaves, {@code 0} if all octaves are evaluated.
+     */
+    private double tolerance;
+
+    /**
+     * The precomputed frequencies and amplitudes of the octaves, or {@code null} if a parameter changed since they
+     * were computed.
+     */
+    private volatile @Nullable Octaves octaveTable;
+
     /**
      * Constructs a fractal Perlin noise object with the specified underlying Perlin noise object and fractal
      * parameters.
@@ -83,12 +95,54 @@ public class FractalPerlinNoise extends DelegatePerlinNoise implements PerlinNoi
         double lacunarity,
         double persistence
 
+    ) {
+        this(noise, amplitude, octaves, lacunarity, persistence, 0);
+    }
+
+    /**
+     * Constructs a fractal Perlin noise object with the specified underlying Perlin noise object, fractal parameters
+     * and tolerance.
+     *
+     * @param noise       the underlying Perlin noise object
+     * @param amplitude   the amplitude of the noise, controlling the range of values for each octave
+     * @param octaves     the number of octaves, determining the number of noise layers to combine
+     * @param lacunarity  the lacunarity of the noise, controlling the change in frequency between octaves
+     * @param persistence the persistence of the noise, influencing the amplitude of each successive octave
+     * @param tolerance   the maximum error allowed by skipping trailing octaves, {@code 0} to evaluate all octaves
+     * @throws IllegalArgumentException if the tolerance is negative
+     * @see #setTolerance(double)
+     */
+    public FractalPerlinNoise(
+        PerlinNoise noise,
+        double amplitude,
+        int octaves,
+        double lacunarity,
+        double persistence,
+        double tolerance
     ) {
         super(noise);
         this.amplitude = amplitude;
         this.octaves = octaves;
         this.lacunarity = lacunarity;
         this.persistence = persistence;
+        setTolerance(tolerance);
+    }
+
+    /**
+     * Returns the tolerance which skips exactly the octaves that cannot change a normalized noise value quantized to
+     * the given number of bits by more than one step. Normalizing halves the error of the noise values, so half a
+     * quantization step of the normalized values is a whole step of the noise values.
+     *
+     * @param bits the number of bits of the quantized values, e.g. 8 for 8-bit pixels
+     * @return the tolerance for values quantized to the given number of bits
+     * @throws IllegalArgumentException if the number of bits is not between 1 and 62
+     * @see NormalizedPerlinNoise
+     */
+    public static double quantizationTolerance(int bits) {
+        if (bits < 1 || bits > 62) {
+            throw new IllegalArgumentException("Bits must be between 1 and 62: " + bits);
+        }
+        return 1.0 / ((1L << bits) - 1);
     }
 
     @Override
@@ -109,19 +163,167 @@ public class FractalPerlinNoise extends DelegatePerlinNoise implements PerlinNoi
     @StudentImplementationRequired
     public double compute(double x, double y) {
         // H2.2
+        Octaves table = getOctaveTable();
         double result = 0.0;
-        double frequency = getFrequency();
-        double amplitude = this.amplitude;
 
-        for (int i=0; i < octaves; i++){
-            result += delegate.compute(x * frequency, y * frequency) * amplitude;
+        for (int i = 0; i < table.count(); i++) {
+            double frequency = table.frequencies()[i];
+            result += delegate.compute(x * frequency, y * frequency) * table.amplitudes()[i];
+        }
+        return result;
+    }
+
+    /**
+     * Computes the fractal Perlin noise value at the specified noise domain coordinates with single precision. The
+     * octaves are accumulated with single precision as well.
+     *
+     * @param x The x-coordinate in the noise domain.
+     * @param y The y-coordinate in the noise domain.
+     * @return The computed fractal Perlin noise value at the specified noise domain coordinates.
+     */
+    @Override
+    public float compute(float x, float y) {
+        Octaves table = getOctaveTable();
+        float result = 0;
 
-            frequency *= lacunarity;
-            amplitude *= persistence;
+        for (int i = 0; i < table.count(); i++) {
+            float frequency = table.floatFrequencies()[i];
+            result += delegate.compute(x * frequency, y * frequency) * table.floatAmplitudes()[i];
         }
         return result;
     }
 
+    /**
+     * Computes the fractal Perlin noise values of a single row in one pass. Each octave is evaluated for the whole row
+     * by the row evaluator of the underlying Perlin noise and accumulated in the same order as
+     * {@link #compute(double, double)}, so the results are identical.
+     *
+     * @param x      the x-coordinate of the starting point of the row
+     * @param y      the y-coordinate of the row
+     * @param w      the number of values to compute
+     * @param buffer the buffer to store the computed values in
+     * @param offset the index of the buffer to store the first value at
+     */
+    @Override
+    public void computeRow(int x, int y, int w, double[] buffer, int offset) {
+        Octaves table = getOctaveTable();
+        RowScratch scratch = RowScratch.get();
+        double[] octave = scratch.borrowDoubles(w);
+        try {
+            Arrays.fill(buffer, offset, offset + w, 0.0);
+            for (int i = 0; i < table.count(); i++) {
+                delegate.computeRow(x, y, w, table.frequencies()[i], octave, 0);
+                double amplitude = table.amplitudes()[i];
+                for (int j = 0; j < w; j++) {
+                    buffer[offset + j] += octave[j] * amplitude;
+                }
+            }
+        } finally {
+            scratch.release(octave);
+        }
+    }
+
+    /**
+     * Computes the fractal Perlin noise values of a single row in one pass with single precision.
+     *
+     * @param x      the x-coordinate of the starting point of the row
+     * @param y      the y-coordinate of the row
+     * @param w      the number of values to compute
+     * @param buffer the buffer to store the computed values in
+     * @param offset the index of the buffer to store the first value at
+     * @see #computeRow(int, int, int, double[], int)
+     */
+    @Override
+    public void computeRow(int x, int y, int w, float[] buffer, int offset) {
+        Octaves table = getOctaveTable();
+        RowScratch scratch = RowScratch.get();
+        float[] octave = scratch.borrowFloats(w);
+        try {
+            Arrays.fill(buffer, offset, offset + w, 0f);
+            for (int i = 0; i < table.count(); i++) {
+                delegate.computeRow(x, y, w, table.floatFrequencies()[i], octave, 0);
+                float amplitude = table.floatAmplitudes()[i];
+                for (int j = 0; j < w; j++) {
+                    buffer[offset + j] += octave[j] * amplitude;
+                }
+            }
+        } finally {
+            scratch.release(octave);
+        }
+    }
+
+    /**
+     * Computes the fractal Perlin noise values of every {@code step}-th point of a single row with single precision. If
+     * the starting point lies on the coarser grid, each octave is evaluated by the row evaluator of the underlying
+     * Perlin noise with its frequency scaled by the step.
+     *
+     * @param x      the x-coordinate of the starting point of the row
+     * @param y      the y-coordinate of the row
+     * @param w      the number of values to compute
+     * @param step   the distance between two consecutive points of the row
+     * @param buffer the buffer to store the computed values in
+     * @param offset the index of the buffer to store the first value at
+     */
+    @Override
+    public void computeStridedRow(int x, int y, int w, int step, float[] buffer, int offset) {
+        if (x % step != 0 || y % step != 0) {
+            super.computeStridedRow(x, y, w, step, buffer, offset);
+            return;
+        }
+        Octaves table = getOctaveTable();
+        RowScratch scratch = RowScratch.get();
+        float[] octave = scratch.borrowFloats(w);
+        try {
+            Arrays.fill(buffer, offset, offset + w, 0f);
+            for (int i = 0; i < table.count(); i++) {
+                delegate.computeRow(x / step, y / step, w, table.floatFrequencies()[i] * step, octave, 0);
+                float amplitude = table.floatAmplitudes()[i];
+                for (int j = 0; j < w; j++) {
+                    buffer[offset + j] += octave[j] * amplitude;
+                }
+            }
+        } finally {
+            scratch.release(octave);
+        }
+    }
+
+    /**
+     * Returns the precomputed frequencies and amplitudes of the octaves, which are recomputed if a parameter or the
+     * frequency of the underlying Perlin noise changed.
+     *
+     * @return the precomputed frequencies and amplitudes of the octaves
+     */
+    private Octaves getOctaveTable() {
+        Octaves table = octaveTable;
+        double baseFrequency = getFrequency();
+        if (table == null || Double.compare(table.baseFrequency(), baseFrequency) != 0) {
+            table = Octaves.of(baseFrequency, amplitude, octaves, lacunarity, persistence, tolerance);
+            octaveTable = table;
+        }
+        return table;
+    }
+
+    /**
+     * Returns the number of octaves which are actually evaluated. Trailing octaves whose total amplitude does not
+     * exceed the tolerance are skipped.
+     *
+     * @return the number of octaves which are actually evaluated
+     * @see #setTolerance(double)
+     */
+    public int getEffectiveOctaves() {
+        return getOctaveTable().count();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>The specification contains the fractal parameters.
+     */
+    @Override
+    protected NoiseSpec deriveSpec(NoiseSpec base) {
+        return base.derive(getClass().getName(), amplitude, octaves, persistence, lacunarity, tolerance);
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -137,12 +339,19 @@ public class FractalPerlinNoise extends DelegatePerlinNoise implements PerlinNoi
         return Double.compare(amplitude, that.amplitude) == 0
             && octaves == that.octaves
             && Double.compare(lacunarity, that.lacunarity) == 0
-            && Double.compare(persistence, that.persistence) == 0;
+            && Double.compare(persistence, that.persistence) == 0
+            && Double.compare(tolerance, that.tolerance) == 0;
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * <p>The hash code is the hash code of the underlying noise and does not depend on the fractal parameters, so it
+     * does not change when they are changed.
+     */
     @Override
     public int hashCode() {
-        return Objects.hash(super.hashCode(), getAmplitude(), getOctaves(), getPersistence(), getLacunarity());
+        return super.hashCode();
     }
 
     /**
@@ -161,6 +370,8 @@ public class FractalPerlinNoise extends DelegatePerlinNoise implements PerlinNoi
      */
     public void setAmplitude(double amplitude) {
         this.amplitude = amplitude;
+        this.octaveTable = null;
+        invalidateSpec();
     }
 
     /**
@@ -179,6 +390,8 @@ public class FractalPerlinNoise extends DelegatePerlinNoise implements PerlinNoi
      */
     public void setOctaves(int octaves) {
         this.octaves = octaves;
+        this.octaveTable = null;
+        invalidateSpec();
     }
 
     /**
@@ -206,6 +419,8 @@ public class FractalPerlinNoise extends DelegatePerlinNoise implements PerlinNoi
      */
     public void setLacunarity(double lacunarity) {
         this.lacunarity = lacunarity;
+        this.octaveTable = null;
+        invalidateSpec();
     }
 
     /**
@@ -215,6 +430,106 @@ public class FractalPerlinNoise extends DelegatePerlinNoise implements PerlinNoi
      */
     public void setPersistence(double persistence) {
         this.persistence = persistence;
+        this.octaveTable = null;
+        invalidateSpec();
     }
-}
 
+    /**
+     * Returns the maximum error allowed by skipping trailing octaves.
+     *
+     * @return the maximum error allowed by skipping trailing octaves
+     */
+    public double getTolerance() {
+        return tolerance;
+    }
+
+    /**
+     * Sets the maximum error allowed by skipping trailing octaves. Assuming the underlying Perlin noise values lie in
+     * the range [-1, 1], the octaves starting from the i-th octave can change a value by at most the sum of the
+     * absolute amplitudes of these octaves. Trailing octaves are skipped as long as this sum does not exceed the
+     * tolerance.
+     *
+     * <p>If the values are quantized afterwards, e.g. to 8-bit pixels, a tolerance of half a quantization step
+     * skips exactly the octaves which can no longer change the quantized result by more than one step.
+     *
+     * @param tolerance the new tolerance, {@code 0} to evaluate all octaves
+     * @throws IllegalArgumentException if the tolerance is negative
+     */
+    public void setTolerance(double tolerance) {
+        if (tolerance < 0) {
+            throw new IllegalArgumentException("Tolerance cannot be negative");
+        }
+        this.tolerance = tolerance;
+        this.octaveTable = null;
+        invalidateSpec();
+    }
+
+    /**
+     * The precomputed frequencies and amplitudes of the octaves with double and single precision.
+     *
+     * @param baseFrequency    the frequency of the underlying Perlin noise the table was computed for
+     * @param frequencies      the frequencies of the octaves
+     * @param amplitudes       the amplitudes of the octaves
+     * @param floatFrequencies the frequencies of the octaves with single precision
+     * @param floatAmplitudes  the amplitudes of the octaves with single precision
+     * @param count            the number of octaves to evaluate
+     */
+    private record Octaves(
+        double baseFrequency,
+        double[] frequencies,
+        double[] amplitudes,
+        float[] floatFrequencies,
+        float[] floatAmplitudes,
+        int count
+    ) {
+
+        /**
+         * Computes the frequencies and amplitudes of the octaves in the same way as they were computed iteratively in
+         * each evaluation.
+         *
+         * @param baseFrequency the frequency of the underlying Perlin noise
+         * @param amplitude     the amplitude of the first octave
+         * @param octaves       the number of octaves
+         * @param lacunarity    the frequency increase factor between octaves
+         * @param persistence   the amplitude decrease factor between octaves
+         * @param tolerance     the maximum error allowed by skipping trailing octaves
+         * @return the precomputed frequencies and amplitudes of the octaves
+         */
+        static Octaves of(
+            double baseFrequency,
+            double amplitude,
+            int octaves,
+            double lacunarity,
+            double persistence,
+            double tolerance
+        ) {
+            int n = Math.max(octaves, 0);
+            double[] frequencies = new double[n];
+            double[] amplitudes = new double[n];
+            float[] floatFrequencies = new float[n];
+            float[] floatAmplitudes = new float[n];
+            double frequency = baseFrequency;
+            float floatFrequency = (float) baseFrequency;
+            float floatAmplitude = (float) amplitude;
+            for (int i = 0; i < n; i++) {
+                frequencies[i] = frequency;
+                amplitudes[i] = amplitude;
+                floatFrequencies[i] = floatFrequency;
+                floatAmplitudes[i] = floatAmplitude;
+                frequency *= lacunarity;
+                amplitude *= persistence;
+                floatFrequency *= (float) lacunarity;
+                floatAmplitude *= (float) persistence;
+            }
+
+            // Skip trailing octaves whose remaining amplitude cannot exceed the tolerance
+            int count = n;
+            double remaining = 0;
+            while (count > 0 && remaining + Math.abs(amplitudes[count - 1]) <= tolerance) {
+                remaining += Math.abs(amplitudes[count - 1]);
+                count--;
+            }
+            return new Octaves(baseFrequency, frequencies, amplitudes, floatFrequencies, floatAmplitudes, count);
+        }
+    }
+}
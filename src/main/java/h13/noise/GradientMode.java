@@ -0,0 +1,43 @@
+package h13.noise;
+
+/**
+ * The ways an {@link AbstractPerlinNoise} determines the gradient vectors of its gradient domain.
+ */
+public enum GradientMode {
+
+    /**
+     * The gradient vectors are drawn from the random generator once and stored in a table which covers the gradient
+     * domain, so the memory grows with the size of the noise domain.
+     */
+    TABLE,
+
+    /**
+     * The gradient vectors are stored in a table like in {@link #TABLE} mode, but they are derived from a seed drawn
+     * from the random generator and their index by a counter-based generator, so the table is filled in parallel and
+     * still reproducible for a given seed.
+     */
+    PARALLEL_TABLE,
+
+    /**
+     * The gradient vectors are derived on demand from a seed drawn from the random generator and the lattice
+     * coordinates by {@link HashedGradients}, so no memory is needed and the coordinates are not bounded by the
+     * gradient domain.
+     */
+    HASHED,
+
+    /**
+     * The gradient vectors are taken from Perlin's fixed set of {@link FixedGradients}, where the direction is selected
+     * by a hash of the lattice coordinates, so no memory is needed and the dot products only consist of additions and
+     * subtractions.
+     */
+    FIXED;
+
+    /**
+     * Returns whether the gradient vectors are stored in a table in this mode.
+     *
+     * @return {@code true} if the gradient vectors are stored in a table
+     */
+    public boolean hasTable() {
+        return this == TABLE || this == PARALLEL_TABLE;
+    }
+}
@@ -1,6 +1,8 @@
 package h13.noise;
 
-import java.util.stream.DoubleStream;
+import java.nio.DoubleBuffer;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.IntStream;
 
 /**
@@ -37,18 +39,191 @@ public interface GradientNoise {
     /**
      * Computes the gradient noise values for the specified noise domain coordinates (rectangle area).
      *
+     * <p>The result is indexed by {@code [x][y]} relative to the starting point. Since this method allocates a new
+     * array for every call, prefer {@link #compute(int, int, int, int, double[], int, int)} for repeated evaluations.
+     *
      * @param x the x-coordinate of the starting point of the noise domain
      * @param y the y-coordinate of the starting point of the noise domain
-     * @param w the width of the noise domain
-     * @param h the height of the noise domain
+     * @param w the width of the rectangle area
+     * @param h the height of the rectangle area
      * @return the computed gradient noise values for the specified noise domain coordinates
      */
     default double[][] compute(int x, int y, int w, int h) {
-        return IntStream.range(x, w)
-            .parallel()
-            .mapToObj(xi -> IntStream.range(y, h).parallel().mapToDouble(yi -> compute(xi, yi)))
-            .map(DoubleStream::toArray)
-            .toArray(double[][]::new);
+        double[] values = new double[w * h];
+        compute(x, y, w, h, values, 0, w);
+        double[][] result = new double[w][h];
+        for (int yi = 0; yi < h; yi++) {
+            for (int xi = 0; xi < w; xi++) {
+                result[xi][yi] = values[yi * w + xi];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Computes the gradient noise values of a single row of the noise domain and stores them consecutively in the
+     * given buffer, i.e. the value at {@code (x + i, y)} is stored at {@code buffer[offset + i]}.
+     *
+     * <p>This is the kernel used by the bulk evaluation methods. Implementations can override it to share work
+     * between neighbouring values of a row.
+     *
+     * @param x      the x-coordinate of the starting point of the row
+     * @param y      the y-coordinate of the row
+     * @param w      the number of values to compute
+     * @param buffer the buffer to store the computed values in
+     * @param offset the index of the buffer to store the first value at
+     */
+    default void computeRow(int x, int y, int w, double[] buffer, int offset) {
+        for (int i = 0; i < w; i++) {
+            buffer[offset + i] = compute(x + i, y);
+        }
+    }
+
+    /**
+     * Computes the gradient noise values of a single row of the noise domain with single precision and stores them
+     * consecutively in the given buffer, i.e. the value at {@code (x + i, y)} is stored at {@code buffer[offset + i]}.
+     *
+     * <p>The default implementation narrows the values computed by
+     * {@link #computeRow(int, int, int, double[], int)}. Single precision implementations override it to compute the
+     * values directly with single precision.
+     *
+     * @param x      the x-coordinate of the starting point of the row
+     * @param y      the y-coordinate of the row
+     * @param w      the number of values to compute
+     * @param buffer the buffer to store the computed values in
+     * @param offset the index of the buffer to store the first value at
+     * @see #computeRow(int, int, int, double[], int)
+     */
+    default void computeRow(int x, int y, int w, float[] buffer, int offset) {
+        RowScratch scratch = RowScratch.get();
+        double[] row = scratch.borrowDoubles(w);
+        try {
+            computeRow(x, y, w, row, 0);
+            for (int i = 0; i < w; i++) {
+                buffer[offset + i] = (float) row[i];
+            }
+        } finally {
+            scratch.release(row);
+        }
+    }
+
+    /**
+     * Computes the gradient noise values of every {@code step}-th point of a single row of the noise domain with single
+     * precision, i.e. the value at {@code (x + i * step, y)} is stored at {@code buffer[offset + i]}.
+     *
+     * <p>This allows sampling the noise domain at a coarser resolution, e.g. for previews. Implementations can
+     * override it to evaluate the row with a scaled frequency if the starting point lies on the coarser grid.
+     *
+     * @param x      the x-coordinate of the starting point of the row
+     * @param y      the y-coordinate of the row
+     * @param w      the number of values to compute
+     * @param step   the distance between two consecutive points of the row
+     * @param buffer the buffer to store the computed values in
+     * @param offset the index of the buffer to store the first value at
+     */
+    default void computeStridedRow(int x, int y, int w, int step, float[] buffer, int offset) {
+        for (int i = 0; i < w; i++) {
+            buffer[offset + i] = (float) compute(x + i * step, y);
+        }
+    }
+
+    /**
+     * Computes the gradient noise values for the specified noise domain coordinates (rectangle area) and stores them
+     * row-major in the given buffer, i.e. the value at {@code (x + i, y + j)} is stored at
+     * {@code buffer[offset + j * stride + i]}. Values of the buffer outside the rectangle area are left untouched, so
+     * the same buffer can be reused for multiple regions or frames.
+     *
+     * @param x      the x-coordinate of the starting point of the rectangle area
+     * @param y      the y-coordinate of the starting point of the rectangle area
+     * @param w      the width of the rectangle area
+     * @param h      the height of the rectangle area
+     * @param buffer the buffer to store the computed values in
+     * @param offset the index of the buffer to store the value at {@code (x, y)} at
+     * @param stride the distance between the starting indices of two consecutive rows in the buffer
+     * @throws IllegalArgumentException  if the width or height is negative or the stride is smaller than the width
+     * @throws IndexOutOfBoundsException if the rectangle area does not fit into the buffer
+     */
+    default void compute(int x, int y, int w, int h, double[] buffer, int offset, int stride) {
+        checkRegion(w, h, buffer.length, offset, stride);
+        IntStream.range(0, h).parallel().forEach(j -> computeRow(x, y + j, w, buffer, offset + j * stride));
+    }
+
+    /**
+     * Computes the gradient noise values for the specified noise domain coordinates (rectangle area) and stores them
+     * row-major in the given buffer with single precision using
+     * {@link #computeRow(int, int, int, float[], int)}.
+     *
+     * @param x      the x-coordinate of the starting point of the rectangle area
+     * @param y      the y-coordinate of the starting point of the rectangle area
+     * @param w      the width of the rectangle area
+     * @param h      the height of the rectangle area
+     * @param buffer the buffer to store the computed values in
+     * @param offset the index of the buffer to store the value at {@code (x, y)} at
+     * @param stride the distance between the starting indices of two consecutive rows in the buffer
+     * @throws IllegalArgumentException  if the width or height is negative or the stride is smaller than the width
+     * @throws IndexOutOfBoundsException if the rectangle area does not fit into the buffer
+     * @see #compute(int, int, int, int, double[], int, int)
+     */
+    default void compute(int x, int y, int w, int h, float[] buffer, int offset, int stride) {
+        checkRegion(w, h, buffer.length, offset, stride);
+        IntStream.range(0, h).parallel().forEach(j -> computeRow(x, y + j, w, buffer, offset + j * stride));
+    }
+
+    /**
+     * Computes the gradient noise values for the specified noise domain coordinates (rectangle area) and stores them
+     * row-major in the given buffer using absolute indices, so the position of the buffer is not modified.
+     *
+     * @param x      the x-coordinate of the starting point of the rectangle area
+     * @param y      the y-coordinate of the starting point of the rectangle area
+     * @param w      the width of the rectangle area
+     * @param h      the height of the rectangle area
+     * @param buffer the buffer to store the computed values in
+     * @param offset the index of the buffer to store the value at {@code (x, y)} at
+     * @param stride the distance between the starting indices of two consecutive rows in the buffer
+     * @throws IllegalArgumentException  if the width or height is negative or the stride is smaller than the width
+     * @throws IndexOutOfBoundsException if the rectangle area does not fit into the buffer
+     * @see #compute(int, int, int, int, double[], int, int)
+     */
+    default void compute(int x, int y, int w, int h, DoubleBuffer buffer, int offset, int stride) {
+        checkRegion(w, h, buffer.limit(), offset, stride);
+        if (buffer.hasArray()) {
+            compute(x, y, w, h, buffer.array(), buffer.arrayOffset() + offset, stride);
+            return;
+        }
+        // Every task reuses a single scratch row for its band of rows
+        int bandHeight = Math.max(1, h / (4 * ForkJoinPool.getCommonPoolParallelism()));
+        int bands = (h + bandHeight - 1) / bandHeight;
+        IntStream.range(0, bands).parallel().forEach(band -> {
+            double[] row = new double[w];
+            for (int j = band * bandHeight; j < Math.min(h, (band + 1) * bandHeight); j++) {
+                computeRow(x, y + j, w, row, 0);
+                buffer.put(offset + j * stride, row, 0, w);
+            }
+        });
+    }
+
+    /**
+     * Checks whether a rectangle area with the given size fits into a row-major buffer.
+     *
+     * @param w      the width of the rectangle area
+     * @param h      the height of the rectangle area
+     * @param length the length of the buffer
+     * @param offset the index of the buffer to store the first value at
+     * @param stride the distance between the starting indices of two consecutive rows in the buffer
+     * @throws IllegalArgumentException  if the width or height is negative or the stride is smaller than the width
+     * @throws IndexOutOfBoundsException if the rectangle area does not fit into the buffer
+     */
+    private static void checkRegion(int w, int h, int length, int offset, int stride) {
+        if (w < 0 || h < 0) {
+            throw new IllegalArgumentException("Width and height cannot be negative");
+        }
+        if (stride < w) {
+            throw new IllegalArgumentException("Stride cannot be smaller than the width");
+        }
+        if (w == 0 || h == 0) {
+            return;
+        }
+        Objects.checkFromIndexSize(offset, (long) (h - 1) * stride + w, length);
     }
 
     /**
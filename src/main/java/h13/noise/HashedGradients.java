@@ -0,0 +1,144 @@
+package h13.noise;
+
+/**
+ * Gradient vectors which are derived from a seed and the lattice coordinates by an integer hash instead of being
+ * stored in a table. Like the gradient vectors of a table, a gradient vector has a random direction in the upper half
+ * plane and a random length in {@code (0, 1]}, but it is computed in constant time and memory for every lattice
+ * coordinate.
+ *
+ * <p>The direction is taken from a constant table of {@value #DIRECTIONS} evenly spaced directions, so no
+ * trigonometric function is evaluated for a gradient vector.
+ *
+ * @param seed the seed of the gradient vectors
+ */
+public record HashedGradients(long seed) {
+
+    /**
+     * The number of distinct directions of the gradient vectors.
+     */
+    public static final int DIRECTIONS = 1024;
+
+    /**
+     * The x components of the directions.
+     */
+    private static final double[] COS = new double[DIRECTIONS];
+
+    /**
+     * The y components of the directions.
+     */
+    private static final double[] SIN = new double[DIRECTIONS];
+
+    /**
+     * The x components of the directions with single precision.
+     */
+    private static final float[] COS_FLOAT = new float[DIRECTIONS];
+
+    /**
+     * The y components of the directions with single precision.
+     */
+    private static final float[] SIN_FLOAT = new float[DIRECTIONS];
+
+    static {
+        for (int i = 0; i < DIRECTIONS; i++) {
+            double angle = Math.PI * i / DIRECTIONS;
+            COS[i] = Math.cos(angle);
+            SIN[i] = Math.sin(angle);
+            COS_FLOAT[i] = (float) COS[i];
+            SIN_FLOAT[i] = (float) SIN[i];
+        }
+    }
+
+    /**
+     * Computes the hash of the lattice coordinates. The upper 10 bits select the direction, the next 24 bits the
+     * length of the gradient vector.
+     *
+     * @param x the x coordinate of the gradient domain
+     * @param y the y coordinate of the gradient domain
+     * @return the hash of the lattice coordinates
+     */
+    private long hash(int x, int y) {
+        return hash(seed, x, y);
+    }
+
+    /**
+     * Computes the hash of the lattice coordinates with the given seed. The upper bits of the hash are well mixed and
+     * should be used in preference to the lower bits.
+     *
+     * @param seed the seed of the hash
+     * @param x    the x coordinate of the gradient domain
+     * @param y    the y coordinate of the gradient domain
+     * @return the hash of the lattice coordinates
+     */
+    static long hash(long seed, int x, int y) {
+        long h = seed ^ x * 0x9E3779B97F4A7C15L ^ y * 0xC2B2AE3D27D4EB4FL;
+        // The multiplication mixes all bits into the upper bits, which are the only bits used
+        h = (h ^ h >>> 32) * 0xD6E8FEB86659FD93L;
+        return h ^ h >>> 28;
+    }
+
+    /**
+     * Returns the length of the gradient vector with the given hash.
+     *
+     * @param h the hash of the gradient vector
+     * @return the length of the gradient vector in {@code (0, 1]}
+     */
+    private static double length(long h) {
+        return ((h >>> 30 & 0xFFFFFF) + 1) * 0x1.0p-24;
+    }
+
+    /**
+     * Computes the dot product of the gradient vector at the given lattice coordinates and the given distance vector.
+     *
+     * @param x  the x coordinate of the gradient domain
+     * @param y  the y coordinate of the gradient domain
+     * @param dx the x component of the distance vector
+     * @param dy the y component of the distance vector
+     * @return the dot product of the gradient vector and the distance vector
+     */
+    public double dot(int x, int y, double dx, double dy) {
+        long h = hash(x, y);
+        int direction = (int) (h >>> 54);
+        double length = length(h);
+        // Same operations as with stored components, so the row evaluation matches the point evaluation
+        return COS[direction] * length * dx + SIN[direction] * length * dy;
+    }
+
+    /**
+     * Computes the dot product of the gradient vector at the given lattice coordinates and the given distance vector
+     * with single precision.
+     *
+     * @param x  the x coordinate of the gradient domain
+     * @param y  the y coordinate of the gradient domain
+     * @param dx the x component of the distance vector
+     * @param dy the y component of the distance vector
+     * @return the dot product of the gradient vector and the distance vector
+     */
+    public float dot(int x, int y, float dx, float dy) {
+        long h = hash(x, y);
+        int direction = (int) (h >>> 54);
+        float length = (float) length(h);
+        return COS_FLOAT[direction] * length * dx + SIN_FLOAT[direction] * length * dy;
+    }
+
+    /**
+     * Returns the x component of the gradient vector at the given lattice coordinates.
+     *
+     * @param x the x coordinate of the gradient domain
+     * @param y the y coordinate of the gradient domain
+     * @return the x component of the gradient vector
+     */
+    public double gradientX(int x, int y) {
+        return dot(x, y, 1.0, 0.0);
+    }
+
+    /**
+     * Returns the y component of the gradient vector at the given lattice coordinates.
+     *
+     * @param x the x coordinate of the gradient domain
+     * @param y the y coordinate of the gradient domain
+     * @return the y component of the gradient vector
+     */
+    public double gradientY(int x, int y) {
+        return dot(x, y, 0.0, 1.0);
+    }
+}
@@ -25,6 +25,11 @@ public class ImprovedPerlinNoise extends SimplePerlinNoise implements PerlinNois
      */
     private final int[] p;
 
+    /**
+     * The hash code of the permutation array, which is computed once on construction.
+     */
+    private final int permutationHash;
+
     /**
      * Constructs an improved Perlin noise with wrapping the underlying Perlin noise object.
      *
@@ -35,18 +40,178 @@ public class ImprovedPerlinNoise extends SimplePerlinNoise implements PerlinNois
     }
 
     /**
-     * Constructs an improved Perlin noise with wrapping the underlying Perlin noise object.
+     * Constructs an improved Perlin noise with wrapping the underlying Perlin noise object. Only the noise domain,
+     * frequency and random generator of the underlying Perlin noise object are used, its gradient vectors are not
+     * accessed.
      *
      * @param noise the underlying Perlin noise object
      * @param p     the permutation array used for accessing the gradient vectors
      * @throws IllegalArgumentException if the permutation array does not have the size {@value #PERMUTATION_SIZE} * 2
      */
     public ImprovedPerlinNoise(PerlinNoise noise, int[] p) {
-        super(noise.getWidth(), noise.getHeight(), noise.getFrequency(), noise.getRandomGenerator());
+        this(noise.getWidth(), noise.getHeight(), noise.getFrequency(), noise.getRandomGenerator(), p);
+    }
+
+    /**
+     * Constructs an improved Perlin noise with the specified noise domain, frequency and random generator. Since the
+     * permutation array maps every point of the gradient domain to one of {@value #PERMUTATION_SIZE} gradient vectors,
+     * only these gradient vectors are created, so the construction time and memory do not depend on the size of the
+     * noise domain.
+     *
+     * @param width           the width of the noise domain
+     * @param height          the height of the noise domain
+     * @param frequency       the frequency of the Perlin noise
+     * @param randomGenerator the random generator used for generating gradient vectors
+     * @param p               the permutation array used for accessing the gradient vectors
+     * @throws IllegalArgumentException if the permutation array does not have the size {@value #PERMUTATION_SIZE} * 2
+     */
+    public ImprovedPerlinNoise(int width, int height, double frequency, Random randomGenerator, int[] p) {
+        this(width, height, frequency, randomGenerator, p, GradientMode.TABLE);
+    }
+
+    /**
+     * Constructs an improved Perlin noise with the specified noise domain, frequency and random generator whose
+     * gradient vectors are determined in the given way. In {@link GradientMode#TABLE} mode, the permutation array
+     * selects one of {@value #PERMUTATION_SIZE} random gradient vectors, in {@link GradientMode#FIXED} mode it selects
+     * one of the {@value FixedGradients#DIRECTIONS} directions of {@link FixedGradients} like Perlin's reference
+     * implementation.
+     *
+     * @param width           the width of the noise domain
+     * @param height          the height of the noise domain
+     * @param frequency       the frequency of the Perlin noise
+     * @param randomGenerator the random generator used for generating gradient vectors
+     * @param p               the permutation array used for accessing the gradient vectors
+     * @param mode            the way the gradient vectors are determined
+     * @throws IllegalArgumentException if the permutation array does not have the size {@value #PERMUTATION_SIZE} * 2
+     *                                  or if the mode is {@link GradientMode#HASHED}, which does not use the
+     *                                  permutation array
+     */
+    public ImprovedPerlinNoise(
+        int width,
+        int height,
+        double frequency,
+        Random randomGenerator,
+        int[] p,
+        GradientMode mode
+    ) {
+        super(width, height, frequency, randomGenerator, requirePermutedMode(mode), PERMUTATION_SIZE);
+        this.p = requirePermutation(p);
+        this.permutationHash = Arrays.hashCode(p);
+    }
+
+    /**
+     * Constructs an improved Perlin noise with the specified noise domain and frequency whose permutation array and
+     * gradient vectors are drawn in this order from a random generator created from the given seed. Unlike a noise
+     * created from a random generator, the noise has a {@link #getSpec() specification}.
+     *
+     * @param width     the width of the noise domain
+     * @param height    the height of the noise domain
+     * @param frequency the frequency of the Perlin noise
+     * @param seed      the seed of the random generator
+     * @param mode      the way the gradient vectors are determined
+     * @throws IllegalArgumentException if the mode is {@link GradientMode#HASHED}, which does not use the permutation
+     *                                  array
+     * @see #shuffledPermutation(Random)
+     */
+    public ImprovedPerlinNoise(int width, int height, double frequency, long seed, GradientMode mode) {
+        this(width, height, frequency, seed, new Random(seed), mode);
+    }
+
+    /**
+     * Constructs an improved Perlin noise whose permutation array is drawn from the given random generator before
+     * its gradient vectors.
+     *
+     * @param width           the width of the noise domain
+     * @param height          the height of the noise domain
+     * @param frequency       the frequency of the Perlin noise
+     * @param seed            the seed of the random generator
+     * @param randomGenerator the random generator created from the seed
+     * @param mode            the way the gradient vectors are determined
+     */
+    private ImprovedPerlinNoise(
+        int width,
+        int height,
+        double frequency,
+        long seed,
+        Random randomGenerator,
+        GradientMode mode
+    ) {
+        this(width, height, frequency, seed, randomGenerator, shuffledPermutation(randomGenerator), mode);
+    }
+
+    /**
+     * Constructs an improved Perlin noise whose random generator was created from the given seed.
+     *
+     * @param width           the width of the noise domain
+     * @param height          the height of the noise domain
+     * @param frequency       the frequency of the Perlin noise
+     * @param seed            the seed of the random generator
+     * @param randomGenerator the random generator created from the seed
+     * @param p               the permutation array drawn from the random generator
+     * @param mode            the way the gradient vectors are determined
+     */
+    private ImprovedPerlinNoise(
+        int width,
+        int height,
+        double frequency,
+        long seed,
+        Random randomGenerator,
+        int[] p,
+        GradientMode mode
+    ) {
+        super(width, height, frequency, seed, randomGenerator, requirePermutedMode(mode), PERMUTATION_SIZE);
+        this.p = requirePermutation(p);
+        this.permutationHash = Arrays.hashCode(p);
+    }
+
+    /**
+     * Checks that the given permutation array has the size {@value #PERMUTATION_SIZE} * 2.
+     *
+     * @param p the permutation array to check
+     * @return the given permutation array
+     * @throws IllegalArgumentException if the permutation array does not have the size {@value #PERMUTATION_SIZE} * 2
+     */
+    private static int[] requirePermutation(int[] p) {
         if (p.length != PERMUTATION_SIZE * 2) {
             throw new IllegalArgumentException("The permutation array must have the size %d * 2.".formatted(PERMUTATION_SIZE));
         }
-        this.p = p;
+        return p;
+    }
+
+    /**
+     * Creates a permutation array which contains a random permutation of the numbers from 0 to
+     * {@value #PERMUTATION_SIZE} - 1 twice, shuffled by the Fisher-Yates algorithm.
+     *
+     * @param randomGenerator the random generator used for shuffling
+     * @return the permutation array
+     */
+    public static int[] shuffledPermutation(Random randomGenerator) {
+        int[] p = new int[PERMUTATION_SIZE * 2];
+        for (int i = 0; i < PERMUTATION_SIZE; i++) {
+            p[i] = i;
+        }
+        for (int i = PERMUTATION_SIZE - 1; i > 0; i--) {
+            int j = randomGenerator.nextInt(i + 1);
+            int temp = p[i];
+            p[i] = p[j];
+            p[j] = temp;
+        }
+        System.arraycopy(p, 0, p, PERMUTATION_SIZE, PERMUTATION_SIZE);
+        return p;
+    }
+
+    /**
+     * Checks that the gradient vectors of the given mode are accessed through the permutation array.
+     *
+     * @param mode the mode to check
+     * @return the given mode
+     * @throws IllegalArgumentException if the mode is {@link GradientMode#HASHED}
+     */
+    private static GradientMode requirePermutedMode(GradientMode mode) {
+        if (mode == GradientMode.HASHED) {
+            throw new IllegalArgumentException("Hashed gradients do not use the permutation array");
+        }
+        return mode;
     }
 
     /**
@@ -82,7 +247,42 @@ public class ImprovedPerlinNoise extends SimplePerlinNoise implements PerlinNois
     }
 
     /**
-     * Returns the permutation array used for accessing the gradient vectors.
+     * Returns the index of the gradient vector at the position (x, y) in the gradient domain, which is selected by the
+     * permutation array like in {@link #getGradient(int, int)}.
+     *
+     * @param x the x coordinate of the gradient domain
+     * @param y the y coordinate of the gradient domain
+     * @return the index of the gradient vector at the position (x, y)
+     */
+    @Override
+    protected int gradientIndex(int x, int y) {
+        return p[(x + p[y & 255]) & 255];
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>In {@link GradientMode#FIXED} mode, the permutation array selects one of {@value #PERMUTATION_SIZE} gradient
+     * vectors as well, the i-th of which has the {@link FixedGradients#direction(int) direction} of i.
+     */
+    @Override
+    protected Point2D[] createGradientView() {
+        Point2D[] view = new Point2D[PERMUTATION_SIZE];
+        for (int i = 0; i < view.length; i++) {
+            int direction = FixedGradients.direction(i);
+            view[i] = new Point2D(FixedGradients.gradientX(direction), FixedGradients.gradientY(direction));
+        }
+        return view;
+    }
+
+    @Override
+    protected int fixedDirection(int x, int y) {
+        return FixedGradients.direction(gradientIndex(x, y));
+    }
+
+    /**
+     * Returns the permutation array used for accessing the gradient vectors. The returned array is the internal
+     * storage and must not be modified.
      *
      * @return the permutation array used for accessing the gradient vectors
      */
@@ -90,6 +290,11 @@ public class ImprovedPerlinNoise extends SimplePerlinNoise implements PerlinNois
         return p;
     }
 
+    @Override
+    public long estimatedSize() {
+        return super.estimatedSize() + arraySize(p.length, Integer.BYTES);
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -107,9 +312,6 @@ public class ImprovedPerlinNoise extends SimplePerlinNoise implements PerlinNois
 
     @Override
     public int hashCode() {
-        if (hashCode == -1) {
-            hashCode = 31 * super.hashCode() + Arrays.hashCode(p);
-        }
-        return hashCode;
+        return 31 * super.hashCode() + permutationHash;
     }
 }
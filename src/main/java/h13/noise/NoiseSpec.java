@@ -0,0 +1,164 @@
+package h13.noise;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * An immutable specification of a Perlin noise which identifies its noise values, e.g. to key caches of noises or
+ * rendered images. A specification consists of the algorithm which computes the noise values, its parameters and the
+ * specification of the underlying noise if the noise wraps another noise. The root of a specification contains the
+ * seed of the gradient vectors, the noise domain, the frequency and the gradient mode.
+ *
+ * <p>A 64-bit fingerprint of the whole specification is computed once on construction. Two specifications with
+ * different fingerprints are never equal, so comparing and hashing specifications takes constant time regardless of
+ * the size of the noise domain.
+ *
+ * @see PerlinNoise#getSpec()
+ */
+public final class NoiseSpec {
+
+    /**
+     * The name of the algorithm which computes the noise values.
+     */
+    private final String algorithm;
+
+    /**
+     * The parameters of the algorithm, which are {@link Long}, {@link Integer}, {@link Double} or {@link Enum} values.
+     */
+    private final Object[] parameters;
+
+    /**
+     * The specification of the underlying noise, or {@code null} if this is the root of the specification.
+     */
+    private final @Nullable NoiseSpec base;
+
+    /**
+     * The fingerprint of the whole specification.
+     */
+    private final long fingerprint;
+
+    /**
+     * Constructs a specification of the given algorithm with the given parameters and underlying noise.
+     *
+     * @param algorithm  the name of the algorithm which computes the noise values
+     * @param parameters the parameters of the algorithm
+     * @param base       the specification of the underlying noise, or {@code null} if this is the root
+     */
+    private NoiseSpec(String algorithm, Object[] parameters, @Nullable NoiseSpec base) {
+        this.algorithm = algorithm;
+        this.parameters = parameters;
+        this.base = base;
+        long h = mix((base != null ? base.fingerprint : 0) ^ algorithm.hashCode());
+        for (Object parameter : parameters) {
+            long bits;
+            if (parameter instanceof Double value) {
+                bits = Double.doubleToLongBits(value);
+            } else if (parameter instanceof Number value) {
+                bits = value.longValue();
+            } else {
+                bits = ((Enum<?>) parameter).ordinal();
+            }
+            h = mix(h ^ bits);
+        }
+        this.fingerprint = h;
+    }
+
+    /**
+     * Returns the root specification of a noise whose gradient vectors are derived from the given seed.
+     *
+     * @param algorithm the name of the algorithm which computes the noise values
+     * @param seed      the seed of the random generator of the gradient vectors
+     * @param width     the width of the noise domain
+     * @param height    the height of the noise domain
+     * @param frequency the frequency of the noise
+     * @param mode      the way the gradient vectors are determined
+     * @return the root specification of the noise
+     */
+    public static NoiseSpec of(
+        String algorithm,
+        long seed,
+        int width,
+        int height,
+        double frequency,
+        GradientMode mode
+    ) {
+        return new NoiseSpec(algorithm, new Object[]{seed, width, height, frequency, mode}, null);
+    }
+
+    /**
+     * Returns the specification of a noise which computes its values from the noise of this specification by the
+     * given algorithm with the given parameters.
+     *
+     * @param algorithm  the name of the algorithm which computes the noise values
+     * @param parameters the parameters of the algorithm
+     * @return the specification of the derived noise
+     */
+    public NoiseSpec derive(String algorithm, double... parameters) {
+        return new NoiseSpec(algorithm, Arrays.stream(parameters).boxed().toArray(), this);
+    }
+
+    /**
+     * Applies the finalizer of the 64-bit MurmurHash3 hash function, so every input bit affects every output bit.
+     *
+     * @param h the value to mix
+     * @return the mixed value
+     */
+    private static long mix(long h) {
+        h = (h ^ h >>> 33) * 0xFF51AFD7ED558CCDL;
+        h = (h ^ h >>> 33) * 0xC4CEB9FE1A85EC53L;
+        return h ^ h >>> 33;
+    }
+
+    /**
+     * Returns the name of the algorithm which computes the noise values.
+     *
+     * @return the name of the algorithm
+     */
+    public String getAlgorithm() {
+        return algorithm;
+    }
+
+    /**
+     * Returns the specification of the underlying noise.
+     *
+     * @return the specification of the underlying noise, or {@code null} if this is the root of the specification
+     */
+    public @Nullable NoiseSpec getBase() {
+        return base;
+    }
+
+    /**
+     * Returns the 64-bit fingerprint of the whole specification.
+     *
+     * @return the fingerprint of the specification
+     */
+    public long getFingerprint() {
+        return fingerprint;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof NoiseSpec that) || fingerprint != that.fingerprint) {
+            return false;
+        }
+        return algorithm.equals(that.algorithm)
+            && Arrays.equals(parameters, that.parameters)
+            && Objects.equals(base, that.base);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(fingerprint);
+    }
+
+    @Override
+    public String toString() {
+        String spec = algorithm + Arrays.toString(parameters);
+        return base != null ? spec + " of " + base : spec;
+    }
+}
@@ -37,4 +37,49 @@ public class NormalizedPerlinNoise extends DelegatePerlinNoise implements Perlin
     public double compute(double x, double y) {
         return (delegate.compute(x, y) + 1) / 2;
     }
+
+    @Override
+    public float compute(float x, float y) {
+        return (delegate.compute(x, y) + 1) / 2;
+    }
+
+    @Override
+    public void computeRow(int x, int y, int w, float[] buffer, int offset) {
+        delegate.computeRow(x, y, w, buffer, offset);
+        for (int i = offset; i < offset + w; i++) {
+            buffer[i] = (buffer[i] + 1) / 2;
+        }
+    }
+
+    @Override
+    public void computeStridedRow(int x, int y, int w, int step, float[] buffer, int offset) {
+        delegate.computeStridedRow(x, y, w, step, buffer, offset);
+        for (int i = offset; i < offset + w; i++) {
+            buffer[i] = (buffer[i] + 1) / 2;
+        }
+    }
+
+    @Override
+    public void computeRow(int x, int y, int w, double[] buffer, int offset) {
+        delegate.computeRow(x, y, w, buffer, offset);
+        for (int i = offset; i < offset + w; i++) {
+            buffer[i] = (buffer[i] + 1) / 2;
+        }
+    }
+
+    @Override
+    public void computeRow(int x, int y, int w, double frequency, double[] buffer, int offset) {
+        delegate.computeRow(x, y, w, frequency, buffer, offset);
+        for (int i = offset; i < offset + w; i++) {
+            buffer[i] = (buffer[i] + 1) / 2;
+        }
+    }
+
+    @Override
+    public void computeRow(int x, int y, int w, float frequency, float[] buffer, int offset) {
+        delegate.computeRow(x, y, w, frequency, buffer, offset);
+        for (int i = offset; i < offset + w; i++) {
+            buffer[i] = (buffer[i] + 1) / 2;
+        }
+    }
 }
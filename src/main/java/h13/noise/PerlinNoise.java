@@ -1,6 +1,7 @@
 package h13.noise;
 
 import javafx.geometry.Point2D;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.Random;
 
@@ -26,6 +27,28 @@ public interface PerlinNoise extends GradientNoise {
         return new ImprovedPerlinNoise(noise, permutationTable);
     }
 
+    /**
+     * Returns an improved Perlin noise object with the specified noise domain, frequency and random generator. Only the
+     * gradient vectors accessed through the permutation table are created, so the construction cost does not depend
+     * on the size of the noise domain.
+     *
+     * @param width            the width of the noise domain
+     * @param height           the height of the noise domain
+     * @param frequency        the frequency of the Perlin noise
+     * @param randomGenerator  the random generator used for generating gradient vectors
+     * @param permutationTable the permutation table used to access the gradient vectors
+     * @return an improved Perlin noise object
+     */
+    static PerlinNoise improved(
+        int width,
+        int height,
+        double frequency,
+        Random randomGenerator,
+        int[] permutationTable
+    ) {
+        return new ImprovedPerlinNoise(width, height, frequency, randomGenerator, permutationTable);
+    }
+
     /**
      * Returns an improved version of the specified Perlin noise object.
      *
@@ -47,6 +70,88 @@ public interface PerlinNoise extends GradientNoise {
         return new NormalizedPerlinNoise(noise);
     }
 
+    /**
+     * Returns a single precision version of the specified Perlin noise object. The gradient vectors are converted to
+     * single precision once and all values are computed with single precision, which halves the memory traffic of
+     * the noise computation. The converted gradient vectors are stored in addition to the original ones, so the
+     * conversion needs more memory, not less. Normalized and fractal Perlin noise objects are converted including
+     * their underlying Perlin noise object.
+     *
+     * <p>Only Perlin noise objects which compute their values like {@link SimplePerlinNoise} are converted, i.e. their
+     * compute, fade, interpolation and gradient lookup functions are not overridden. Subclasses of normalized and
+     * fractal Perlin noise objects are not converted either. Otherwise, the specified Perlin noise object is returned
+     * unchanged and its single precision values are narrowed from double precision.
+     *
+     * @param noise the Perlin noise object to convert
+     * @return a single precision version of the specified Perlin noise object
+     */
+    static PerlinNoise singlePrecision(PerlinNoise noise) {
+        if (noise instanceof FloatPerlinNoise) {
+            return noise;
+        }
+        if (SimplePerlinNoise.hasDefaultFunctions(noise)) {
+            return new FloatPerlinNoise((AbstractPerlinNoise) noise);
+        }
+        if (noise.getClass() == NormalizedPerlinNoise.class) {
+            NormalizedPerlinNoise normalized = (NormalizedPerlinNoise) noise;
+            PerlinNoise converted = singlePrecision(normalized.delegate);
+            return converted == normalized.delegate ? noise : normalized(converted);
+        }
+        if (noise.getClass() == FractalPerlinNoise.class) {
+            FractalPerlinNoise fractal = (FractalPerlinNoise) noise;
+            PerlinNoise converted = singlePrecision(fractal.delegate);
+            if (converted == fractal.delegate) {
+                return noise;
+            }
+            return new FractalPerlinNoise(
+                converted,
+                fractal.getAmplitude(),
+                fractal.getOctaves(),
+                fractal.getLacunarity(),
+                fractal.getPersistence(),
+                fractal.getTolerance()
+            );
+        }
+        return noise;
+    }
+
+    /**
+     * Returns a version of the specified Perlin noise object whose fractal Perlin noise skips the trailing octaves
+     * within the given tolerance, e.g. {@link FractalPerlinNoise#quantizationTolerance(int)} if the values are
+     * quantized to pixels. A normalized fractal Perlin noise object is converted including its underlying fractal
+     * Perlin noise object. The specified Perlin noise object is not changed, a fractal Perlin noise object which
+     * already has a larger tolerance keeps it. Subclasses of normalized and fractal Perlin noise objects are returned
+     * unchanged since they cannot be rebuilt with their overridden functions.
+     *
+     * @param noise     the Perlin noise object to convert
+     * @param tolerance the maximum error allowed by skipping trailing octaves
+     * @return a version of the specified Perlin noise object with the given tolerance
+     * @throws IllegalArgumentException if the tolerance is negative
+     * @see FractalPerlinNoise#setTolerance(double)
+     */
+    static PerlinNoise withTolerance(PerlinNoise noise, double tolerance) {
+        if (tolerance < 0) {
+            throw new IllegalArgumentException("Tolerance cannot be negative");
+        }
+        if (noise.getClass() == NormalizedPerlinNoise.class) {
+            NormalizedPerlinNoise normalized = (NormalizedPerlinNoise) noise;
+            PerlinNoise converted = withTolerance(normalized.delegate, tolerance);
+            return converted == normalized.delegate ? noise : normalized(converted);
+        }
+        if (noise.getClass() == FractalPerlinNoise.class && ((FractalPerlinNoise) noise).getTolerance() < tolerance) {
+            FractalPerlinNoise fractal = (FractalPerlinNoise) noise;
+            return new FractalPerlinNoise(
+                fractal.delegate,
+                fractal.getAmplitude(),
+                fractal.getOctaves(),
+                fractal.getLacunarity(),
+                fractal.getPersistence(),
+                tolerance
+            );
+        }
+        return noise;
+    }
+
     /**
      * Returns the random generator used by this Perlin noise object.
      *
@@ -135,4 +240,84 @@ public interface PerlinNoise extends GradientNoise {
      * @return The computed gradient noise value at the specified noise domain coordinates.
      */
     double compute(double x, double y);
+
+    /**
+     * Computes the gradient noise values of a single row with the given frequency instead of the frequency of this
+     * Perlin noise object, i.e. the value {@code compute((x + i) * frequency, y * frequency)} is stored at
+     * {@code buffer[offset + i]}.
+     *
+     * <p>This allows evaluating multiple octaves of the same Perlin noise object row by row, see
+     * {@link FractalPerlinNoise}.
+     *
+     * @param x         the x-coordinate of the starting point of the row
+     * @param y         the y-coordinate of the row
+     * @param w         the number of values to compute
+     * @param frequency the frequency to scale the coordinates with
+     * @param buffer    the buffer to store the computed values in
+     * @param offset    the index of the buffer to store the first value at
+     */
+    default void computeRow(int x, int y, int w, double frequency, double[] buffer, int offset) {
+        for (int i = 0; i < w; i++) {
+            buffer[offset + i] = compute((x + i) * frequency, y * frequency);
+        }
+    }
+
+    /**
+     * Computes the gradient noise values of a single row with the given frequency with single precision, i.e. the
+     * value {@code compute((x + i) * frequency, y * frequency)} is stored at {@code buffer[offset + i]}.
+     *
+     * @param x         the x-coordinate of the starting point of the row
+     * @param y         the y-coordinate of the row
+     * @param w         the number of values to compute
+     * @param frequency the frequency to scale the coordinates with
+     * @param buffer    the buffer to store the computed values in
+     * @param offset    the index of the buffer to store the first value at
+     * @see #computeRow(int, int, int, double, double[], int)
+     */
+    default void computeRow(int x, int y, int w, float frequency, float[] buffer, int offset) {
+        for (int i = 0; i < w; i++) {
+            buffer[offset + i] = compute((x + i) * frequency, y * frequency);
+        }
+    }
+
+    /**
+     * Computes the gradient noise value at the specified noise domain coordinates with single precision.
+     *
+     * <p>The default implementation narrows the value computed by {@link #compute(double, double)}. Single precision
+     * implementations override it to compute the value directly with single precision.
+     *
+     * @param x The x-coordinate in the noise domain (scaled by frequency).
+     * @param y The y-coordinate in the noise domain (scaled by frequency).
+     * @return The computed gradient noise value at the specified noise domain coordinates.
+     * @see #singlePrecision(PerlinNoise)
+     */
+    default float compute(float x, float y) {
+        return (float) compute((double) x, y);
+    }
+
+    /**
+     * Returns an estimate of the heap memory retained by this Perlin noise object in bytes, e.g. to weigh it in a
+     * cache with a memory budget. The estimate includes the gradient vectors and lookup tables of this Perlin noise
+     * object and the Perlin noise objects it wraps, but not the random generator which is usually shared.
+     *
+     * <p>The default implementation only accounts for a small object without any arrays.
+     *
+     * @return an estimate of the heap memory retained by this Perlin noise object in bytes
+     */
+    default long estimatedSize() {
+        return 64;
+    }
+
+    /**
+     * Returns the specification of this Perlin noise object, which identifies its noise values and can be compared
+     * and hashed in constant time, e.g. to key caches. Only Perlin noise objects whose gradient vectors were created
+     * from a seed have a specification.
+     *
+     * <p>The default implementation returns {@code null}.
+     *
+     * @return the specification of this Perlin noise object, or {@code null} if it has none
+     */
+    default @Nullable NoiseSpec getSpec() {
+        return null;
+    }
 }
@@ -0,0 +1,119 @@
+package h13.noise;
+
+/**
+ * Per-thread scratch arrays of the row evaluators, so evaluating a row does not allocate. A thread has one double
+ * and one float row which grow to the longest requested length, and the coefficient arrays of the cell walkers.
+ *
+ * <p>A row is borrowed and must be released after use. If the row of the thread is already borrowed, e.g. by a
+ * fractal noise whose underlying noise is a fractal noise as well, a new array is returned instead.
+ */
+final class RowScratch {
+
+    /**
+     * The scratch arrays of the current thread.
+     */
+    private static final ThreadLocal<RowScratch> SCRATCH = ThreadLocal.withInitial(RowScratch::new);
+
+    /**
+     * The coefficients of the dot products of the current cell of a double precision cell walker, which does not call
+     * any other row evaluator while it uses them.
+     */
+    final double[] coefficients = new double[8];
+
+    /**
+     * The coefficients of the dot products of the current cell of a single precision cell walker, which does not call
+     * any other row evaluator while it uses them.
+     */
+    final float[] floatCoefficients = new float[8];
+
+    /**
+     * The double row of the thread.
+     */
+    private double[] doubles = new double[0];
+
+    /**
+     * The float row of the thread.
+     */
+    private float[] floats = new float[0];
+
+    /**
+     * Whether the double row is borrowed.
+     */
+    private boolean doublesBorrowed;
+
+    /**
+     * Whether the float row is borrowed.
+     */
+    private boolean floatsBorrowed;
+
+    /**
+     * Don't let anyone else instantiate this class.
+     */
+    private RowScratch() {
+    }
+
+    /**
+     * Returns the scratch arrays of the current thread.
+     *
+     * @return the scratch arrays of the current thread
+     */
+    static RowScratch get() {
+        return SCRATCH.get();
+    }
+
+    /**
+     * Borrows a double row with at least the given length.
+     *
+     * @param length the minimum length of the row
+     * @return the row of the thread, or a new array if it is already borrowed
+     */
+    double[] borrowDoubles(int length) {
+        if (doublesBorrowed) {
+            return new double[length];
+        }
+        if (doubles.length < length) {
+            doubles = new double[length];
+        }
+        doublesBorrowed = true;
+        return doubles;
+    }
+
+    /**
+     * Borrows a float row with at least the given length.
+     *
+     * @param length the minimum length of the row
+     * @return the row of the thread, or a new array if it is already borrowed
+     */
+    float[] borrowFloats(int length) {
+        if (floatsBorrowed) {
+            return new float[length];
+        }
+        if (floats.length < length) {
+            floats = new float[length];
+        }
+        floatsBorrowed = true;
+        return floats;
+    }
+
+    /**
+     * Releases a borrowed double row.
+     *
+     * @param row the borrowed row
+     */
+    void release(double[] row) {
+        if (row == doubles) {
+            doublesBorrowed = false;
+        }
+    }
+
+    /**
+     * Releases a borrowed float row.
+     *
+     * @param row the borrowed row
+     */
+    void release(float[] row) {
+        if (row == floats) {
+            floatsBorrowed = false;
+        }
+    }
+}
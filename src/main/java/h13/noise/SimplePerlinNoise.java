@@ -1,6 +1,5 @@
 package h13.noise;
 
-import javafx.geometry.Point2D;
 import org.tudalgo.algoutils.student.annotation.StudentImplementationRequired;
 
 import java.util.Random;
@@ -14,6 +13,25 @@ import static org.tudalgo.algoutils.student.Student.crash;
  */
 public class SimplePerlinNoise extends AbstractPerlinNoise implements PerlinNoise {
 
+    /**
+     * Whether a class uses the compute, fade and interpolation functions of this class, which are assumed by the
+     * {@link SpanKernel} and the {@link FloatPerlinNoise}.
+     */
+    private static final ClassValue<Boolean> DEFAULT_FUNCTIONS = new ClassValue<>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            try {
+                return type.getMethod("compute", double.class, double.class).getDeclaringClass() == SimplePerlinNoise.class
+                    && type.getMethod("compute", int.class, int.class).getDeclaringClass() == SimplePerlinNoise.class
+                    && type.getMethod("fade", double.class).getDeclaringClass() == SimplePerlinNoise.class
+                    && type.getMethod("interpolate", double.class, double.class, double.class)
+                    .getDeclaringClass() == SimplePerlinNoise.class;
+            } catch (NoSuchMethodException e) {
+                return false;
+            }
+        }
+    };
+
     /**
      * Constructs a simple Perlin noise object with the specified noise domain width, height, frequency and seed.
      *
@@ -26,6 +44,86 @@ public class SimplePerlinNoise extends AbstractPerlinNoise implements PerlinNois
         super(width, height, frequency, randomGenerator);
     }
 
+    /**
+     * Constructs a simple Perlin noise object with the specified noise domain width, height, frequency and seed
+     * whose gradient vectors are determined in the given way.
+     *
+     * @param width           the width of the noise domain
+     * @param height          the height of the noise domain
+     * @param frequency       the frequency of the Perlin noise
+     * @param randomGenerator the random generator used for generating gradient vectors
+     * @param mode            the way the gradient vectors are determined
+     */
+    public SimplePerlinNoise(int width, int height, double frequency, Random randomGenerator, GradientMode mode) {
+        super(width, height, frequency, randomGenerator, mode);
+    }
+
+    /**
+     * Constructs a simple Perlin noise object with the specified noise domain width, height, frequency and seed whose
+     * gradient vectors are determined in the given way and whose gradient table only contains the given number of
+     * gradient vectors.
+     *
+     * @param width           the width of the noise domain
+     * @param height          the height of the noise domain
+     * @param frequency       the frequency of the Perlin noise
+     * @param randomGenerator the random generator used for generating gradient vectors
+     * @param mode            the way the gradient vectors are determined
+     * @param gradientCount   the number of gradient vectors in the gradient table, ignored if no gradient table is
+     *                        used
+     * @see AbstractPerlinNoise#AbstractPerlinNoise(int, int, double, Random, GradientMode, int)
+     */
+    protected SimplePerlinNoise(
+        int width,
+        int height,
+        double frequency,
+        Random randomGenerator,
+        GradientMode mode,
+        int gradientCount
+    ) {
+        super(width, height, frequency, randomGenerator, mode, gradientCount);
+    }
+
+    /**
+     * Constructs a simple Perlin noise object with the specified noise domain width, height and frequency whose
+     * gradient vectors are determined in the given way by a random generator created from the given seed. Unlike a
+     * noise created from a random generator, the noise has a {@link #getSpec() specification}.
+     *
+     * @param width     the width of the noise domain
+     * @param height    the height of the noise domain
+     * @param frequency the frequency of the Perlin noise
+     * @param seed      the seed of the random generator used for generating gradient vectors
+     * @param mode      the way the gradient vectors are determined
+     */
+    public SimplePerlinNoise(int width, int height, double frequency, long seed, GradientMode mode) {
+        this(width, height, frequency, seed, new Random(seed), mode, gradientCount(width, height, mode));
+    }
+
+    /**
+     * Constructs a simple Perlin noise object whose random generator was created from the given seed and whose
+     * gradient table only contains the given number of gradient vectors.
+     *
+     * @param width           the width of the noise domain
+     * @param height          the height of the noise domain
+     * @param frequency       the frequency of the Perlin noise
+     * @param seed            the seed of the random generator
+     * @param randomGenerator the random generator created from the seed
+     * @param mode            the way the gradient vectors are determined
+     * @param gradientCount   the number of gradient vectors in the gradient table, ignored if no gradient table is
+     *                        used
+     * @see AbstractPerlinNoise#AbstractPerlinNoise(int, int, double, long, Random, GradientMode, int)
+     */
+    protected SimplePerlinNoise(
+        int width,
+        int height,
+        double frequency,
+        long seed,
+        Random randomGenerator,
+        GradientMode mode,
+        int gradientCount
+    ) {
+        super(width, height, frequency, seed, randomGenerator, mode, gradientCount);
+    }
+
     /**
      * Constructs a simple Perlin noise object with the specified noise domain width, height and seed.
      *
@@ -37,6 +135,20 @@ public class SimplePerlinNoise extends AbstractPerlinNoise implements PerlinNois
         super(width, height, randomGenerator);
     }
 
+    /**
+     * Returns whether the given Perlin noise object computes its values with the functions of this class and looks up
+     * its gradient vectors by the index within its gradient table, so another implementation of the same algorithm
+     * like {@link FloatPerlinNoise} computes the same values.
+     *
+     * @param noise the Perlin noise object to check
+     * @return {@code true} if no function of the algorithm is overridden by the Perlin noise object
+     */
+    static boolean hasDefaultFunctions(PerlinNoise noise) {
+        return noise instanceof SimplePerlinNoise simple
+            && DEFAULT_FUNCTIONS.get(simple.getClass())
+            && hasDefaultGradient(simple.getClass());
+    }
+
     @Override
     public double compute(int x, int y) {
         double f = getFrequency();
@@ -53,27 +165,133 @@ public class SimplePerlinNoise extends AbstractPerlinNoise implements PerlinNois
         int y0 = (int) Math.floor(y);
         int y1 = y0 +1;
 
-        // Berechnen der Gradienten
-        Point2D x0y0 = getGradient(x0, y0);
-        Point2D x1y0 = getGradient(x1, y0);
-        Point2D x0y1 = getGradient(x0, y1);
-        Point2D x1y1 = getGradient(x1, y1);
-
         // Berechnen des Distanzvektors
         double dx = x - x0;
         double dy = y - y0;
 
-        // Berechnen der Skalarprodukte
-        double sx0y0 = new Point2D(dx + 0, dy + 0).dotProduct(x0y0);
-        double sx1y0 = new Point2D(dx- 1, dy + 0).dotProduct(x1y0);
-        double sx0y1 = new Point2D(dx + 0, dy - 1).dotProduct(x0y1);
-        double sx1y1 = new Point2D(dx - 1, dy - 1).dotProduct(x1y1);
+        // Berechnen der Skalarprodukte mit den Gradienten, ohne Zwischenobjekte zu erzeugen
+        double sx0y0 = dotGradient(x0, y0, dx, dy);
+        double sx1y0 = dotGradient(x1, y0, dx - 1, dy);
+        double sx0y1 = dotGradient(x0, y1, dx, dy - 1);
+        double sx1y1 = dotGradient(x1, y1, dx - 1, dy - 1);
+
+        double fx = fade(dx);
+        double lx0 = interpolate(sx0y0, sx1y0, fx);
+        double lx1 = interpolate(sx0y1, sx1y1, fx);
+
+        return interpolate(lx0, lx1, fade(dy));
+    }
+
+    /**
+     * Computes the noise values of a single row by walking the row cell by cell. The corner gradients, the distance
+     * in y-direction and its fade value are only determined once per lattice cell and reused for all values of the
+     * row lying in that cell. The values are evaluated with the same operations as {@link #compute(int, int)}, so the
+     * results are identical.
+     *
+     * <p>If the Java Vector API is available at runtime and this noise uses the fade and interpolation functions of
+     * this class, longer spans are computed by a vectorized {@link SpanKernel} which matches the scalar results within
+     * {@value SpanKernel#TOLERANCE}.
+     *
+     * @param x      the x-coordinate of the starting point of the row
+     * @param y      the y-coordinate of the row
+     * @param w      the number of values to compute
+     * @param buffer the buffer to store the computed values in
+     * @param offset the index of the buffer to store the first value at
+     */
+    @Override
+    public void computeRow(int x, int y, int w, double[] buffer, int offset) {
+        computeRow(x, y, w, getFrequency(), buffer, offset);
+    }
+
+    /**
+     * Computes the noise values of every {@code step}-th point of a single row. If the starting point lies on the
+     * coarser grid, the row is evaluated by the cell walker with the frequency scaled by the step.
+     *
+     * @param x      the x-coordinate of the starting point of the row
+     * @param y      the y-coordinate of the row
+     * @param w      the number of values to compute
+     * @param step   the distance between two consecutive points of the row
+     * @param buffer the buffer to store the computed values in
+     * @param offset the index of the buffer to store the first value at
+     */
+    @Override
+    public void computeStridedRow(int x, int y, int w, int step, float[] buffer, int offset) {
+        if (x % step == 0 && y % step == 0) {
+            RowScratch scratch = RowScratch.get();
+            double[] row = scratch.borrowDoubles(w);
+            try {
+                computeRow(x / step, y / step, w, getFrequency() * step, row, 0);
+                for (int i = 0; i < w; i++) {
+                    buffer[offset + i] = (float) row[i];
+                }
+            } finally {
+                scratch.release(row);
+            }
+        } else {
+            super.computeStridedRow(x, y, w, step, buffer, offset);
+        }
+    }
 
-        double lx0 = interpolate(sx0y0, sx1y0, fade(dx));
-        double lx1 = interpolate(sx0y1, sx1y1, fade(dx));
+    @Override
+    public void computeRow(int x, int y, int w, double f, double[] buffer, int offset) {
+        if (w <= 0) {
+            return;
+        }
+        double py = y * f;
+        int y0 = (int) Math.floor(py);
+        int y1 = y0 + 1;
+        double dy = py - y0;
+        double fy = fade(dy);
+        SpanKernel kernel = DEFAULT_FUNCTIONS.get(getClass()) ? SpanKernel.VECTORIZED : null;
 
-        return  interpolate(lx0, lx1, fade(dy));
+        // Coefficients of the dot products of the current cell: s = k * dx + c
+        double[] coefficients = RowScratch.get().coefficients;
+        int previousX1 = 0;
+        int start = 0;
+        while (start < w) {
+            // New lattice cell, the gradients are only looked up once per cell
+            int x0 = (int) Math.floor((x + start) * f);
+            int x1 = x0 + 1;
+            int end = SpanKernel.cellEnd(x, start, w, f, x1);
+            if (start > 0 && x0 == previousX1) {
+                // The left corners are the right corners of the previous cell
+                coefficients[0] = coefficients[2];
+                coefficients[1] = coefficients[3];
+                coefficients[4] = coefficients[6];
+                coefficients[5] = coefficients[7];
+            } else {
+                coefficients[0] = dotGradient(x0, y0, 1, 0);
+                coefficients[1] = dotGradient(x0, y0, 0, dy);
+                coefficients[4] = dotGradient(x0, y1, 1, 0);
+                coefficients[5] = dotGradient(x0, y1, 0, dy - 1);
+            }
+            coefficients[2] = dotGradient(x1, y0, 1, 0);
+            coefficients[3] = dotGradient(x1, y0, 0, dy);
+            coefficients[6] = dotGradient(x1, y1, 1, 0);
+            coefficients[7] = dotGradient(x1, y1, 0, dy - 1);
+            previousX1 = x1;
+            double kx0y0 = coefficients[0];
+            double cx0y0 = coefficients[1];
+            double kx1y0 = coefficients[2];
+            double cx1y0 = coefficients[3];
+            double kx0y1 = coefficients[4];
+            double cx0y1 = coefficients[5];
+            double kx1y1 = coefficients[6];
+            double cx1y1 = coefficients[7];
 
+            if (kernel != null && end - start >= kernel.minimumLength()) {
+                kernel.computeSpan(buffer, offset + start, x + start, end - start, f, x0, fy, coefficients);
+            } else {
+                for (int i = start; i < end; i++) {
+                    double dx = (x + i) * f - x0;
+                    double fx = fade(dx);
+                    double lx0 = interpolate(kx0y0 * dx + cx0y0, kx1y0 * (dx - 1) + cx1y0, fx);
+                    double lx1 = interpolate(kx0y1 * dx + cx0y1, kx1y1 * (dx - 1) + cx1y1, fx);
+                    buffer[offset + i] = interpolate(lx0, lx1, fy);
+                }
+            }
+            start = end;
+        }
     }
 
     /**
@@ -90,7 +308,8 @@ public class SimplePerlinNoise extends AbstractPerlinNoise implements PerlinNois
     @StudentImplementationRequired
     public double fade(double t) {
         // 1.2
-        return (6*Math.pow(t, 5) - 15*Math.pow(t, 4) + 10*Math.pow(t, 3));
+        // Horner-Schema statt Math.pow, da die Funktion für jeden Wert zweimal ausgewertet wird
+        return t * t * t * (t * (t * 6 - 15) + 10);
     }
 
     /**
@@ -0,0 +1,169 @@
+package h13.noise;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A kernel that computes the noise values of a row span lying completely in one lattice cell. Within a cell, the four
+ * dot products are linear functions {@code k * dx + c} of the distance in x-direction, so a span only needs the eight
+ * coefficients of these functions and the faded distance in y-direction.
+ *
+ * <p>Kernels use the quintic fade function and the linear interpolation of {@link SimplePerlinNoise} and evaluate them
+ * with the same operations in the same order, so their results match {@link SimplePerlinNoise#compute(int, int)}
+ * within {@value #TOLERANCE}.
+ *
+ * @see SimplePerlinNoise#computeRow(int, int, int, double[], int)
+ */
+interface SpanKernel {
+
+    /**
+     * The maximum absolute difference between a value computed by a kernel and the value computed by
+     * {@link SimplePerlinNoise#compute(int, int)}.
+     */
+    double TOLERANCE = 1e-12;
+
+    /**
+     * The system property which disables the vectorized kernel if set to {@code false}.
+     */
+    String VECTOR_PROPERTY = "h13.noise.vector";
+
+    /**
+     * The kernel using the Java Vector API, or {@code null} if it is not available.
+     *
+     * @see #vectorized()
+     */
+    @Nullable SpanKernel VECTORIZED = vectorized();
+
+    /**
+     * Returns the kernel using the Java Vector API if the module {@code jdk.incubator.vector} is available at runtime
+     * and the system property {@value #VECTOR_PROPERTY} is not set to {@code false}. The kernel is only compiled and
+     * the module is only added to the tests and applications if the build is run with {@code -Pvector}.
+     *
+     * @return the vectorized kernel or {@code null} if it is not available
+     */
+    static @Nullable SpanKernel vectorized() {
+        if (!Boolean.parseBoolean(System.getProperty(VECTOR_PROPERTY, "true"))
+            || ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            return null;
+        }
+        try {
+            return (SpanKernel) Class.forName("h13.noise.VectorSpanKernel").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns the index of the first value of a row which does not lie in the same lattice cell as the value at the
+     * given index anymore, i.e. the first index {@code i} with {@code (x + i) * frequency >= x1}.
+     *
+     * @param x         the x-coordinate of the starting point of the row
+     * @param start     the index of a value lying in the lattice cell
+     * @param w         the number of values of the row
+     * @param frequency the frequency of the noise
+     * @param x1        the x-coordinate of the right border of the lattice cell
+     * @return the index of the first value not lying in the lattice cell or {@code w} if there is none
+     */
+    static int cellEnd(int x, int start, int w, double frequency, int x1) {
+        if (frequency == 0) {
+            return w;
+        }
+        // Estimate by division, then correct it exactly with the same operations as the evaluation
+        long estimate = (long) Math.ceil(x1 / frequency) - x;
+        int end = (int) Math.max(start + 1, Math.min(w, estimate));
+        while (end < w && (x + end) * frequency < x1) {
+            end++;
+        }
+        while (end > start + 1 && (x + end - 1) * frequency >= x1) {
+            end--;
+        }
+        return end;
+    }
+
+    /**
+     * Returns the index of the first value of a row which does not lie in the same lattice cell as the value at the
+     * given index anymore using single precision, i.e. the first index {@code i} with
+     * {@code (x + i) * frequency >= x1}.
+     *
+     * @param x         the x-coordinate of the starting point of the row
+     * @param start     the index of a value lying in the lattice cell
+     * @param w         the number of values of the row
+     * @param frequency the frequency of the noise
+     * @param x1        the x-coordinate of the right border of the lattice cell
+     * @return the index of the first value not lying in the lattice cell or {@code w} if there is none
+     * @see #cellEnd(int, int, int, double, int)
+     */
+    static int cellEnd(int x, int start, int w, float frequency, int x1) {
+        if (frequency == 0) {
+            return w;
+        }
+        long estimate = (long) Math.ceil(x1 / frequency) - x;
+        int end = (int) Math.max(start + 1, Math.min(w, estimate));
+        while (end < w && (x + end) * frequency < x1) {
+            end++;
+        }
+        while (end > start + 1 && (x + end - 1) * frequency >= x1) {
+            end--;
+        }
+        return end;
+    }
+
+    /**
+     * Returns the minimum number of values a span should have to be computed by this kernel. Shorter spans are
+     * computed faster by the scalar code.
+     *
+     * @return the minimum number of values of a span
+     */
+    int minimumLength();
+
+    /**
+     * Computes the noise values of a row span lying in the lattice cell starting at {@code x0}, i.e. the value at
+     * {@code (x + i, y)} is stored at {@code buffer[offset + i]}.
+     *
+     * <p>The coefficients are stored as {@code {k(x0, y0), c(x0, y0), k(x1, y0), c(x1, y0), k(x0, y1), c(x0, y1),
+     * k(x1, y1), c(x1, y1)}}, where the dot product with the gradient at the left corners is {@code k * dx + c} and with
+     * the gradient at the right corners is {@code k * (dx - 1) + c}.
+     *
+     * @param buffer       the buffer to store the computed values in
+     * @param offset       the index of the buffer to store the first value at
+     * @param x            the x-coordinate of the first value in the noise domain
+     * @param count        the number of values to compute
+     * @param frequency    the frequency of the noise
+     * @param x0           the x-coordinate of the lattice cell
+     * @param fy           the faded distance in y-direction
+     * @param coefficients the coefficients of the dot products
+     */
+    void computeSpan(
+        double[] buffer,
+        int offset,
+        int x,
+        int count,
+        double frequency,
+        int x0,
+        double fy,
+        double[] coefficients
+    );
+
+    /**
+     * Computes the noise values of a row span lying in the lattice cell starting at {@code x0} with single precision.
+     *
+     * @param buffer       the buffer to store the computed values in
+     * @param offset       the index of the buffer to store the first value at
+     * @param x            the x-coordinate of the first value in the noise domain
+     * @param count        the number of values to compute
+     * @param frequency    the frequency of the noise
+     * @param x0           the x-coordinate of the lattice cell
+     * @param fy           the faded distance in y-direction
+     * @param coefficients the coefficients of the dot products
+     * @see #computeSpan(double[], int, int, int, double, int, double, double[])
+     */
+    void computeSpan(
+        float[] buffer,
+        int offset,
+        int x,
+        int count,
+        float frequency,
+        int x0,
+        float fy,
+        float[] coefficients
+    );
+}
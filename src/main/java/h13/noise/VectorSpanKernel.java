@@ -0,0 +1,130 @@
+package h13.noise;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * A {@link SpanKernel} using the Java Vector API to compute multiple values of a span at once.
+ *
+ * <p>This class must only be loaded if the module {@code jdk.incubator.vector} is available, use
+ * {@link SpanKernel#vectorized()} to obtain an instance.
+ */
+final class VectorSpanKernel implements SpanKernel {
+
+    /**
+     * The preferred species of the platform, e.g. 4 lanes for AVX2 and 8 lanes for AVX-512.
+     */
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    /**
+     * The preferred single precision species of the platform, which has twice as many lanes as {@link #SPECIES}.
+     */
+    private static final VectorSpecies<Float> FLOAT_SPECIES = FloatVector.SPECIES_PREFERRED;
+
+    /**
+     * The lane indices {@code 0, 1, ..., n - 1}.
+     */
+    private static final DoubleVector IOTA = DoubleVector.zero(SPECIES).addIndex(1);
+
+    /**
+     * The single precision lane indices {@code 0, 1, ..., n - 1}.
+     */
+    private static final FloatVector FLOAT_IOTA = FloatVector.zero(FLOAT_SPECIES).addIndex(1);
+
+    @Override
+    public int minimumLength() {
+        return SPECIES.length();
+    }
+
+    @Override
+    public void computeSpan(
+        double[] buffer,
+        int offset,
+        int x,
+        int count,
+        double frequency,
+        int x0,
+        double fy,
+        double[] coefficients
+    ) {
+        double kx0y0 = coefficients[0];
+        double cx0y0 = coefficients[1];
+        double kx1y0 = coefficients[2];
+        double cx1y0 = coefficients[3];
+        double kx0y1 = coefficients[4];
+        double cx0y1 = coefficients[5];
+        double kx1y1 = coefficients[6];
+        double cx1y1 = coefficients[7];
+
+        int i = 0;
+        for (int bound = SPECIES.loopBound(count); i < bound; i += SPECIES.length()) {
+            DoubleVector dx = IOTA.add((double) x + i).mul(frequency).sub(x0);
+            DoubleVector dx1 = dx.sub(1);
+            DoubleVector fx = dx.mul(dx).mul(dx).mul(dx.mul(dx.mul(6).sub(15)).add(10));
+            DoubleVector sx0y0 = dx.mul(kx0y0).add(cx0y0);
+            DoubleVector sx1y0 = dx1.mul(kx1y0).add(cx1y0);
+            DoubleVector sx0y1 = dx.mul(kx0y1).add(cx0y1);
+            DoubleVector sx1y1 = dx1.mul(kx1y1).add(cx1y1);
+            DoubleVector lx0 = sx0y0.add(fx.mul(sx1y0.sub(sx0y0)));
+            DoubleVector lx1 = sx0y1.add(fx.mul(sx1y1.sub(sx0y1)));
+            lx0.add(lx1.sub(lx0).mul(fy)).intoArray(buffer, offset + i);
+        }
+        for (; i < count; i++) {
+            double dx = (x + i) * frequency - x0;
+            double dx1 = dx - 1;
+            double fx = dx * dx * dx * (dx * (dx * 6 - 15) + 10);
+            double sx0y0 = kx0y0 * dx + cx0y0;
+            double sx0y1 = kx0y1 * dx + cx0y1;
+            double lx0 = sx0y0 + fx * ((kx1y0 * dx1 + cx1y0) - sx0y0);
+            double lx1 = sx0y1 + fx * ((kx1y1 * dx1 + cx1y1) - sx0y1);
+            buffer[offset + i] = lx0 + fy * (lx1 - lx0);
+        }
+    }
+
+    @Override
+    public void computeSpan(
+        float[] buffer,
+        int offset,
+        int x,
+        int count,
+        float frequency,
+        int x0,
+        float fy,
+        float[] coefficients
+    ) {
+        float kx0y0 = coefficients[0];
+        float cx0y0 = coefficients[1];
+        float kx1y0 = coefficients[2];
+        float cx1y0 = coefficients[3];
+        float kx0y1 = coefficients[4];
+        float cx0y1 = coefficients[5];
+        float kx1y1 = coefficients[6];
+        float cx1y1 = coefficients[7];
+
+        int i = 0;
+        for (int bound = FLOAT_SPECIES.loopBound(count); i < bound; i += FLOAT_SPECIES.length()) {
+            // Lanes are exact integers as long as the coordinates are below 2^24
+            FloatVector dx = FLOAT_IOTA.add((float) (x + i)).mul(frequency).sub(x0);
+            FloatVector dx1 = dx.sub(1);
+            FloatVector fx = dx.mul(dx).mul(dx).mul(dx.mul(dx.mul(6).sub(15)).add(10));
+            FloatVector sx0y0 = dx.mul(kx0y0).add(cx0y0);
+            FloatVector sx1y0 = dx1.mul(kx1y0).add(cx1y0);
+            FloatVector sx0y1 = dx.mul(kx0y1).add(cx0y1);
+            FloatVector sx1y1 = dx1.mul(kx1y1).add(cx1y1);
+            FloatVector lx0 = sx0y0.add(fx.mul(sx1y0.sub(sx0y0)));
+            FloatVector lx1 = sx0y1.add(fx.mul(sx1y1.sub(sx0y1)));
+            lx0.add(lx1.sub(lx0).mul(fy)).intoArray(buffer, offset + i);
+        }
+        for (; i < count; i++) {
+            float dx = (x + i) * frequency - x0;
+            float dx1 = dx - 1;
+            float fx = dx * dx * dx * (dx * (dx * 6 - 15) + 10);
+            float sx0y0 = kx0y0 * dx + cx0y0;
+            float sx0y1 = kx0y1 * dx + cx0y1;
+            float lx0 = sx0y0 + fx * ((kx1y0 * dx1 + cx1y0) - sx0y0);
+            float lx1 = sx0y1 + fx * ((kx1y1 * dx1 + cx1y1) - sx0y1);
+            buffer[offset + i] = lx0 + fy * (lx1 - lx0);
+        }
+    }
+}
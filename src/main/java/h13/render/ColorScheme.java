@@ -0,0 +1,87 @@
+package h13.render;
+
+import java.util.function.DoubleToIntFunction;
+
+/**
+ * The color schemes for noise values in the range [0, 1], which map the values to premultiplied ARGB pixels. The
+ * schemes do not depend on a user interface, so headless renderers can use them as well.
+ */
+public enum ColorScheme {
+
+    /**
+     * A coloring which maps the noise value to its brightness.
+     */
+    GRAY(value -> Palette.argb(value, value, value, 1)),
+
+    /**
+     * A simple coloring which contains only water and land.
+     */
+    SIMPLE(value -> {
+        if (value <= 0.5) {
+            // Water color (blue)
+            return Palette.argb(0, 0, value * 2, 1);
+        } else {
+            // Land color (green)
+            return Palette.argb(0, value, 0, 1);
+        }
+    }),
+
+    /**
+     * A coloring which contains water, land, mountain and snow.
+     */
+    MOUNTAIN(value -> {
+        if (value < 0.45) {
+            // Water color (blue)
+            return Palette.argb(0, 0, value * 2, 1);
+        }
+        if (value < 0.6) {
+            // Land color (green)
+            return Palette.argb(0, value, 0, 1);
+        }
+        if (value < 0.8) {
+            // Mountain color (brown)
+            return Palette.argb(value, value * 0.5, 0, 1);
+        }
+        // Snow color (white)
+        return Palette.argb(value, value, value, 1);
+    }),
+    ;
+
+    /**
+     * The mapper which maps the noise value to a premultiplied ARGB pixel.
+     */
+    private final DoubleToIntFunction mapper;
+
+    /**
+     * The lookup table of the mapper.
+     */
+    private final Palette palette;
+
+    /**
+     * Constructs a color scheme with the given mapper.
+     *
+     * @param mapper the mapper which maps the noise value to a premultiplied ARGB pixel
+     */
+    ColorScheme(DoubleToIntFunction mapper) {
+        this.mapper = mapper;
+        this.palette = new Palette(mapper);
+    }
+
+    /**
+     * Returns the mapper which maps the noise value to a premultiplied ARGB pixel.
+     *
+     * @return the mapper which maps the noise value to a premultiplied ARGB pixel
+     */
+    public DoubleToIntFunction getMapper() {
+        return mapper;
+    }
+
+    /**
+     * Returns the lookup table of the mapper which maps the noise value to a premultiplied ARGB pixel.
+     *
+     * @return the lookup table of the mapper
+     */
+    public Palette getPalette() {
+        return palette;
+    }
+}
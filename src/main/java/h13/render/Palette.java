@@ -0,0 +1,125 @@
+package h13.render;
+
+import java.util.function.DoubleToIntFunction;
+
+/**
+ * A lookup table which maps noise values in the range [0, 1] to ARGB pixels. The table samples a color mapping at
+ * evenly spaced values once, so mapping a value only requires a single array access. Values outside the range are
+ * clamped to the first or last entry.
+ */
+public final class Palette implements DoubleToIntFunction {
+
+    /**
+     * The default number of entries of a palette.
+     */
+    public static final int DEFAULT_SIZE = 4096;
+
+    /**
+     * The ARGB pixels of the sampled values, the entry at index i belongs to the value i / (size - 1).
+     */
+    private final int[] table;
+
+    /**
+     * The factor to scale a value with to get its index in the table.
+     */
+    private final float scale;
+
+    /**
+     * Constructs a palette with the default number of entries which samples the given color mapping.
+     *
+     * @param mapper the mapper which maps a noise value to an ARGB pixel
+     */
+    public Palette(DoubleToIntFunction mapper) {
+        this(mapper, DEFAULT_SIZE);
+    }
+
+    /**
+     * Constructs a palette with the given number of entries which samples the given color mapping.
+     *
+     * @param mapper the mapper which maps a noise value to an ARGB pixel
+     * @param size   the number of entries of the palette
+     * @throws IllegalArgumentException if the size is smaller than 2
+     */
+    public Palette(DoubleToIntFunction mapper, int size) {
+        if (size < 2) {
+            throw new IllegalArgumentException("Palette must contain at least 2 entries");
+        }
+        this.table = new int[size];
+        this.scale = size - 1;
+        for (int i = 0; i < size; i++) {
+            table[i] = mapper.applyAsInt((double) i / (size - 1));
+        }
+    }
+
+    /**
+     * Converts the given color components in the range [0, 1] to a premultiplied ARGB pixel.
+     *
+     * @param red     the red component of the color
+     * @param green   the green component of the color
+     * @param blue    the blue component of the color
+     * @param opacity the opacity of the color
+     * @return the premultiplied ARGB pixel of the color
+     */
+    public static int argb(double red, double green, double blue, double opacity) {
+        int a = (int) Math.round(opacity * 255);
+        int r = (int) Math.round(red * opacity * 255);
+        int g = (int) Math.round(green * opacity * 255);
+        int b = (int) Math.round(blue * opacity * 255);
+        return a << 24 | r << 16 | g << 8 | b;
+    }
+
+    @Override
+    public int applyAsInt(double value) {
+        return table[index((float) value)];
+    }
+
+    /**
+     * Maps the given noise values to ARGB pixels.
+     *
+     * @param values      the noise values to map
+     * @param valueOffset the index of the first value to map
+     * @param pixels      the buffer to store the pixels in
+     * @param pixelOffset the index of the buffer to store the first pixel at
+     * @param length      the number of values to map
+     */
+    public void map(float[] values, int valueOffset, int[] pixels, int pixelOffset, int length) {
+        for (int i = 0; i < length; i++) {
+            pixels[pixelOffset + i] = table[index(values[valueOffset + i])];
+        }
+    }
+
+    /**
+     * Maps the given noise values to ARGB pixels.
+     *
+     * @param values      the noise values to map
+     * @param valueOffset the index of the first value to map
+     * @param pixels      the buffer to store the pixels in
+     * @param pixelOffset the index of the buffer to store the first pixel at
+     * @param length      the number of values to map
+     */
+    public void map(double[] values, int valueOffset, int[] pixels, int pixelOffset, int length) {
+        for (int i = 0; i < length; i++) {
+            pixels[pixelOffset + i] = table[index((float) values[valueOffset + i])];
+        }
+    }
+
+    /**
+     * Returns the number of entries of this palette.
+     *
+     * @return the number of entries of this palette
+     */
+    public int size() {
+        return table.length;
+    }
+
+    /**
+     * Returns the index of the entry which is closest to the given value. NaN is mapped to the first entry.
+     *
+     * @param value the value to look up
+     * @return the index of the closest entry
+     */
+    private int index(float value) {
+        int index = (int) (value * scale + 0.5f);
+        return Math.min(Math.max(index, 0), table.length - 1);
+    }
+}
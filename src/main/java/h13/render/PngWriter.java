@@ -0,0 +1,347 @@
+package h13.render;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.Adler32;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * A streaming PNG encoder for images of arbitrary size. The image is produced in bands of rows by a {@link RowSource},
+ * each band is filtered and compressed independently in parallel, and the compressed bands are written in order as
+ * consecutive parts of a single zlib stream. Only a bounded number of bands is held in memory at once, so the size
+ * of the image is not limited by the available memory.
+ *
+ * <p>The pixels are premultiplied ARGB pixels as produced by a {@link Palette}, they are written as 8-bit RGBA.
+ */
+public class PngWriter {
+
+    /**
+     * The default number of rows of a band.
+     */
+    public static final int DEFAULT_BAND_HEIGHT = 64;
+
+    /**
+     * The signature which starts every PNG file.
+     */
+    private static final byte[] SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+
+    /**
+     * The zlib header for a deflate stream with a 32 KiB window.
+     */
+    private static final byte[] ZLIB_HEADER = {0x78, (byte) 0x9C};
+
+    /**
+     * The modulus of the Adler-32 checksum.
+     */
+    private static final int ADLER_BASE = 65521;
+
+    /**
+     * The executor which renders and compresses the bands.
+     */
+    private final Executor executor;
+
+    /**
+     * The compression level of the deflater.
+     */
+    private final int level;
+
+    /**
+     * The number of rows of a band.
+     */
+    private final int bandHeight;
+
+    /**
+     * The maximum number of bands which are rendered and compressed at once.
+     */
+    private final int window;
+
+    /**
+     * Constructs a PNG writer which compresses bands of the default height with the default compression level in the
+     * common fork/join pool.
+     */
+    public PngWriter() {
+        this(ForkJoinPool.commonPool(), Deflater.DEFAULT_COMPRESSION, DEFAULT_BAND_HEIGHT);
+    }
+
+    /**
+     * Constructs a PNG writer which compresses bands of the given height with the given compression level.
+     *
+     * @param executor   the executor which renders and compresses the bands
+     * @param level      the compression level of the deflater, see {@link Deflater#setLevel(int)}
+     * @param bandHeight the number of rows of a band
+     * @throws IllegalArgumentException if the band height is not positive
+     */
+    public PngWriter(Executor executor, int level, int bandHeight) {
+        if (bandHeight <= 0) {
+            throw new IllegalArgumentException("Band height must be positive");
+        }
+        this.executor = executor;
+        this.level = level;
+        this.bandHeight = bandHeight;
+        this.window = 2 * Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Returns a source which copies the rows of the given rendered pixels.
+     *
+     * @param pixels the rendered pixels stored row-major
+     * @param width  the width of the image
+     * @return a source which copies the rows of the given pixels
+     */
+    public static RowSource of(int[] pixels, int width) {
+        return (y, h, buffer) -> System.arraycopy(pixels, y * width, buffer, 0, h * width);
+    }
+
+    /**
+     * Writes an image of the given size whose rows are produced by the given source to the given stream. The stream
+     * is not closed.
+     *
+     * @param width  the width of the image
+     * @param height the height of the image
+     * @param source the source which produces the rows of the image
+     * @param out    the stream to write the image to
+     * @throws IOException              if an I/O error occurs
+     * @throws IllegalArgumentException if the width or height is not positive
+     */
+    public void write(int width, int height, RowSource source, OutputStream out) throws IOException {
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("Width and height must be positive");
+        }
+        if ((long) width * 4 + 1 > Integer.MAX_VALUE / bandHeight) {
+            throw new IllegalArgumentException("Image is too wide");
+        }
+        out.write(SIGNATURE);
+        byte[] header = new byte[13];
+        putInt(header, 0, width);
+        putInt(header, 4, height);
+        header[8] = 8; // Bit depth
+        header[9] = 6; // RGBA
+        writeChunk(out, "IHDR", header, header.length);
+
+        Deque<CompletableFuture<Band>> pending = new ArrayDeque<>();
+        int next = 0;
+        long adler = 1;
+        boolean first = true;
+        while (next < height || !pending.isEmpty()) {
+            while (next < height && pending.size() < window) {
+                int y = next;
+                int rows = Math.min(bandHeight, height - y);
+                boolean last = y + rows == height;
+                pending.add(CompletableFuture.supplyAsync(() -> compress(width, y, rows, last, source), executor));
+                next += rows;
+            }
+            Band band = join(pending.removeFirst());
+            adler = combine(adler, band.adler(), band.length());
+            ByteArrayOutputStream data = band.data();
+            if (first) {
+                data = prepend(ZLIB_HEADER, data);
+                first = false;
+            }
+            if (pending.isEmpty() && next == height) {
+                byte[] checksum = new byte[4];
+                putInt(checksum, 0, (int) adler);
+                data.write(checksum);
+            }
+            writeChunk(out, "IDAT", data.toByteArray(), data.size());
+        }
+        writeChunk(out, "IEND", new byte[0], 0);
+        out.flush();
+    }
+
+    /**
+     * Renders, filters and compresses a band of the image.
+     *
+     * @param width  the width of the image
+     * @param y      the first row of the band
+     * @param rows   the number of rows of the band
+     * @param last   whether the band is the last band of the image
+     * @param source the source which produces the rows of the image
+     * @return the compressed band
+     */
+    private Band compress(int width, int y, int rows, boolean last, RowSource source) {
+        int[] pixels = new int[rows * width];
+        source.render(y, rows, pixels);
+        int scanline = 1 + 4 * width;
+        byte[] raw = new byte[rows * scanline];
+        for (int j = 0; j < rows; j++) {
+            int start = j * scanline;
+            // Sub filter, neighbouring noise pixels are similar, so the differences compress well
+            raw[start] = 1;
+            int previous = 0;
+            for (int i = 0; i < width; i++) {
+                int rgba = toRgba(pixels[j * width + i]);
+                int index = start + 1 + 4 * i;
+                raw[index] = (byte) ((rgba >>> 24) - (previous >>> 24));
+                raw[index + 1] = (byte) ((rgba >>> 16) - (previous >>> 16));
+                raw[index + 2] = (byte) ((rgba >>> 8) - (previous >>> 8));
+                raw[index + 3] = (byte) (rgba - previous);
+                previous = rgba;
+            }
+        }
+        Adler32 adler = new Adler32();
+        adler.update(raw);
+
+        Deflater deflater = new Deflater(level, true);
+        ByteArrayOutputStream data = new ByteArrayOutputStream(raw.length / 4 + 64);
+        byte[] buffer = new byte[64 * 1024];
+        try {
+            deflater.setInput(raw);
+            if (last) {
+                deflater.finish();
+                while (!deflater.finished()) {
+                    data.write(buffer, 0, deflater.deflate(buffer));
+                }
+            } else {
+                // A sync flush ends the band on a byte boundary, so the next band can be appended to the stream
+                int n;
+                do {
+                    n = deflater.deflate(buffer, 0, buffer.length, Deflater.SYNC_FLUSH);
+                    data.write(buffer, 0, n);
+                } while (n == buffer.length);
+            }
+        } finally {
+            deflater.end();
+        }
+        return new Band(data, adler.getValue(), raw.length);
+    }
+
+    /**
+     * Converts a premultiplied ARGB pixel to a non-premultiplied RGBA pixel.
+     *
+     * @param argb the premultiplied ARGB pixel
+     * @return the non-premultiplied RGBA pixel
+     */
+    private static int toRgba(int argb) {
+        int a = argb >>> 24;
+        if (a == 0xFF || a == 0) {
+            return argb << 8 | a;
+        }
+        int r = Math.min(255, ((argb >>> 16 & 0xFF) * 255 + a / 2) / a);
+        int g = Math.min(255, ((argb >>> 8 & 0xFF) * 255 + a / 2) / a);
+        int b = Math.min(255, ((argb & 0xFF) * 255 + a / 2) / a);
+        return r << 24 | g << 16 | b << 8 | a;
+    }
+
+    /**
+     * Combines the Adler-32 checksums of two consecutive parts of data.
+     *
+     * @param adler1 the checksum of the first part
+     * @param adler2 the checksum of the second part
+     * @param length the length of the second part
+     * @return the checksum of both parts
+     */
+    static long combine(long adler1, long adler2, long length) {
+        long remainder = length % ADLER_BASE;
+        long sum1 = adler1 & 0xFFFF;
+        long sum2 = remainder * sum1 % ADLER_BASE;
+        sum1 += (adler2 & 0xFFFF) + ADLER_BASE - 1;
+        sum2 += (adler1 >>> 16 & 0xFFFF) + (adler2 >>> 16 & 0xFFFF) + ADLER_BASE - remainder;
+        sum1 %= ADLER_BASE;
+        sum2 %= ADLER_BASE;
+        return sum1 | sum2 << 16;
+    }
+
+    /**
+     * Waits for the given band and rethrows a runtime exception which occurred while producing it.
+     *
+     * @param band the band to wait for
+     * @return the compressed band
+     */
+    private static Band join(CompletableFuture<Band> band) {
+        try {
+            return band.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Returns a stream which contains the given bytes followed by the given data.
+     *
+     * @param bytes the bytes to prepend
+     * @param data  the data to append
+     * @return a stream which contains the bytes followed by the data
+     */
+    private static ByteArrayOutputStream prepend(byte[] bytes, ByteArrayOutputStream data) {
+        ByteArrayOutputStream result = new ByteArrayOutputStream(bytes.length + data.size() + 4);
+        result.writeBytes(bytes);
+        result.writeBytes(data.toByteArray());
+        return result;
+    }
+
+    /**
+     * Writes a chunk with the given type and data.
+     *
+     * @param out    the stream to write the chunk to
+     * @param type   the type of the chunk
+     * @param data   the data of the chunk
+     * @param length the number of bytes of the data
+     * @throws IOException if an I/O error occurs
+     */
+    private static void writeChunk(OutputStream out, String type, byte[] data, int length) throws IOException {
+        byte[] typeBytes = type.getBytes(StandardCharsets.US_ASCII);
+        byte[] field = new byte[4];
+        putInt(field, 0, length);
+        out.write(field);
+        out.write(typeBytes);
+        out.write(data, 0, length);
+        CRC32 crc = new CRC32();
+        crc.update(typeBytes);
+        crc.update(data, 0, length);
+        putInt(field, 0, (int) crc.getValue());
+        out.write(field);
+    }
+
+    /**
+     * Stores the given value big-endian in the given array.
+     *
+     * @param bytes  the array to store the value in
+     * @param offset the index of the first byte
+     * @param value  the value to store
+     */
+    private static void putInt(byte[] bytes, int offset, int value) {
+        bytes[offset] = (byte) (value >>> 24);
+        bytes[offset + 1] = (byte) (value >>> 16);
+        bytes[offset + 2] = (byte) (value >>> 8);
+        bytes[offset + 3] = (byte) value;
+    }
+
+    /**
+     * A source which produces the rows of an image.
+     */
+    @FunctionalInterface
+    public interface RowSource {
+
+        /**
+         * Produces the given rows of the image as premultiplied ARGB pixels. This method may be called concurrently
+         * for different rows.
+         *
+         * @param y      the first row to produce
+         * @param h      the number of rows to produce
+         * @param pixels the buffer to store the rows in, row-major with the width of the image as stride
+         */
+        void render(int y, int h, int[] pixels);
+    }
+
+    /**
+     * A compressed band of the image.
+     *
+     * @param data   the compressed data
+     * @param adler  the Adler-32 checksum of the uncompressed data
+     * @param length the length of the uncompressed data
+     */
+    private record Band(ByteArrayOutputStream data, long adler, long length) {
+    }
+}
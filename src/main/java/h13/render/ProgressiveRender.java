@@ -0,0 +1,297 @@
+package h13.render;
+
+import h13.noise.GradientNoise;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.DoubleToIntFunction;
+
+/**
+ * A coarse-to-fine rendering of a region of a {@link GradientNoise}. Each pass samples the region at every
+ * {@code step}-th pixel, starting with a coarse step which is halved after each pass until every pixel is sampled.
+ *
+ * <p>The samples of earlier passes are kept and reused: a pass only computes the samples of its grid which are not
+ * on the grid of the previous pass, so all passes together compute every pixel exactly once. The rows of a pass are
+ * computed in parallel by an executor. Like a {@link TileCache}, the region can be rendered at a zoom level {@code z}
+ * where the pixel {@code (x, y)} shows the noise value at {@code (x * 2^z, y * 2^z)}.
+ *
+ * <p>A rendering can be cancelled from any thread, the rows which are computed at that time are finished, the
+ * remaining rows of the pass are skipped.
+ */
+public class ProgressiveRender implements Iterator<ProgressiveRender.Pass> {
+
+    /**
+     * The default step of the first pass, i.e. the first pass has 1/8 of the resolution.
+     */
+    public static final int DEFAULT_COARSEST_STEP = 8;
+
+    /**
+     * The number of rows of a pass which are computed by a single task.
+     */
+    private static final int BAND_HEIGHT = 16;
+
+    /**
+     * The noise to render.
+     */
+    private final GradientNoise noise;
+
+    /**
+     * The mapper which maps a noise value to an ARGB pixel.
+     */
+    private final DoubleToIntFunction colorMapper;
+
+    /**
+     * The x-coordinate of the starting point of the region at the zoom level.
+     */
+    private final int x;
+
+    /**
+     * The y-coordinate of the starting point of the region at the zoom level.
+     */
+    private final int y;
+
+    /**
+     * The zoom level of the region.
+     */
+    private final int zoom;
+
+    /**
+     * The width of the region.
+     */
+    private final int w;
+
+    /**
+     * The height of the region.
+     */
+    private final int h;
+
+    /**
+     * The executor which computes the rows of a pass.
+     */
+    private final Executor executor;
+
+    /**
+     * The samples computed so far, stored row-major with the full resolution of the region.
+     */
+    private final float[] samples;
+
+    /**
+     * The step of the next pass or 0 if all passes are rendered.
+     */
+    private int step;
+
+    /**
+     * The step of the last rendered pass or 0 if no pass was rendered yet.
+     */
+    private int previousStep = 0;
+
+    /**
+     * Whether the rendering is cancelled.
+     */
+    private volatile boolean cancelled = false;
+
+    /**
+     * Constructs a progressive rendering of the specified region starting with the default step in the common
+     * fork/join pool.
+     *
+     * @param noise       the noise to render
+     * @param colorMapper the mapper which maps a noise value to an ARGB pixel
+     * @param x           the x-coordinate of the starting point of the region
+     * @param y           the y-coordinate of the starting point of the region
+     * @param w           the width of the region
+     * @param h           the height of the region
+     */
+    public ProgressiveRender(GradientNoise noise, DoubleToIntFunction colorMapper, int x, int y, int w, int h) {
+        this(noise, colorMapper, x, y, w, h, DEFAULT_COARSEST_STEP, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructs a progressive rendering of the specified region starting with the given step.
+     *
+     * @param noise        the noise to render
+     * @param colorMapper  the mapper which maps a noise value to an ARGB pixel
+     * @param x            the x-coordinate of the starting point of the region
+     * @param y            the y-coordinate of the starting point of the region
+     * @param w            the width of the region
+     * @param h            the height of the region
+     * @param coarsestStep the step of the first pass, must be a power of two
+     * @param executor     the executor which computes the rows of a pass
+     * @throws IllegalArgumentException if the width or height is negative or the step is not a power of two
+     */
+    public ProgressiveRender(
+        GradientNoise noise,
+        DoubleToIntFunction colorMapper,
+        int x,
+        int y,
+        int w,
+        int h,
+        int coarsestStep,
+        Executor executor
+    ) {
+        this(noise, colorMapper, x, y, w, h, 0, coarsestStep, executor);
+    }
+
+    /**
+     * Constructs a progressive rendering of the specified region at the given zoom level starting with the given
+     * step.
+     *
+     * @param noise        the noise to render
+     * @param colorMapper  the mapper which maps a noise value to an ARGB pixel
+     * @param x            the x-coordinate of the starting point of the region at the zoom level
+     * @param y            the y-coordinate of the starting point of the region at the zoom level
+     * @param w            the width of the region
+     * @param h            the height of the region
+     * @param zoom         the zoom level, i.e. the binary logarithm of the distance between two rendered points
+     * @param coarsestStep the step of the first pass, must be a power of two
+     * @param executor     the executor which computes the rows of a pass
+     * @throws IllegalArgumentException if the width or height is negative, the step is not a power of two or the zoom
+     *                                  level is negative
+     */
+    public ProgressiveRender(
+        GradientNoise noise,
+        DoubleToIntFunction colorMapper,
+        int x,
+        int y,
+        int w,
+        int h,
+        int zoom,
+        int coarsestStep,
+        Executor executor
+    ) {
+        if (w < 0 || h < 0) {
+            throw new IllegalArgumentException("Width and height cannot be negative");
+        }
+        if (zoom < 0) {
+            throw new IllegalArgumentException("Zoom level cannot be negative");
+        }
+        if (coarsestStep <= 0 || Integer.bitCount(coarsestStep) != 1) {
+            throw new IllegalArgumentException("Step must be a power of two");
+        }
+        this.noise = noise;
+        this.colorMapper = colorMapper;
+        this.x = x;
+        this.y = y;
+        this.zoom = zoom;
+        this.w = w;
+        this.h = h;
+        this.executor = executor;
+        this.samples = new float[w * h];
+        this.step = coarsestStep;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return step > 0 && !cancelled;
+    }
+
+    /**
+     * Renders the next pass. This method blocks until all rows of the pass are computed.
+     *
+     * @return the rendered pass
+     * @throws NoSuchElementException if all passes are rendered
+     * @throws CancellationException  if the rendering was cancelled
+     */
+    @Override
+    public Pass next() {
+        if (cancelled) {
+            throw new CancellationException("Rendering was cancelled");
+        }
+        if (!hasNext()) {
+            throw new NoSuchElementException("All passes are rendered");
+        }
+        int s = step;
+        int width = (w + s - 1) / s;
+        int height = (h + s - 1) / s;
+        int[] pixels = new int[width * height];
+        List<CompletableFuture<Void>> bands = new ArrayList<>();
+        for (int start = 0; start < height; start += BAND_HEIGHT) {
+            int from = start;
+            int to = Math.min(start + BAND_HEIGHT, height);
+            bands.add(CompletableFuture.runAsync(() -> renderBand(s, width, from, to, pixels), executor));
+        }
+        TileRenderer.join(bands);
+        if (cancelled) {
+            throw new CancellationException("Rendering was cancelled");
+        }
+        previousStep = s;
+        step = s / 2;
+        return new Pass(s, width, height, pixels);
+    }
+
+    /**
+     * Computes the missing samples of the given rows of a pass and maps the samples of the pass to pixels.
+     *
+     * @param s      the step of the pass
+     * @param width  the number of samples of a row of the pass
+     * @param from   the index of the first row of the pass to render
+     * @param to     the index after the last row of the pass to render
+     * @param pixels the buffer to store the pixels of the pass in
+     */
+    private void renderBand(int s, int width, int from, int to, int[] pixels) {
+        float[] row = new float[width];
+        int unit = 1 << zoom;
+        for (int j = from; j < to && !cancelled; j++) {
+            int start = j * s * w;
+            if (previousStep == 0 || j * s % previousStep != 0) {
+                // The row is not sampled yet
+                noise.computeStridedRow(x * unit, (y + j * s) * unit, width, s * unit, row, 0);
+                for (int i = 0; i < width; i++) {
+                    samples[start + i * s] = row[i];
+                }
+            } else {
+                // Only the samples between the samples of the previous pass are missing
+                int missing = width / 2;
+                noise.computeStridedRow((x + s) * unit, (y + j * s) * unit, missing, 2 * s * unit, row, 0);
+                for (int i = 0; i < missing; i++) {
+                    samples[start + (2 * i + 1) * s] = row[i];
+                }
+            }
+            int offset = j * width;
+            for (int i = 0; i < width; i++) {
+                pixels[offset + i] = colorMapper.applyAsInt(samples[start + i * s]);
+            }
+        }
+    }
+
+    /**
+     * Cancels this rendering. Passes which are not rendered yet will not be rendered.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * Returns whether this rendering is cancelled.
+     *
+     * @return {@code true} if this rendering is cancelled
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * A rendered pass, each pixel of the pass covers a square of {@code step * step} pixels of the region.
+     *
+     * @param step   the distance between two consecutive samples of the pass
+     * @param width  the number of pixels of a row of the pass
+     * @param height the number of rows of the pass
+     * @param pixels the ARGB pixels of the pass stored row-major
+     */
+    public record Pass(int step, int width, int height, int[] pixels) {
+
+        /**
+         * Returns whether this pass has the full resolution of the region.
+         *
+         * @return {@code true} if this pass has the full resolution of the region
+         */
+        public boolean isFinal() {
+            return step == 1;
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package h13.render;
+
+import h13.noise.GradientNoise;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.function.DoubleToIntFunction;
+
+/**
+ * A service which renders noise progressively in the background. A single job is rendered at a time, submitting a
+ * new job cancels the previous one. The passes of a job are computed by worker threads and handed to a publisher, e.g.
+ * {@code Platform::runLater} to draw them on the JavaFX application thread.
+ *
+ * <p>A pass is only delivered if its job is still active when the publisher runs it. If jobs are submitted and
+ * cancelled on the publishing thread, a cancelled job can therefore never deliver a stale pass.
+ *
+ * @see ProgressiveRender
+ */
+public class RenderService implements AutoCloseable {
+
+    /**
+     * The thread which drives the passes of the jobs one after another.
+     */
+    private final ExecutorService driver = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "noise-render");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * The executor which computes the rows of a pass.
+     */
+    private final Executor workers;
+
+    /**
+     * The executor which delivers the passes and errors.
+     */
+    private final Executor publisher;
+
+    /**
+     * The job which is currently rendered or {@code null} if there is none.
+     */
+    private @Nullable ProgressiveRender current = null;
+
+    /**
+     * Constructs a render service which computes the passes in the common fork/join pool.
+     *
+     * @param publisher the executor which delivers the passes and errors
+     */
+    public RenderService(Executor publisher) {
+        this(publisher, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructs a render service which computes the passes with the given workers.
+     *
+     * @param publisher the executor which delivers the passes and errors
+     * @param workers   the executor which computes the rows of a pass
+     */
+    public RenderService(Executor publisher, Executor workers) {
+        this.publisher = publisher;
+        this.workers = workers;
+    }
+
+    /**
+     * Cancels the current job and starts rendering the specified region of the noise progressively.
+     *
+     * @param noise       the noise to render
+     * @param colorMapper the mapper which maps a noise value to an ARGB pixel
+     * @param x           the x-coordinate of the starting point of the region
+     * @param y           the y-coordinate of the starting point of the region
+     * @param w           the width of the region
+     * @param h           the height of the region
+     * @param onPass      the consumer of the rendered passes, called by the publisher
+     * @param onError     the consumer of an error which aborted the job, called by the publisher
+     * @return the submitted job which can be cancelled
+     */
+    public synchronized ProgressiveRender submit(
+        GradientNoise noise,
+        DoubleToIntFunction colorMapper,
+        int x,
+        int y,
+        int w,
+        int h,
+        Consumer<ProgressiveRender.Pass> onPass,
+        Consumer<? super RuntimeException> onError
+    ) {
+        ProgressiveRender job = new ProgressiveRender(
+            noise, colorMapper, x, y, w, h, ProgressiveRender.DEFAULT_COARSEST_STEP, workers
+        );
+        return submit(job, onPass, onError);
+    }
+
+    /**
+     * Cancels the current job and starts rendering the given job.
+     *
+     * @param job     the job to render
+     * @param onPass  the consumer of the rendered passes, called by the publisher
+     * @param onError the consumer of an error which aborted the job, called by the publisher
+     * @return the submitted job which can be cancelled
+     */
+    public synchronized ProgressiveRender submit(
+        ProgressiveRender job,
+        Consumer<ProgressiveRender.Pass> onPass,
+        Consumer<? super RuntimeException> onError
+    ) {
+        cancel();
+        current = job;
+        driver.execute(() -> run(job, onPass, onError));
+        return job;
+    }
+
+    /**
+     * Renders the passes of the given job until it is finished or cancelled.
+     *
+     * @param job     the job to render
+     * @param onPass  the consumer of the rendered passes
+     * @param onError the consumer of an error which aborted the job
+     */
+    private void run(
+        ProgressiveRender job,
+        Consumer<ProgressiveRender.Pass> onPass,
+        Consumer<? super RuntimeException> onError
+    ) {
+        try {
+            while (job.hasNext()) {
+                ProgressiveRender.Pass pass = job.next();
+                publisher.execute(() -> {
+                    if (!job.isCancelled()) {
+                        onPass.accept(pass);
+                    }
+                });
+            }
+        } catch (CancellationException ignored) {
+            // A newer job replaced this one
+        } catch (RuntimeException e) {
+            publisher.execute(() -> {
+                if (!job.isCancelled()) {
+                    onError.accept(e);
+                }
+            });
+        }
+    }
+
+    /**
+     * Cancels the current job if there is one.
+     */
+    public synchronized void cancel() {
+        if (current != null) {
+            current.cancel();
+            current = null;
+        }
+    }
+
+    /**
+     * Cancels the current job and stops the background thread.
+     */
+    @Override
+    public void close() {
+        cancel();
+        driver.shutdown();
+    }
+}
@@ -0,0 +1,360 @@
+package h13.render;
+
+import h13.noise.GradientNoise;
+import h13.util.Cache;
+import h13.util.ConcurrentLRUCache;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.DoubleToIntFunction;
+
+/**
+ * A cache of rendered tiles of {@value #TILE_SIZE}×{@value #TILE_SIZE} pixels. A tile is identified by the
+ * specification of the rendered noise, its zoom level and its tile coordinates. Rendering a region only computes the
+ * parts of the tiles which were never rendered before, approximately the least recently used tiles are evicted if the
+ * capacity is exceeded. A tile cache can be used by several threads at once.
+ *
+ * <p>The parts of a tile which are rendered by different regions are merged into a new tile, so a tile which was
+ * rendered piece by piece, e.g. while panning, covers the union of its pieces. Cached tiles are never changed, a
+ * merge concurrent to another one of the same tile can lose the pixels of the other one, which are rendered again
+ * when they are requested the next time.
+ *
+ * <p>At zoom level {@code z} the pixel {@code (x, y)} shows the noise value at {@code (x * 2^z, y * 2^z)}. The colors of
+ * the tiles are not part of the key, so a tile cache must always be used with the same color mapper.
+ */
+public class TileCache {
+
+    /**
+     * The edge length of a tile in pixels.
+     */
+    public static final int TILE_SIZE = 256;
+
+    /**
+     * The default maximum number of tiles, which is 64 MiB of pixels.
+     */
+    public static final int DEFAULT_CAPACITY = 256;
+
+    /**
+     * The rendered tiles, which are read and written concurrently by the render workers.
+     */
+    private final Cache<Key, Tile> tiles;
+
+    /**
+     * The renderer which computes the missing tiles.
+     */
+    private final TileRenderer renderer;
+
+    /**
+     * Constructs a tile cache with the default capacity which renders the missing tiles in the common fork/join pool.
+     */
+    public TileCache() {
+        this(DEFAULT_CAPACITY, new TileRenderer());
+    }
+
+    /**
+     * Constructs a tile cache with the given capacity which renders the missing tiles with the given renderer.
+     *
+     * @param capacity the maximum number of tiles
+     * @param renderer the renderer which computes the missing tiles
+     */
+    public TileCache(int capacity, TileRenderer renderer) {
+        this.tiles = new ConcurrentLRUCache<>(capacity);
+        this.renderer = renderer;
+    }
+
+    /**
+     * Renders the specified region of the noise at the given zoom level and stores the pixels row-major in the given
+     * buffer. Cached tiles are copied, the missing parts are rendered in parallel and cached.
+     *
+     * @param spec        the specification of the noise, two noises with equal specifications must be equal
+     * @param noise       the noise to render
+     * @param colorMapper the mapper which maps a noise value to an ARGB pixel
+     * @param x           the x-coordinate of the starting point of the region at the zoom level
+     * @param y           the y-coordinate of the starting point of the region at the zoom level
+     * @param w           the width of the region
+     * @param h           the height of the region
+     * @param zoom        the zoom level, i.e. the binary logarithm of the distance between two rendered points
+     * @param pixels      the buffer to store the pixels in
+     * @param offset      the index of the buffer to store the pixel at {@code (x, y)} at
+     * @param stride      the distance between the starting indices of two consecutive rows in the buffer
+     * @throws IllegalArgumentException  if the width or height is negative, the stride is smaller than the width or
+     *                                   the zoom level is negative or exceeds 30
+     * @throws IndexOutOfBoundsException if the region does not fit into the buffer
+     */
+    public void render(
+        Object spec,
+        GradientNoise noise,
+        DoubleToIntFunction colorMapper,
+        int x,
+        int y,
+        int w,
+        int h,
+        int zoom,
+        int[] pixels,
+        int offset,
+        int stride
+    ) {
+        TileRenderer.checkRegion(w, h, pixels.length, offset, stride);
+        checkZoom(zoom);
+        List<CompletableFuture<Void>> missing = new ArrayList<>();
+        forEachTile(x, y, w, h, (tileX, tileY, fromX, fromY, toX, toY) -> {
+            Key key = new Key(spec, zoom, tileX, tileY);
+            Tile tile = get(key);
+            if (tile != null && tile.covers(fromX, fromY, toX, toY)) {
+                tile.copyTo(fromX, fromY, toX, toY, pixels, offset + (tileY * TILE_SIZE + fromY - y) * stride
+                    + tileX * TILE_SIZE + fromX - x, stride);
+                return;
+            }
+            missing.add(CompletableFuture.runAsync(() -> {
+                int originX = tileX * TILE_SIZE;
+                int originY = tileY * TILE_SIZE;
+                Tile rendered = new Tile(tile, fromX, fromY, toX, toY);
+                renderer.renderTile(
+                    noise, colorMapper, (originX + fromX) << zoom, (originY + fromY) << zoom,
+                    toX - fromX, toY - fromY, 1 << zoom, rendered.pixels, fromY * TILE_SIZE + fromX, TILE_SIZE
+                );
+                put(key, rendered);
+                rendered.copyTo(fromX, fromY, toX, toY, pixels, offset + (originY + fromY - y) * stride
+                    + originX + fromX - x, stride);
+            }, renderer.getExecutor()));
+        });
+        TileRenderer.join(missing);
+    }
+
+    /**
+     * Returns whether all pixels of the specified region are cached, i.e. whether rendering the region does not
+     * compute any noise value.
+     *
+     * @param spec the specification of the noise
+     * @param x    the x-coordinate of the starting point of the region at the zoom level
+     * @param y    the y-coordinate of the starting point of the region at the zoom level
+     * @param w    the width of the region
+     * @param h    the height of the region
+     * @param zoom the zoom level
+     * @return {@code true} if all pixels of the region are cached
+     */
+    public boolean contains(Object spec, int x, int y, int w, int h, int zoom) {
+        boolean[] contained = {true};
+        forEachTile(x, y, w, h, (tileX, tileY, fromX, fromY, toX, toY) -> {
+            Tile tile = contained[0] ? get(new Key(spec, zoom, tileX, tileY)) : null;
+            contained[0] = tile != null && tile.covers(fromX, fromY, toX, toY);
+        });
+        return contained[0];
+    }
+
+    /**
+     * Caches the pixels of the specified region which were rendered elsewhere, e.g. by a {@link ProgressiveRender}.
+     * Tiles which already cover their part of the region are kept, the pixels of the other tiles are merged.
+     *
+     * @param spec   the specification of the noise
+     * @param x      the x-coordinate of the starting point of the region at the zoom level
+     * @param y      the y-coordinate of the starting point of the region at the zoom level
+     * @param w      the width of the region
+     * @param h      the height of the region
+     * @param zoom   the zoom level
+     * @param pixels the rendered pixels of the region
+     * @param offset the index of the buffer of the pixel at {@code (x, y)}
+     * @param stride the distance between the starting indices of two consecutive rows in the buffer
+     */
+    public void store(Object spec, int x, int y, int w, int h, int zoom, int[] pixels, int offset, int stride) {
+        TileRenderer.checkRegion(w, h, pixels.length, offset, stride);
+        checkZoom(zoom);
+        forEachTile(x, y, w, h, (tileX, tileY, fromX, fromY, toX, toY) -> {
+            Key key = new Key(spec, zoom, tileX, tileY);
+            Tile tile = get(key);
+            if (tile != null && tile.covers(fromX, fromY, toX, toY)) {
+                return;
+            }
+            Tile stored = new Tile(tile, fromX, fromY, toX, toY);
+            int start = offset + (tileY * TILE_SIZE + fromY - y) * stride + tileX * TILE_SIZE + fromX - x;
+            for (int j = fromY; j < toY; j++) {
+                int from = start + (j - fromY) * stride;
+                System.arraycopy(pixels, from, stored.pixels, j * TILE_SIZE + fromX, toX - fromX);
+            }
+            put(key, stored);
+        });
+    }
+
+    /**
+     * Removes all tiles from this cache.
+     */
+    public void clear() {
+        tiles.clear();
+    }
+
+    /**
+     * Returns the number of cached tiles.
+     *
+     * @return the number of cached tiles
+     */
+    public int size() {
+        return tiles.size();
+    }
+
+    /**
+     * Returns the cached tile of the given key.
+     *
+     * @param key the key of the tile
+     * @return the cached tile or {@code null} if the tile is not cached
+     */
+    private @Nullable Tile get(Key key) {
+        return tiles.get(key);
+    }
+
+    /**
+     * Caches the given tile.
+     *
+     * @param key  the key of the tile
+     * @param tile the tile to cache
+     */
+    private void put(Key key, Tile tile) {
+        tiles.put(key, tile);
+    }
+
+    /**
+     * Calls the given action for every tile which intersects the specified region with the intersection relative to
+     * the origin of the tile.
+     *
+     * @param x      the x-coordinate of the starting point of the region
+     * @param y      the y-coordinate of the starting point of the region
+     * @param w      the width of the region
+     * @param h      the height of the region
+     * @param action the action to call
+     */
+    private static void forEachTile(int x, int y, int w, int h, TileAction action) {
+        if (w <= 0 || h <= 0) {
+            return;
+        }
+        for (int tileY = Math.floorDiv(y, TILE_SIZE); tileY <= Math.floorDiv(y + h - 1, TILE_SIZE); tileY++) {
+            for (int tileX = Math.floorDiv(x, TILE_SIZE); tileX <= Math.floorDiv(x + w - 1, TILE_SIZE); tileX++) {
+                int originX = tileX * TILE_SIZE;
+                int originY = tileY * TILE_SIZE;
+                action.accept(
+                    tileX, tileY,
+                    Math.max(x - originX, 0), Math.max(y - originY, 0),
+                    Math.min(x + w - originX, TILE_SIZE), Math.min(y + h - originY, TILE_SIZE)
+                );
+            }
+        }
+    }
+
+    /**
+     * Checks whether the given zoom level is valid.
+     *
+     * @param zoom the zoom level to check
+     * @throws IllegalArgumentException if the zoom level is negative or exceeds 30
+     */
+    private static void checkZoom(int zoom) {
+        if (zoom < 0 || zoom >= Integer.SIZE - 1) {
+            throw new IllegalArgumentException("Zoom level must be between 0 and 30");
+        }
+    }
+
+    /**
+     * An action on the intersection of a tile and a region.
+     */
+    @FunctionalInterface
+    private interface TileAction {
+
+        /**
+         * Performs the action on the intersection of a tile and a region.
+         *
+         * @param tileX the x-coordinate of the tile
+         * @param tileY the y-coordinate of the tile
+         * @param fromX the first x-coordinate of the intersection relative to the tile
+         * @param fromY the first y-coordinate of the intersection relative to the tile
+         * @param toX   the x-coordinate after the intersection relative to the tile
+         * @param toY   the y-coordinate after the intersection relative to the tile
+         */
+        void accept(int tileX, int tileY, int fromX, int fromY, int toX, int toY);
+    }
+
+    /**
+     * The key of a cached tile.
+     *
+     * @param spec  the specification of the rendered noise
+     * @param zoom  the zoom level of the tile
+     * @param tileX the x-coordinate of the tile
+     * @param tileY the y-coordinate of the tile
+     */
+    private record Key(Object spec, int zoom, int tileX, int tileY) {
+    }
+
+    /**
+     * A cached tile of which any set of pixels is rendered. The pixels of the given rectangle are written by the
+     * creator before the tile is cached and never changed afterwards.
+     */
+    private static final class Tile {
+
+        /**
+         * The pixels of the tile, the pixels which are not rendered are undefined.
+         */
+        private final int[] pixels = new int[TILE_SIZE * TILE_SIZE];
+
+        /**
+         * The rendered pixels of the tile in row-major order.
+         */
+        private final BitSet rendered;
+
+        /**
+         * Constructs a tile of which the given rectangle and the rendered pixels of the given previous tile are
+         * rendered. The pixels of the previous tile are copied, the pixels of the rectangle must be written by the
+         * creator.
+         *
+         * @param previous the previous tile whose rendered pixels are merged, or {@code null} if there is none
+         * @param fromX    the first rendered x-coordinate of the rectangle
+         * @param fromY    the first rendered y-coordinate of the rectangle
+         * @param toX      the x-coordinate after the rendered rectangle
+         * @param toY      the y-coordinate after the rendered rectangle
+         */
+        private Tile(@Nullable Tile previous, int fromX, int fromY, int toX, int toY) {
+            if (previous != null) {
+                System.arraycopy(previous.pixels, 0, pixels, 0, pixels.length);
+                this.rendered = (BitSet) previous.rendered.clone();
+            } else {
+                this.rendered = new BitSet(TILE_SIZE * TILE_SIZE);
+            }
+            for (int j = fromY; j < toY; j++) {
+                rendered.set(j * TILE_SIZE + fromX, j * TILE_SIZE + toX);
+            }
+        }
+
+        /**
+         * Returns whether all pixels of the given rectangle are rendered.
+         *
+         * @param fromX the first x-coordinate of the rectangle
+         * @param fromY the first y-coordinate of the rectangle
+         * @param toX   the x-coordinate after the rectangle
+         * @param toY   the y-coordinate after the rectangle
+         * @return {@code true} if the rectangle is rendered
+         */
+        private boolean covers(int fromX, int fromY, int toX, int toY) {
+            for (int j = fromY; j < toY; j++) {
+                if (rendered.nextClearBit(j * TILE_SIZE + fromX) < j * TILE_SIZE + toX) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Copies the given rectangle of this tile into the given buffer.
+         *
+         * @param fromX  the first x-coordinate of the rectangle
+         * @param fromY  the first y-coordinate of the rectangle
+         * @param toX    the x-coordinate after the rectangle
+         * @param toY    the y-coordinate after the rectangle
+         * @param buffer the buffer to copy the pixels into
+         * @param offset the index of the buffer to copy the pixel at {@code (fromX, fromY)} to
+         * @param stride the distance between the starting indices of two consecutive rows in the buffer
+         */
+        private void copyTo(int fromX, int fromY, int toX, int toY, int[] buffer, int offset, int stride) {
+            for (int j = fromY; j < toY; j++) {
+                System.arraycopy(pixels, j * TILE_SIZE + fromX, buffer, offset + (j - fromY) * stride, toX - fromX);
+            }
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package h13.render;
+
+import h13.noise.GradientNoise;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.DoubleToIntFunction;
+
+/**
+ * A renderer that maps the values of a {@link GradientNoise} to ARGB pixels. The region to render is split into
+ * square tiles which are rendered in parallel by an executor, each tile is evaluated row by row with the bulk row
+ * evaluation of the noise.
+ *
+ * <p>The renderer does not depend on a UI toolkit, so it can be used for displaying and exporting images alike. If the
+ * color mapper is a {@link Palette}, whole rows are mapped at once through its lookup table.
+ */
+public class TileRenderer {
+
+    /**
+     * The default edge length of a tile in pixels.
+     */
+    public static final int DEFAULT_TILE_SIZE = 128;
+
+    /**
+     * The executor which renders the tiles.
+     */
+    private final Executor executor;
+
+    /**
+     * The edge length of a tile in pixels.
+     */
+    private final int tileSize;
+
+    /**
+     * Constructs a tile renderer which renders tiles with the default size in the common fork/join pool.
+     */
+    public TileRenderer() {
+        this(ForkJoinPool.commonPool(), DEFAULT_TILE_SIZE);
+    }
+
+    /**
+     * Constructs a tile renderer which renders tiles with the given size using the given executor.
+     *
+     * @param executor the executor which renders the tiles
+     * @param tileSize the edge length of a tile in pixels
+     * @throws IllegalArgumentException if the tile size is not positive
+     */
+    public TileRenderer(Executor executor, int tileSize) {
+        if (tileSize <= 0) {
+            throw new IllegalArgumentException("Tile size must be positive");
+        }
+        this.executor = executor;
+        this.tileSize = tileSize;
+    }
+
+    /**
+     * Renders the specified region of the noise and stores the pixels row-major in the given buffer, i.e. the pixel of
+     * the noise value at {@code (x + i, y + j)} is stored at {@code pixels[offset + j * stride + i]}. This method
+     * blocks until all tiles are rendered.
+     *
+     * @param noise       the noise to render
+     * @param colorMapper the mapper which maps a noise value to an ARGB pixel
+     * @param x           the x-coordinate of the starting point of the region
+     * @param y           the y-coordinate of the starting point of the region
+     * @param w           the width of the region
+     * @param h           the height of the region
+     * @param pixels      the buffer to store the pixels in
+     * @param offset      the index of the buffer to store the pixel at {@code (x, y)} at
+     * @param stride      the distance between the starting indices of two consecutive rows in the buffer
+     * @throws IllegalArgumentException  if the width or height is negative or the stride is smaller than the width
+     * @throws IndexOutOfBoundsException if the region does not fit into the buffer
+     */
+    public void render(
+        GradientNoise noise,
+        DoubleToIntFunction colorMapper,
+        int x,
+        int y,
+        int w,
+        int h,
+        int[] pixels,
+        int offset,
+        int stride
+    ) {
+        checkRegion(w, h, pixels.length, offset, stride);
+        List<CompletableFuture<Void>> tiles = new ArrayList<>();
+        for (int ty = 0; ty < h; ty += tileSize) {
+            for (int tx = 0; tx < w; tx += tileSize) {
+                int tileX = tx;
+                int tileY = ty;
+                int tileW = Math.min(tileSize, w - tx);
+                int tileH = Math.min(tileSize, h - ty);
+                tiles.add(CompletableFuture.runAsync(
+                    () -> renderTile(
+                        noise, colorMapper, x + tileX, y + tileY, tileW, tileH,
+                        pixels, offset + tileY * stride + tileX, stride
+                    ),
+                    executor
+                ));
+            }
+        }
+        join(tiles);
+    }
+
+    /**
+     * Waits until all given tasks are completed. If a task failed with a runtime exception, the exception is rethrown.
+     *
+     * @param tasks the tasks to wait for
+     */
+    static void join(List<CompletableFuture<Void>> tasks) {
+        try {
+            CompletableFuture.allOf(tasks.toArray(CompletableFuture[]::new)).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Renders a single tile of the noise on the calling thread and stores the pixels row-major in the given buffer.
+     *
+     * @param noise       the noise to render
+     * @param colorMapper the mapper which maps a noise value to an ARGB pixel
+     * @param x           the x-coordinate of the starting point of the tile
+     * @param y           the y-coordinate of the starting point of the tile
+     * @param w           the width of the tile
+     * @param h           the height of the tile
+     * @param pixels      the buffer to store the pixels in
+     * @param offset      the index of the buffer to store the pixel at {@code (x, y)} at
+     * @param stride      the distance between the starting indices of two consecutive rows in the buffer
+     * @see #render(GradientNoise, DoubleToIntFunction, int, int, int, int, int[], int, int)
+     */
+    public void renderTile(
+        GradientNoise noise,
+        DoubleToIntFunction colorMapper,
+        int x,
+        int y,
+        int w,
+        int h,
+        int[] pixels,
+        int offset,
+        int stride
+    ) {
+        renderTile(noise, colorMapper, x, y, w, h, 1, pixels, offset, stride);
+    }
+
+    /**
+     * Renders a single tile of every {@code step}-th point of the noise on the calling thread and stores the pixels
+     * row-major in the given buffer, i.e. the pixel of the noise value at {@code (x + i * step, y + j * step)} is
+     * stored at {@code pixels[offset + j * stride + i]}.
+     *
+     * @param noise       the noise to render
+     * @param colorMapper the mapper which maps a noise value to an ARGB pixel
+     * @param x           the x-coordinate of the starting point of the tile
+     * @param y           the y-coordinate of the starting point of the tile
+     * @param w           the number of pixels of a row of the tile
+     * @param h           the number of rows of the tile
+     * @param step        the distance between two consecutive points of the noise
+     * @param pixels      the buffer to store the pixels in
+     * @param offset      the index of the buffer to store the pixel at {@code (x, y)} at
+     * @param stride      the distance between the starting indices of two consecutive rows in the buffer
+     * @see GradientNoise#computeStridedRow(int, int, int, int, float[], int)
+     */
+    public void renderTile(
+        GradientNoise noise,
+        DoubleToIntFunction colorMapper,
+        int x,
+        int y,
+        int w,
+        int h,
+        int step,
+        int[] pixels,
+        int offset,
+        int stride
+    ) {
+        float[] values = new float[w];
+        for (int j = 0; j < h; j++) {
+            if (step == 1) {
+                noise.computeRow(x, y + j, w, values, 0);
+            } else {
+                noise.computeStridedRow(x, y + j * step, w, step, values, 0);
+            }
+            int start = offset + j * stride;
+            if (colorMapper instanceof Palette palette) {
+                palette.map(values, 0, pixels, start, w);
+            } else {
+                for (int i = 0; i < w; i++) {
+                    pixels[start + i] = colorMapper.applyAsInt(values[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the executor which renders the tiles.
+     *
+     * @return the executor which renders the tiles
+     */
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Returns the edge length of a tile in pixels.
+     *
+     * @return the edge length of a tile in pixels
+     */
+    public int getTileSize() {
+        return tileSize;
+    }
+
+    /**
+     * Checks whether a region with the given size fits into a row-major buffer.
+     *
+     * @param w      the width of the region
+     * @param h      the height of the region
+     * @param length the length of the buffer
+     * @param offset the index of the buffer to store the first pixel at
+     * @param stride the distance between the starting indices of two consecutive rows in the buffer
+     * @throws IllegalArgumentException  if the width or height is negative or the stride is smaller than the width
+     * @throws IndexOutOfBoundsException if the region does not fit into the buffer
+     */
+    static void checkRegion(int w, int h, int length, int offset, int stride) {
+        if (w < 0 || h < 0) {
+            throw new IllegalArgumentException("Width and height cannot be negative");
+        }
+        if (stride < w) {
+            throw new IllegalArgumentException("Stride cannot be smaller than the width");
+        }
+        if (w > 0 && h > 0) {
+            Objects.checkFromIndexSize(offset, (long) (h - 1) * stride + w, length);
+        }
+    }
+}
@@ -0,0 +1,357 @@
+package h13.render;
+
+import h13.noise.GradientNoise;
+
+import java.util.concurrent.Executor;
+import java.util.function.DoubleToIntFunction;
+
+/**
+ * A movable and zoomable window into a rendered noise. The viewport keeps the pixels of its current frame, so panning
+ * only shifts the existing pixels and renders the newly exposed strips. Zooming shows an interim frame which is
+ * resampled from the previous frame until the new zoom level is rendered, see {@link #refinement(Executor)}.
+ *
+ * <p>All pixels are rendered through a {@link TileCache}, so every zoom level of the cache forms one level of an image
+ * pyramid. The noise domain starts at the origin, hence the viewport cannot be moved to negative coordinates.
+ */
+public class Viewport {
+
+    /**
+     * The maximum zoom level, at which a pixel shows every 256th point of the noise.
+     */
+    public static final int MAX_ZOOM = 8;
+
+    /**
+     * The cache which renders the pixels.
+     */
+    private final TileCache cache;
+
+    /**
+     * The specification of the noise.
+     */
+    private final Object spec;
+
+    /**
+     * The noise to render.
+     */
+    private final GradientNoise noise;
+
+    /**
+     * The mapper which maps a noise value to an ARGB pixel.
+     */
+    private final DoubleToIntFunction colorMapper;
+
+    /**
+     * The width of the viewport.
+     */
+    private final int width;
+
+    /**
+     * The height of the viewport.
+     */
+    private final int height;
+
+    /**
+     * The pixels of the current frame stored row-major.
+     */
+    private int[] pixels;
+
+    /**
+     * The x-coordinate of the upper left pixel at the zoom level.
+     */
+    private int x;
+
+    /**
+     * The y-coordinate of the upper left pixel at the zoom level.
+     */
+    private int y;
+
+    /**
+     * The current zoom level.
+     */
+    private int zoom;
+
+    /**
+     * Whether all pixels of the current frame are rendered at the current position and zoom level.
+     */
+    private boolean exact = false;
+
+    /**
+     * Constructs a viewport of the given size at the given position whose pixels are not rendered yet.
+     *
+     * @param cache       the cache which renders the pixels
+     * @param spec        the specification of the noise
+     * @param noise       the noise to render
+     * @param colorMapper the mapper which maps a noise value to an ARGB pixel
+     * @param x           the x-coordinate of the upper left pixel at the zoom level
+     * @param y           the y-coordinate of the upper left pixel at the zoom level
+     * @param zoom        the zoom level
+     * @param width       the width of the viewport
+     * @param height      the height of the viewport
+     * @throws IllegalArgumentException if the size is not positive, the position is negative or the zoom level is out
+     *                                  of range
+     */
+    public Viewport(
+        TileCache cache,
+        Object spec,
+        GradientNoise noise,
+        DoubleToIntFunction colorMapper,
+        int x,
+        int y,
+        int zoom,
+        int width,
+        int height
+    ) {
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("Width and height must be positive");
+        }
+        if (x < 0 || y < 0) {
+            throw new IllegalArgumentException("Position cannot be negative");
+        }
+        if (zoom < 0 || zoom > MAX_ZOOM) {
+            throw new IllegalArgumentException("Zoom level must be between 0 and " + MAX_ZOOM);
+        }
+        this.cache = cache;
+        this.spec = spec;
+        this.noise = noise;
+        this.colorMapper = colorMapper;
+        this.x = x;
+        this.y = y;
+        this.zoom = zoom;
+        this.width = width;
+        this.height = height;
+        this.pixels = new int[width * height];
+    }
+
+    /**
+     * Renders all pixels of the current frame on the calling thread. Only the pixels which are not cached are
+     * computed.
+     */
+    public void render() {
+        cache.render(spec, noise, colorMapper, x, y, width, height, zoom, pixels, 0, width);
+        exact = true;
+    }
+
+    /**
+     * Returns whether all pixels of the current frame are cached, i.e. whether {@link #render()} does not compute any
+     * noise value.
+     *
+     * @return {@code true} if all pixels of the current frame are cached
+     */
+    public boolean isCached() {
+        return cache.contains(spec, x, y, width, height, zoom);
+    }
+
+    /**
+     * Moves the content of the viewport by the given distance, e.g. dragging the content to the right moves the
+     * viewport to the left. The existing pixels are shifted and only the newly exposed strips are rendered on the
+     * calling thread. The viewport stops at the origin of the noise domain.
+     *
+     * @param dx the distance to move the content to the right
+     * @param dy the distance to move the content down
+     */
+    public void pan(int dx, int dy) {
+        dx = x - Math.max(x - dx, 0);
+        dy = y - Math.max(y - dy, 0);
+        if (dx == 0 && dy == 0) {
+            return;
+        }
+        x -= dx;
+        y -= dy;
+        if (Math.abs(dx) >= width || Math.abs(dy) >= height) {
+            render();
+            return;
+        }
+        shift(dx, dy);
+        // The exposed rows span the whole width, the exposed columns only the remaining rows
+        int rowsFrom = dy > 0 ? 0 : height + dy;
+        int columnsFrom = dx > 0 ? 0 : width + dx;
+        int remainingFrom = dy > 0 ? dy : 0;
+        int remaining = height - Math.abs(dy);
+        renderRegion(0, rowsFrom, width, Math.abs(dy));
+        renderRegion(columnsFrom, remainingFrom, Math.abs(dx), remaining);
+    }
+
+    /**
+     * Changes the zoom level by the given number of levels while the given pixel keeps showing the same point of the
+     * noise. If the new zoom level is cached, it is rendered immediately, otherwise the previous frame is resampled as
+     * an interim frame.
+     *
+     * @param levels  the number of levels to zoom out, negative to zoom in
+     * @param anchorX the x-coordinate of the pixel to keep in the viewport
+     * @param anchorY the y-coordinate of the pixel to keep in the viewport
+     * @return {@code true} if the zoom level changed
+     */
+    public boolean zoom(int levels, int anchorX, int anchorY) {
+        int newZoom = Math.min(Math.max(zoom + levels, 0), MAX_ZOOM);
+        if (newZoom == zoom) {
+            return false;
+        }
+        // The anchor in noise coordinates, which does not change
+        long noiseX = (long) (x + anchorX) << zoom;
+        long noiseY = (long) (y + anchorY) << zoom;
+        int newX = (int) Math.max((noiseX >> newZoom) - anchorX, 0);
+        int newY = (int) Math.max((noiseY >> newZoom) - anchorY, 0);
+
+        int[] interim = new int[width * height];
+        for (int j = 0; j < height; j++) {
+            long sourceY = ((long) (newY + j) << newZoom >> zoom) - y;
+            if (sourceY < 0 || sourceY >= height) {
+                continue;
+            }
+            for (int i = 0; i < width; i++) {
+                long sourceX = ((long) (newX + i) << newZoom >> zoom) - x;
+                if (sourceX >= 0 && sourceX < width) {
+                    interim[j * width + i] = pixels[(int) sourceY * width + (int) sourceX];
+                }
+            }
+        }
+        pixels = interim;
+        x = newX;
+        y = newY;
+        zoom = newZoom;
+        exact = false;
+        if (isCached()) {
+            render();
+        }
+        return true;
+    }
+
+    /**
+     * Returns a single pass rendering of the current frame which replaces an interim frame, the rendered pass can be
+     * applied with {@link #update(int, int, int, int[])}.
+     *
+     * @param executor the executor which computes the rows of the frame
+     * @return a single pass rendering of the current frame
+     */
+    public ProgressiveRender refinement(Executor executor) {
+        return new ProgressiveRender(noise, colorMapper, x, y, width, height, zoom, 1, executor);
+    }
+
+    /**
+     * Replaces the current frame with the given pixels which were rendered elsewhere and caches them. The pixels are
+     * ignored if the viewport moved since the rendering started.
+     *
+     * @param x      the x-coordinate of the upper left rendered pixel at the zoom level
+     * @param y      the y-coordinate of the upper left rendered pixel at the zoom level
+     * @param zoom   the zoom level of the rendered pixels
+     * @param pixels the rendered pixels of the whole frame stored row-major
+     * @return {@code true} if the current frame was replaced
+     */
+    public boolean update(int x, int y, int zoom, int[] pixels) {
+        if (x != this.x || y != this.y || zoom != this.zoom || pixels.length != this.pixels.length) {
+            return false;
+        }
+        System.arraycopy(pixels, 0, this.pixels, 0, pixels.length);
+        cache.store(spec, x, y, width, height, zoom, pixels, 0, width);
+        exact = true;
+        return true;
+    }
+
+    /**
+     * Shifts the pixels of the current frame by the given distance, which must be smaller than the size.
+     *
+     * @param dx the distance to shift the pixels to the right
+     * @param dy the distance to shift the pixels down
+     */
+    private void shift(int dx, int dy) {
+        int length = width - Math.abs(dx);
+        int from = Math.max(-dx, 0);
+        int to = Math.max(dx, 0);
+        // Rows are copied in the opposite direction of the shift, so no row is overwritten before it is copied
+        if (dy > 0) {
+            for (int j = height - 1; j >= dy; j--) {
+                System.arraycopy(pixels, (j - dy) * width + from, pixels, j * width + to, length);
+            }
+        } else {
+            for (int j = 0; j < height + dy; j++) {
+                System.arraycopy(pixels, (j - dy) * width + from, pixels, j * width + to, length);
+            }
+        }
+    }
+
+    /**
+     * Renders the given region of the current frame.
+     *
+     * @param left the first column of the region
+     * @param top  the first row of the region
+     * @param w    the width of the region
+     * @param h    the height of the region
+     */
+    private void renderRegion(int left, int top, int w, int h) {
+        if (w > 0 && h > 0) {
+            cache.render(spec, noise, colorMapper, x + left, y + top, w, h, zoom, pixels, top * width + left, width);
+        }
+    }
+
+    /**
+     * Returns the specification of the rendered noise.
+     *
+     * @return the specification of the rendered noise
+     */
+    public Object getSpec() {
+        return spec;
+    }
+
+    /**
+     * Returns the pixels of the current frame stored row-major.
+     *
+     * @return the pixels of the current frame
+     */
+    public int[] getPixels() {
+        return pixels;
+    }
+
+    /**
+     * Returns whether all pixels of the current frame are rendered at the current position and zoom level.
+     *
+     * @return {@code true} if the current frame is not an interim frame
+     */
+    public boolean isExact() {
+        return exact;
+    }
+
+    /**
+     * Returns the x-coordinate of the upper left pixel at the current zoom level.
+     *
+     * @return the x-coordinate of the upper left pixel
+     */
+    public int getX() {
+        return x;
+    }
+
+    /**
+     * Returns the y-coordinate of the upper left pixel at the current zoom level.
+     *
+     * @return the y-coordinate of the upper left pixel
+     */
+    public int getY() {
+        return y;
+    }
+
+    /**
+     * Returns the current zoom level.
+     *
+     * @return the current zoom level
+     */
+    public int getZoom() {
+        return zoom;
+    }
+
+    /**
+     * Returns the width of the viewport.
+     *
+     * @return the width of the viewport
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Returns the height of the viewport.
+     *
+     * @return the height of the viewport
+     */
+    public int getHeight() {
+        return height;
+    }
+}
@@ -1,6 +1,8 @@
 package h13.ui.app;
 
 import h13.noise.PerlinNoise;
+import h13.render.ColorScheme;
+import h13.render.Palette;
 import javafx.scene.paint.Color;
 
 import java.util.function.DoubleFunction;
@@ -15,7 +17,7 @@ enum Coloring {
     /**
      * A simple coloring which contains only water and land.
      */
-    SIMPLE(value -> {
+    SIMPLE(ColorScheme.SIMPLE, value -> {
         if (value <= 0.5) {
             // Water color (blue)
             return Color.color(0, 0f, value * 2f);
@@ -28,7 +30,7 @@ enum Coloring {
     /**
      * A coloring which contains water, land, mountain and snow.
      */
-    MOUNTAIN(value -> {
+    MOUNTAIN(ColorScheme.MOUNTAIN, value -> {
         if (value < 0.45) {
             // Water color (blue)
             return Color.color(0, 0f, value * 2f);
@@ -51,12 +53,19 @@ enum Coloring {
      */
     private final DoubleFunction<Color> mapper;
 
+    /**
+     * The color scheme which maps the noise value to the same colors as premultiplied ARGB pixels.
+     */
+    private final ColorScheme scheme;
+
     /**
      * Constructs a coloring scheme with the given mapper.
      *
+     * @param scheme the color scheme which maps the noise value to the same colors as premultiplied ARGB pixels
      * @param mapper the mapper which maps the noise value to a color
      */
-    Coloring(DoubleFunction<Color> mapper) {
+    Coloring(ColorScheme scheme, DoubleFunction<Color> mapper) {
+        this.scheme = scheme;
         this.mapper = mapper;
     }
 
@@ -69,4 +78,15 @@ enum Coloring {
         return mapper;
     }
 
+    /**
+     * Returns the lookup table of the color scheme which maps the noise value to a premultiplied ARGB pixel without
+     * allocating a color.
+     *
+     * @return the lookup table of the color scheme
+     * @see ColorScheme#getPalette()
+     */
+    public Palette getPalette() {
+        return scheme.getPalette();
+    }
+
 }
@@ -8,6 +8,7 @@ import h13.ui.layout.AlgorithmView;
 import h13.ui.layout.ChooserView;
 import h13.ui.layout.ParameterView;
 import h13.ui.layout.SettingsView;
+import h13.util.CacheStatsBean;
 import javafx.application.Application;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
@@ -22,6 +23,9 @@ import javafx.stage.Screen;
 import javafx.stage.Stage;
 import javafx.util.Pair;
 
+import javax.management.ObjectName;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -67,6 +71,12 @@ public class PerlinNoiseApp extends Application {
         HEADER = Font.font(font.getName(), FontWeight.BOLD, font.getSize() * 1.25);
     }
 
+    /**
+     * The names of the registered statistics beans of the noise caches, which are unregistered when the application
+     * stops.
+     */
+    private final List<ObjectName> statsBeans = new ArrayList<>();
+
     @Override
     public void start(Stage primaryStage) {
         primaryStage.setTitle("Perlin Noise");
@@ -138,7 +148,11 @@ public class PerlinNoiseApp extends Application {
         AlgorithmView root = new AlgorithmView(
             new BorderPane(),
             settings,
-            (o, p) -> new PerlinNoiseViewModel(o, p, COLORING.getMapper(), 10),
+            (o, p) -> {
+                PerlinNoiseViewModel viewModel = new PerlinNoiseViewModel(o, p, COLORING.getMapper(), 10);
+                statsBeans.addAll(viewModel.registerStats());
+                return viewModel;
+            },
             view -> {
                 view.getView().setPadding(PADDING);
             }
@@ -156,4 +170,10 @@ public class PerlinNoiseApp extends Application {
 
         primaryStage.show();
     }
+
+    @Override
+    public void stop() {
+        statsBeans.forEach(CacheStatsBean::unregister);
+        statsBeans.clear();
+    }
 }
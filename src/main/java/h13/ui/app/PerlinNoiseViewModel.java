@@ -7,12 +7,15 @@ import h13.noise.SimplePerlinNoise;
 import h13.ui.layout.AlgorithmView;
 import h13.ui.layout.AlgorithmViewModel;
 import h13.util.Cache;
-import h13.util.LRUCache;
+import h13.util.CacheStatsBean;
+import h13.util.ConcurrentLRUCache;
 import javafx.beans.property.BooleanProperty;
 import javafx.beans.property.Property;
 import javafx.scene.paint.Color;
 import org.jetbrains.annotations.Nullable;
 
+import javax.management.ObjectName;
+import java.util.List;
 import java.util.Map;
 import java.util.Random;
 import java.util.function.DoubleFunction;
@@ -49,6 +52,14 @@ public class PerlinNoiseViewModel extends AlgorithmViewModel {
         184, 84, 204, 176, 115, 121, 50, 45, 127, 4, 150, 254, 138, 236, 205, 93,
         222, 114, 67, 29, 24, 72, 243, 141, 128, 195, 78, 66, 215, 61, 156, 180};
 
+    /**
+     * The maximum estimated memory in bytes retained by each of the noise caches, an eighth of the maximum heap size,
+     * so browsing seeds of large noise domains cannot exhaust the heap regardless of the cache size.
+     *
+     * @see PerlinNoise#estimatedSize()
+     */
+    private static final long CACHE_BYTES = Runtime.getRuntime().maxMemory() / 8;
+
     /**
      * The cache for the {@link SimplePerlinNoise} algorithm used to improve performance when accessing the same
      * algorithm multiple times.
@@ -69,6 +80,8 @@ public class PerlinNoiseViewModel extends AlgorithmViewModel {
      * @param parameters the parameters to handle
      * @param color      the color function to use
      * @param cacheSize  the size of the cache used to improve performance when accessing the same algorithm multiple
+     *                   times, the caches are additionally limited to {@link #CACHE_BYTES} of estimated memory each
+     *                   and record statistics which can be exposed by {@link #registerStats()}
      */
     public PerlinNoiseViewModel(
         Map<String, BooleanProperty> options,
@@ -77,8 +90,34 @@ public class PerlinNoiseViewModel extends AlgorithmViewModel {
         int cacheSize
     ) {
         super(options, parameters, color);
-        this.cacheSimpleNoise = new LRUCache<>(cacheSize);
-        this.cacheImprovedNoise = new LRUCache<>(cacheSize);
+        this.cacheSimpleNoise = new ConcurrentLRUCache<>(
+            cacheSize,
+            CACHE_BYTES,
+            (seed, noise) -> noise.estimatedSize(),
+            true
+        );
+        // The key is retained as well
+        this.cacheImprovedNoise = new ConcurrentLRUCache<>(
+            cacheSize,
+            CACHE_BYTES,
+            (noise, improved) -> noise.estimatedSize() + improved.estimatedSize(),
+            true
+        );
+    }
+
+    /**
+     * Registers the statistics of the noise caches as {@link CacheStatsBean}s named {@code simple-noise} and
+     * {@code improved-noise}, replacing the beans of another view model. The beans keep this view model's caches
+     * reachable, so the caller must unregister them when this view model is no longer used.
+     *
+     * @return the names of the registered beans
+     * @see CacheStatsBean#unregister(ObjectName)
+     */
+    public List<ObjectName> registerStats() {
+        return List.of(
+            CacheStatsBean.register("simple-noise", cacheSimpleNoise),
+            CacheStatsBean.register("improved-noise", cacheImprovedNoise)
+        );
     }
 
     /**
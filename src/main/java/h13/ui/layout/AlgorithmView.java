@@ -65,6 +65,7 @@ public class AlgorithmView extends AbstractView<AlgorithmView, BorderPane> imple
         root.setRight(settings.getView());
         initializeButtons();
         initializeSize();
+        initializeNavigation();
     }
 
     /**
@@ -75,10 +76,17 @@ public class AlgorithmView extends AbstractView<AlgorithmView, BorderPane> imple
         // H5.2
         Button generate = settings.getGenerate();
 
-        int width = (int)visualization.getWidth();
-        int height = (int)visualization.getHeight();
-
-        generate.setOnAction(event -> viewModel.draw(viewModel.getAlgorithm(), visualization.getGraphicsContext2D(), 0, 0, width, height));
+        generate.setOnAction(event -> {
+            // Die Größe der Leinwand erst beim Drücken auslesen
+            int width = (int) visualization.getWidth();
+            int height = (int) visualization.getHeight();
+            GraphicsContext context = visualization.getGraphicsContext2D();
+            if (viewModel.isProgressive()) {
+                viewModel.drawProgressive(viewModel.getAlgorithm(), context, 0, 0, width, height);
+            } else {
+                viewModel.draw(viewModel.getAlgorithm(), context, 0, 0, width, height);
+            }
+        });
     }
 
     /**
@@ -94,6 +102,36 @@ public class AlgorithmView extends AbstractView<AlgorithmView, BorderPane> imple
         save.setOnAction(event -> viewModel.save(width, height));
     }
 
+    /**
+     * Initializes the navigation on the canvas: dragging with the mouse moves the image and scrolling zooms in or out
+     * around the mouse position.
+     */
+    protected void initializeNavigation() {
+        // The last mouse position which was used to move the image
+        double[] last = new double[2];
+        visualization.setOnMousePressed(event -> {
+            last[0] = event.getX();
+            last[1] = event.getY();
+        });
+        visualization.setOnMouseDragged(event -> {
+            int dx = (int) (event.getX() - last[0]);
+            int dy = (int) (event.getY() - last[1]);
+            if (dx == 0 && dy == 0) {
+                return;
+            }
+            last[0] += dx;
+            last[1] += dy;
+            viewModel.pan(visualization.getGraphicsContext2D(), dx, dy);
+        });
+        visualization.setOnScroll(event -> {
+            if (event.getDeltaY() == 0) {
+                return;
+            }
+            int levels = event.getDeltaY() > 0 ? -1 : 1;
+            viewModel.zoom(visualization.getGraphicsContext2D(), levels, (int) event.getX(), (int) event.getY());
+        });
+    }
+
     /**
      * Returns the canvas for visualizing the algorithm.
      *
@@ -1,24 +1,39 @@
 package h13.ui.layout;
 
+import h13.noise.FractalPerlinNoise;
 import h13.noise.ImprovedPerlinNoise;
+import h13.noise.NoiseSpec;
+import h13.noise.NormalizedPerlinNoise;
 import h13.noise.PerlinNoise;
+import h13.render.Palette;
+import h13.render.PngWriter;
+import h13.render.ProgressiveRender;
+import h13.render.RenderService;
+import h13.render.TileCache;
+import h13.render.TileRenderer;
+import h13.render.Viewport;
+import javafx.application.Platform;
 import javafx.beans.property.BooleanProperty;
 import javafx.beans.property.Property;
-import javafx.embed.swing.SwingFXUtils;
-import javafx.scene.SnapshotParameters;
 import javafx.scene.canvas.Canvas;
 import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.control.Alert;
+import javafx.scene.control.TextInputDialog;
 import javafx.scene.image.Image;
+import javafx.scene.image.PixelFormat;
 import javafx.scene.image.PixelWriter;
 import javafx.scene.image.WritableImage;
 import javafx.scene.paint.Color;
 import javafx.stage.FileChooser;
 import org.jetbrains.annotations.Nullable;
 
-import javax.imageio.ImageIO;
+import java.io.BufferedOutputStream;
 import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
 import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.Callable;
 import java.util.function.DoubleFunction;
 import java.util.function.Function;
@@ -37,6 +52,12 @@ import static org.tudalgo.algoutils.student.Student.crash;
  */
 public abstract class AlgorithmViewModel {
 
+    /**
+     * The tolerance of fractal algorithms, which skips the octaves that cannot change an 8-bit pixel by more than one
+     * step.
+     */
+    private static final double PIXEL_TOLERANCE = FractalPerlinNoise.quantizationTolerance(8);
+
     /**
      * The available algorithm to choose from.
      */
@@ -48,15 +69,56 @@ public abstract class AlgorithmViewModel {
     protected final Map<String, Property<Number>> parameters;
 
     /**
-     * The color mapper for mapping the noise value to a color.
+     * The lookup table of the color mapper for mapping the noise value to a premultiplied ARGB pixel.
      */
-    private final DoubleFunction<Color> colorMapper;
+    private final Palette palette;
 
     /**
      * The last algorithm that was used to draw the image.
      */
     protected @Nullable PerlinNoise lastAlgorithm = null;
 
+    /**
+     * Whether the images are computed with single precision.
+     */
+    private boolean singlePrecision = true;
+
+    /**
+     * The service which renders the progressive images in the background.
+     */
+    private final RenderService renderService = new RenderService(Platform::runLater);
+
+    /**
+     * The viewport of the last progressively drawn image which can be moved and zoomed, {@code null} if there is none.
+     */
+    private @Nullable Viewport viewport = null;
+
+    /**
+     * Whether the images are drawn progressively from coarse to fine.
+     */
+    private boolean progressive = true;
+
+    /**
+     * The last algorithm that was converted to compute the images with.
+     */
+    private @Nullable PerlinNoise singlePrecisionSource = null;
+
+    /**
+     * The version of {@link #singlePrecisionSource} which computes the images.
+     */
+    private @Nullable PerlinNoise singlePrecisionAlgorithm = null;
+
+    /**
+     * The renderer which computes the pixels of the images.
+     */
+    private TileRenderer renderer = new TileRenderer();
+
+    /**
+     * The rendered tiles of the algorithms, so redrawing an algorithm only computes the pixels which were never
+     * rendered.
+     */
+    private TileCache tileCache = new TileCache(TileCache.DEFAULT_CAPACITY, renderer);
+
     /**
      * Creates a new algorithm view model with the given options, parameters and color mapper.
      *
@@ -71,7 +133,10 @@ public abstract class AlgorithmViewModel {
     ) {
         this.options = options;
         this.parameters = parameters;
-        this.colorMapper = colorMapper;
+        this.palette = new Palette(value -> toArgb(colorMapper.apply(value)));
+        // A running rendering is outdated as soon as the configuration changes
+        options.values().forEach(option -> option.addListener((observable, oldValue, newValue) -> cancel()));
+        parameters.values().forEach(parameter -> parameter.addListener((observable, oldValue, newValue) -> cancel()));
     }
 
     /**
@@ -114,6 +179,182 @@ public abstract class AlgorithmViewModel {
 
     }
 
+    /**
+     * Draws the given algorithm progressively on the given graphics context at the given position and size. The image
+     * is rendered in the background, starting with a preview with 1/8 of the resolution which is refined until the
+     * full resolution is reached. Each pass is drawn on the JavaFX application thread as soon as it is rendered. A
+     * previous rendering which is still running is cancelled and none of its passes will be drawn anymore. The
+     * algorithm will be normalized if it is not already normalized. If the given algorithm is {@code null}, nothing
+     * will be drawn.
+     *
+     * @param algorithm the algorithm to draw
+     * @param context   the graphics context to draw on
+     * @param x         the starting x coordinate of the image
+     * @param y         the starting y coordinate of the image
+     * @param w         the width of the image
+     * @param h         the height of the image
+     * @see RenderService
+     */
+    public void drawProgressive(@Nullable PerlinNoise algorithm, GraphicsContext context, int x, int y, int w, int h) {
+        cancel();
+        viewport = null;
+        if (algorithm == null) {
+            return;
+        }
+        PerlinNoise normalized = algorithm instanceof NormalizedPerlinNoise
+            ? algorithm
+            : PerlinNoise.normalized(algorithm);
+        lastAlgorithm = normalized;
+        if (w <= 0 || h <= 0) {
+            return;
+        }
+        PerlinNoise noise = toSinglePrecision(normalized);
+        Object spec = cacheKey(normalized);
+        Viewport view = x >= 0 && y >= 0 ? new Viewport(tileCache, spec, noise, palette, x, y, 0, w, h) : null;
+        viewport = view;
+        if (tileCache.contains(spec, x, y, w, h, 0)) {
+            // All tiles were already rendered, so no preview is needed
+            if (view != null) {
+                view.render();
+                drawViewport(view, context);
+            } else {
+                context.drawImage(createImage(normalized, x, y, w, h), 0.0, 0.0);
+            }
+            return;
+        }
+        renderService.submit(
+            noise, palette, x, y, w, h,
+            pass -> {
+                drawPass(pass, context);
+                if (!pass.isFinal()) {
+                    return;
+                }
+                if (view != null) {
+                    view.update(x, y, 0, pass.pixels());
+                } else {
+                    tileCache.store(spec, x, y, w, h, 0, pass.pixels(), 0, w);
+                }
+            },
+            this::showRenderError
+        );
+    }
+
+    /**
+     * Moves the content of the last progressively drawn image by the given distance and draws it on the given graphics
+     * context. Only the newly exposed strips are rendered, an interim frame is refined in the background afterwards.
+     *
+     * @param context the graphics context to draw on
+     * @param dx      the distance to move the content to the right
+     * @param dy      the distance to move the content down
+     * @see Viewport#pan(int, int)
+     */
+    public void pan(GraphicsContext context, int dx, int dy) {
+        Viewport view = viewport;
+        if (view == null) {
+            return;
+        }
+        // A running rendering belongs to the previous position
+        cancel();
+        onError(() -> {
+            view.pan(dx, dy);
+            return null;
+        }, "Error drawing image", Throwable::getMessage);
+        drawViewport(view, context);
+        refine(view, context);
+    }
+
+    /**
+     * Zooms the last progressively drawn image by the given number of levels around the given pixel and draws it on
+     * the given graphics context. Each level halves or doubles the distance between two pixels. The previous frame
+     * is shown resampled until the new zoom level is rendered in the background.
+     *
+     * @param context the graphics context to draw on
+     * @param levels  the number of levels to zoom out, negative to zoom in
+     * @param anchorX the x-coordinate of the pixel which keeps its position
+     * @param anchorY the y-coordinate of the pixel which keeps its position
+     * @see Viewport#zoom(int, int, int)
+     */
+    public void zoom(GraphicsContext context, int levels, int anchorX, int anchorY) {
+        Viewport view = viewport;
+        if (view == null) {
+            return;
+        }
+        cancel();
+        if (view.zoom(levels, anchorX, anchorY)) {
+            drawViewport(view, context);
+        }
+        refine(view, context);
+    }
+
+    /**
+     * Renders the current frame of the given viewport in the background if it is an interim frame.
+     *
+     * @param view    the viewport to refine
+     * @param context the graphics context to draw on
+     */
+    private void refine(Viewport view, GraphicsContext context) {
+        if (view.isExact()) {
+            return;
+        }
+        int x = view.getX();
+        int y = view.getY();
+        int zoom = view.getZoom();
+        renderService.submit(
+            view.refinement(renderer.getExecutor()),
+            pass -> {
+                if (view.update(x, y, zoom, pass.pixels())) {
+                    drawViewport(view, context);
+                }
+            },
+            this::showRenderError
+        );
+    }
+
+    /**
+     * Draws the current frame of the given viewport.
+     *
+     * @param view    the viewport to draw
+     * @param context the graphics context to draw on
+     */
+    private void drawViewport(Viewport view, GraphicsContext context) {
+        WritableImage image = new WritableImage(view.getWidth(), view.getHeight());
+        image.getPixelWriter().setPixels(
+            0, 0, view.getWidth(), view.getHeight(), PixelFormat.getIntArgbPreInstance(), view.getPixels(), 0,
+            view.getWidth()
+        );
+        context.drawImage(image, 0.0, 0.0);
+    }
+
+    /**
+     * Shows an error which aborted a rendering in the background.
+     *
+     * @param error the error which aborted the rendering
+     */
+    private void showRenderError(RuntimeException error) {
+        showError("Error drawing image", error.getMessage());
+    }
+
+    /**
+     * Draws the given pass of a progressive rendering scaled to the size of the image.
+     *
+     * @param pass    the pass to draw
+     * @param context the graphics context to draw on
+     */
+    private void drawPass(ProgressiveRender.Pass pass, GraphicsContext context) {
+        WritableImage image = new WritableImage(pass.width(), pass.height());
+        image.getPixelWriter().setPixels(
+            0, 0, pass.width(), pass.height(), PixelFormat.getIntArgbPreInstance(), pass.pixels(), 0, pass.width()
+        );
+        context.drawImage(image, 0.0, 0.0, pass.width() * pass.step(), pass.height() * pass.step());
+    }
+
+    /**
+     * Cancels the progressive rendering which is currently running, if there is one.
+     */
+    public void cancel() {
+        renderService.cancel();
+    }
+
     /**
      * Creates an image using the given algorithm and starting position and size.
      *
@@ -130,26 +371,119 @@ public abstract class AlgorithmViewModel {
 
         PixelWriter pixelWriter = image.getPixelWriter();
 
-        for (int i=0; i < w; i++){
-            for (int j=0; j < h; j++){
-                double noiseValue = algorithm.compute(x + i, y + j);
+        // The pixels only have 8 bits per channel, so single precision noise values suffice
+        // The tiles are rendered in parallel or copied from the cache and the image is written in a single step
+        int[] pixels = new int[w * h];
+        tileCache.render(cacheKey(algorithm), toSinglePrecision(algorithm), palette, x, y, w, h, 0, pixels, 0, w);
+        pixelWriter.setPixels(0, 0, w, h, PixelFormat.getIntArgbPreInstance(), pixels, 0, w);
+        return image;
+    }
+
+    /**
+     * Returns the version of the given algorithm which computes the images. Since the pixels only have 8 bits per
+     * channel, fractal algorithms skip the octaves which cannot change a pixel by more than one step, and the
+     * algorithm is converted to single precision if images are computed with single precision. The last conversion is
+     * reused if an equal algorithm is drawn again. Since every draw wraps the algorithm in a new normalized Perlin
+     * noise object, the algorithms are compared by equality, which compares the specifications or the underlying
+     * Perlin noise objects, and not by identity.
+     *
+     * @param algorithm the algorithm to convert
+     * @return the algorithm to compute the images with
+     * @see PerlinNoise#withTolerance(PerlinNoise, double)
+     * @see PerlinNoise#singlePrecision(PerlinNoise)
+     */
+    protected PerlinNoise toSinglePrecision(PerlinNoise algorithm) {
+        if (!algorithm.equals(singlePrecisionSource) || singlePrecisionAlgorithm == null) {
+            PerlinNoise noise = PerlinNoise.withTolerance(algorithm, PIXEL_TOLERANCE);
+            singlePrecisionAlgorithm = singlePrecision ? PerlinNoise.singlePrecision(noise) : noise;
+            singlePrecisionSource = algorithm;
+        }
+        return singlePrecisionAlgorithm;
+    }
+
+    /**
+     * Converts the given color to a premultiplied ARGB pixel.
+     *
+     * @param color the color to convert
+     * @return the premultiplied ARGB pixel of the color
+     */
+    protected static int toArgb(Color color) {
+        return Palette.argb(color.getRed(), color.getGreen(), color.getBlue(), color.getOpacity());
+    }
 
-                Color color = colorMapper.apply(noiseValue);
+    /**
+     * Returns the renderer which computes the pixels of the images.
+     *
+     * @return the renderer which computes the pixels of the images
+     */
+    public TileRenderer getRenderer() {
+        return renderer;
+    }
 
-                pixelWriter.setColor(i, j, color);
-            }
+    /**
+     * Sets the renderer which computes the pixels of the images, e.g. to render the tiles with a different executor.
+     * The cached tiles are discarded.
+     *
+     * @param renderer the renderer which computes the pixels of the images
+     */
+    public void setRenderer(TileRenderer renderer) {
+        this.renderer = renderer;
+        this.tileCache = new TileCache(TileCache.DEFAULT_CAPACITY, renderer);
+    }
+
+    /**
+     * Returns whether the images are drawn progressively from coarse to fine.
+     *
+     * @return {@code true} if the images are drawn progressively
+     */
+    public boolean isProgressive() {
+        return progressive;
+    }
+
+    /**
+     * Sets whether the images are drawn progressively from coarse to fine.
+     *
+     * @param progressive {@code true} if the images should be drawn progressively
+     */
+    public void setProgressive(boolean progressive) {
+        this.progressive = progressive;
+    }
+
+    /**
+     * Returns whether the images are computed with single precision.
+     *
+     * @return {@code true} if the images are computed with single precision
+     */
+    public boolean isSinglePrecision() {
+        return singlePrecision;
+    }
+
+    /**
+     * Sets whether the images are computed with single precision.
+     *
+     * @param singlePrecision {@code true} if the images should be computed with single precision
+     */
+    public void setSinglePrecision(boolean singlePrecision) {
+        if (this.singlePrecision != singlePrecision) {
+            tileCache.clear();
+            singlePrecisionAlgorithm = null;
         }
-        return image;
+        this.singlePrecision = singlePrecision;
     }
 
     /**
-     * Saves the last drawn image to a file.
+     * Saves the last drawn image to a file. The size of the image is asked for after the file has been chosen and
+     * defaults to the given size, so images larger than the screen can be saved as well. The pixels of the last
+     * progressively drawn image are reused if it has the requested size, otherwise the image is rendered band by band
+     * while it is written. The file is written in the background, so images larger than the memory can be saved
+     * without blocking the user interface.
      *
-     * @param width  the width of the image
-     * @param height the height of the image
+     * @param width  the default width of the image
+     * @param height the default height of the image
      */
     public void save(int width, int height) {
-        if (lastAlgorithm == null) {
+        PerlinNoise algorithm = lastAlgorithm;
+        if (algorithm == null) {
             return;
         }
         onError(() -> {
@@ -157,12 +491,20 @@ public abstract class AlgorithmViewModel {
                 fileChooser.getExtensionFilters()
                     .add(new FileChooser.ExtensionFilter("PNG files (*.png)", "*.png"));
                 File file = fileChooser.showSaveDialog(null);
-                if (file != null) {
-                    // Allows saving with a transparent background
-                    SnapshotParameters parameters = new SnapshotParameters();
-                    parameters.setFill(Color.TRANSPARENT);
-                    Image image = createImage(lastAlgorithm, 0, 0, width, height);
-                    ImageIO.write(SwingFXUtils.fromFXImage(image, null), "png", file);
+                if (file == null) {
+                    return null;
+                }
+                int[] size = askSize(width, height);
+                if (size != null) {
+                    PngWriter.RowSource source = exportSource(algorithm, size[0], size[1]);
+                    Thread export = new Thread(() -> {
+                        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file.toPath()))) {
+                            new PngWriter().write(size[0], size[1], source, out);
+                        } catch (IOException | RuntimeException e) {
+                            Platform.runLater(() -> showError("Error saving image", e.getMessage()));
+                        }
+                    }, "noise-export");
+                    export.start();
                 }
                 return null;
             },
@@ -171,6 +513,72 @@ public abstract class AlgorithmViewModel {
         );
     }
 
+    /**
+     * Asks for the size of the image to save in the format {@code <width>x<height>}. The given size is suggested, or
+     * the size of the viewport if the given size is empty.
+     *
+     * @param width  the suggested width of the image
+     * @param height the suggested height of the image
+     * @return the width and height of the image, or {@code null} if the dialog was cancelled
+     * @throws IllegalArgumentException if the entered size is not a positive size
+     */
+    private int @Nullable [] askSize(int width, int height) {
+        Viewport view = viewport;
+        if ((width <= 0 || height <= 0) && view != null) {
+            width = view.getWidth();
+            height = view.getHeight();
+        }
+        TextInputDialog dialog = new TextInputDialog(width + "x" + height);
+        dialog.setTitle("Save image");
+        dialog.setHeaderText("Size of the image (width x height)");
+        Optional<String> input = dialog.showAndWait();
+        if (input.isEmpty()) {
+            return null;
+        }
+        String[] parts = input.get().trim().split("\\s*[xX]\\s*");
+        if (parts.length != 2) {
+            throw new IllegalArgumentException("Invalid image size: " + input.get());
+        }
+        int[] size = {Integer.parseInt(parts[0]), Integer.parseInt(parts[1])};
+        if (size[0] <= 0 || size[1] <= 0) {
+            throw new IllegalArgumentException("Image size must be positive: " + input.get());
+        }
+        return size;
+    }
+
+    /**
+     * Returns the source of the rows of the image to save. If the viewport shows exactly the requested image, a copy
+     * of its pixels is used, otherwise the rows are rendered when they are requested.
+     *
+     * @param algorithm the algorithm to save
+     * @param width     the width of the image
+     * @param height    the height of the image
+     * @return the source of the rows of the image to save
+     */
+    private PngWriter.RowSource exportSource(PerlinNoise algorithm, int width, int height) {
+        Viewport view = viewport;
+        if (view != null && view.isExact() && view.getX() == 0 && view.getY() == 0 && view.getZoom() == 0
+            && view.getWidth() == width && view.getHeight() == height && cacheKey(algorithm).equals(view.getSpec())) {
+            // The viewport can be moved while the image is written
+            return PngWriter.of(view.getPixels().clone(), width);
+        }
+        PerlinNoise noise = toSinglePrecision(algorithm);
+        TileRenderer bands = renderer;
+        return (y, h, pixels) -> bands.renderTile(noise, palette, 0, y, width, h, pixels, 0, width);
+    }
+
+    /**
+     * Returns the key of the rendered tiles of the given algorithm in the tile cache, which is its specification if it
+     * has one, so the key is compared and hashed in constant time, and the algorithm itself otherwise.
+     *
+     * @param algorithm the algorithm to get the key of
+     * @return the key of the rendered tiles of the algorithm
+     */
+    private static Object cacheKey(PerlinNoise algorithm) {
+        NoiseSpec spec = algorithm.getSpec();
+        return spec != null ? spec : algorithm;
+    }
+
     /**
      * Runs the given input and returns the result.
      * If an error occurs, an alert will be shown with the given text and the content of the error.
@@ -183,12 +591,22 @@ public abstract class AlgorithmViewModel {
         try {
             return input.call();
         } catch (Throwable e) {
-            Alert alert = new Alert(Alert.AlertType.ERROR);
-            alert.setTitle("Error");
-            alert.setHeaderText(text);
-            alert.setContentText(content.apply(e));
-            alert.showAndWait();
+            showError(text, content.apply(e));
             return null;
         }
     }
+
+    /**
+     * Shows an alert with the given text and content of an error.
+     *
+     * @param text    the text of the alert
+     * @param content the content of the error
+     */
+    protected void showError(String text, String content) {
+        Alert alert = new Alert(Alert.AlertType.ERROR);
+        alert.setTitle("Error");
+        alert.setHeaderText(text);
+        alert.setContentText(content);
+        alert.showAndWait();
+    }
 }
@@ -2,6 +2,8 @@ package h13.util;
 
 import org.jetbrains.annotations.Nullable;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.function.Function;
 
 /**
@@ -33,15 +35,39 @@ public interface Cache<K, V> {
     @Nullable V put(K key, V value);
 
     /**
-     * If the specified key is not already associated with a value (or is mapped to null) associates it with the
-     * given value and returns {@code null}, else returns the current value.
+     * If the specified key is not already associated with a value (or is mapped to null), computes its value using
+     * the given mapping function and associates it with the key, else returns the current value.
      *
      * @param key    key with which the specified value is to be associated
      * @param mapper function to compute a value
-     * @return the previous value associated with the specified key, or {@code null} if there was no mapping for the key
+     * @return the current (existing or computed) value associated with the specified key
      */
     V computeIfAbsent(K key, Function<? super K, ? extends V> mapper);
 
+    /**
+     * Returns a future of the value of the specified key. If the key is not associated with a value, its value is
+     * computed asynchronously on the given executor using the given mapping function and associated with the key.
+     * A failed computation is not cached, the future is completed exceptionally instead.
+     *
+     * <p>Every caller receives its own future, so a caller can wait with a timeout or cancel its future without
+     * affecting the computation for other callers.
+     *
+     * <p>The default implementation invokes {@link #computeIfAbsent(Object, Function)} on the executor, so concurrent
+     * requests for the same key are not combined.
+     *
+     * @param key      key with which the specified value is to be associated
+     * @param mapper   function to compute a value
+     * @param executor the executor to compute the value on
+     * @return a future of the current (existing or computed) value associated with the specified key
+     */
+    default CompletableFuture<V> computeIfAbsentAsync(
+        K key,
+        Function<? super K, ? extends V> mapper,
+        Executor executor
+    ) {
+        return CompletableFuture.supplyAsync(() -> computeIfAbsent(key, mapper), executor);
+    }
+
     /**
      * Removes the mapping for all keys from this cache.
      */
@@ -61,4 +87,33 @@ public interface Cache<K, V> {
      */
     int capacity();
 
+    /**
+     * Returns the total weight of the key-value mappings in this cache. Unless the cache weighs its mappings with a
+     * {@link Weigher}, every mapping has the weight 1.
+     *
+     * @return the total weight of the key-value mappings in this cache
+     */
+    default long weight() {
+        return size();
+    }
+
+    /**
+     * Returns the maximum total weight of the key-value mappings this cache can hold.
+     *
+     * @return the maximum total weight of the key-value mappings this cache can hold
+     */
+    default long maximumWeight() {
+        return capacity();
+    }
+
+    /**
+     * Returns a snapshot of the statistics of this cache. Recording statistics is optional, a cache which does not
+     * record statistics returns {@link CacheStats#EMPTY}.
+     *
+     * @return a snapshot of the statistics of this cache
+     */
+    default CacheStats stats() {
+        return CacheStats.EMPTY;
+    }
+
 }
@@ -0,0 +1,185 @@
+package h13.util;
+
+import java.util.Arrays;
+
+/**
+ * An immutable snapshot of the statistics of a {@link Cache}.
+ *
+ * <p>The load times are additionally counted in a histogram of {@value #LOAD_TIME_BUCKETS} buckets, the bucket
+ * {@code i} counts the loads which took between {@code 2^i} and {@code 2^(i + 1)} nanoseconds (the first bucket also
+ * counts loads which took less than a nanosecond).
+ *
+ * @param hitCount          the number of lookups which found a mapping
+ * @param missCount         the number of lookups which found no mapping
+ * @param loadSuccessCount  the number of values which were computed successfully
+ * @param loadFailureCount  the number of computations which returned {@code null} or threw an exception
+ * @param totalLoadTime     the total time in nanoseconds spent computing values
+ * @param evictionCount     the number of mappings which were evicted
+ * @param evictionWeight    the total weight of the mappings which were evicted
+ * @param loadTimeHistogram the number of loads per load time bucket
+ */
+public record CacheStats(
+    long hitCount,
+    long missCount,
+    long loadSuccessCount,
+    long loadFailureCount,
+    long totalLoadTime,
+    long evictionCount,
+    long evictionWeight,
+    long[] loadTimeHistogram
+) {
+
+    /**
+     * The number of buckets of the load time histogram.
+     */
+    public static final int LOAD_TIME_BUCKETS = Long.SIZE;
+
+    /**
+     * The statistics of a cache which does not record statistics.
+     */
+    public static final CacheStats EMPTY = new CacheStats(0, 0, 0, 0, 0, 0, 0, new long[LOAD_TIME_BUCKETS]);
+
+    /**
+     * Constructs a snapshot of cache statistics.
+     *
+     * @param hitCount          the number of lookups which found a mapping
+     * @param missCount         the number of lookups which found no mapping
+     * @param loadSuccessCount  the number of values which were computed successfully
+     * @param loadFailureCount  the number of computations which returned {@code null} or threw an exception
+     * @param totalLoadTime     the total time in nanoseconds spent computing values
+     * @param evictionCount     the number of mappings which were evicted
+     * @param evictionWeight    the total weight of the mappings which were evicted
+     * @param loadTimeHistogram the number of loads per load time bucket
+     * @throws IllegalArgumentException if a count is negative or the histogram does not have
+     *                                  {@value #LOAD_TIME_BUCKETS} buckets
+     */
+    public CacheStats {
+        if (hitCount < 0 || missCount < 0 || loadSuccessCount < 0 || loadFailureCount < 0 || totalLoadTime < 0
+            || evictionCount < 0 || evictionWeight < 0) {
+            throw new IllegalArgumentException("Statistics cannot be negative");
+        }
+        if (loadTimeHistogram.length != LOAD_TIME_BUCKETS) {
+            throw new IllegalArgumentException("Histogram must have %d buckets".formatted(LOAD_TIME_BUCKETS));
+        }
+        loadTimeHistogram = loadTimeHistogram.clone();
+    }
+
+    /**
+     * Returns the bucket of the load time histogram which counts the given load time.
+     *
+     * @param nanos the load time in nanoseconds
+     * @return the bucket of the load time histogram
+     */
+    public static int loadTimeBucket(long nanos) {
+        return Long.SIZE - 1 - Long.numberOfLeadingZeros(Math.max(nanos, 1));
+    }
+
+    /**
+     * Returns the number of loads per load time bucket.
+     *
+     * @return a copy of the load time histogram
+     */
+    @Override
+    public long[] loadTimeHistogram() {
+        return loadTimeHistogram.clone();
+    }
+
+    /**
+     * Returns the number of lookups, i.e. the number of hits and misses.
+     *
+     * @return the number of lookups
+     */
+    public long requestCount() {
+        return hitCount + missCount;
+    }
+
+    /**
+     * Returns the ratio of lookups which found a mapping, or 1 if there were no lookups.
+     *
+     * @return the ratio of lookups which found a mapping
+     */
+    public double hitRate() {
+        long requests = requestCount();
+        return requests == 0 ? 1.0 : (double) hitCount / requests;
+    }
+
+    /**
+     * Returns the number of computed values, successful or not.
+     *
+     * @return the number of computed values
+     */
+    public long loadCount() {
+        return loadSuccessCount + loadFailureCount;
+    }
+
+    /**
+     * Returns the average time in nanoseconds spent computing a value, or 0 if no value was computed.
+     *
+     * @return the average load time in nanoseconds
+     */
+    public double averageLoadPenalty() {
+        long loads = loadCount();
+        return loads == 0 ? 0.0 : (double) totalLoadTime / loads;
+    }
+
+    /**
+     * Returns an upper bound of the given quantile of the load times, i.e. the exclusive upper bound of the first
+     * histogram bucket up to which at least the given ratio of loads was counted. Returns 0 if no value was computed.
+     *
+     * @param quantile the quantile between 0 and 1, e.g. 0.99 for the 99th percentile
+     * @return an upper bound of the quantile of the load times in nanoseconds
+     * @throws IllegalArgumentException if the quantile is not between 0 and 1
+     */
+    public long loadTimeQuantile(double quantile) {
+        if (!(quantile >= 0 && quantile <= 1)) {
+            throw new IllegalArgumentException("Quantile must be between 0 and 1: " + quantile);
+        }
+        long loads = Arrays.stream(loadTimeHistogram).sum();
+        if (loads == 0) {
+            return 0;
+        }
+        long required = Math.max(1, (long) Math.ceil(quantile * loads));
+        long counted = 0;
+        // The upper bound of the last two buckets does not fit into a long
+        for (int i = 0; i < LOAD_TIME_BUCKETS - 2; i++) {
+            counted += loadTimeHistogram[i];
+            if (counted >= required) {
+                return 1L << i + 1;
+            }
+        }
+        return Long.MAX_VALUE;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof CacheStats that
+            && hitCount == that.hitCount
+            && missCount == that.missCount
+            && loadSuccessCount == that.loadSuccessCount
+            && loadFailureCount == that.loadFailureCount
+            && totalLoadTime == that.totalLoadTime
+            && evictionCount == that.evictionCount
+            && evictionWeight == that.evictionWeight
+            && Arrays.equals(loadTimeHistogram, that.loadTimeHistogram);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = Long.hashCode(hitCount);
+        result = 31 * result + Long.hashCode(missCount);
+        result = 31 * result + Long.hashCode(loadSuccessCount);
+        result = 31 * result + Long.hashCode(loadFailureCount);
+        result = 31 * result + Long.hashCode(totalLoadTime);
+        result = 31 * result + Long.hashCode(evictionCount);
+        result = 31 * result + Long.hashCode(evictionWeight);
+        return 31 * result + Arrays.hashCode(loadTimeHistogram);
+    }
+
+    @Override
+    public String toString() {
+        return "CacheStats[hitCount=%d, missCount=%d, loadSuccessCount=%d, loadFailureCount=%d, totalLoadTime=%d, "
+            .formatted(hitCount, missCount, loadSuccessCount, loadFailureCount, totalLoadTime)
+            + "evictionCount=%d, evictionWeight=%d, loadTimeHistogram=%s]"
+            .formatted(evictionCount, evictionWeight, Arrays.toString(loadTimeHistogram));
+    }
+}
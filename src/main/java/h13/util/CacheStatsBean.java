@@ -0,0 +1,158 @@
+package h13.util;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.InstanceNotFoundException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Exposes the statistics of a {@link Cache} as a platform MXBean named {@code h13.util:type=Cache,name=<name>}. The
+ * platform MBean server keeps a registered bean and thus its cache reachable until it is unregistered, so the owner of
+ * the cache must unregister it when the cache is no longer used.
+ */
+public class CacheStatsBean implements CacheStatsMXBean {
+
+    /**
+     * The cache whose statistics are exposed.
+     */
+    private final Cache<?, ?> cache;
+
+    /**
+     * Constructs a bean which exposes the statistics of the given cache.
+     *
+     * @param cache the cache whose statistics are exposed
+     */
+    public CacheStatsBean(Cache<?, ?> cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * Registers the statistics of the given cache with the platform MBean server. A bean which was registered with
+     * the same name before is replaced, so a recreated cache can be registered under the name of its predecessor.
+     *
+     * @param name  the name of the cache
+     * @param cache the cache whose statistics are exposed
+     * @return the name of the registered bean
+     * @throws IllegalStateException if the bean cannot be registered
+     */
+    public static ObjectName register(String name, Cache<?, ?> cache) {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        CacheStatsBean bean = new CacheStatsBean(cache);
+        try {
+            // Quoting accepts any name
+            ObjectName objectName = new ObjectName("h13.util:type=Cache,name=" + ObjectName.quote(name));
+            while (true) {
+                try {
+                    server.registerMBean(bean, objectName);
+                    return objectName;
+                } catch (InstanceAlreadyExistsException e) {
+                    try {
+                        server.unregisterMBean(objectName);
+                    } catch (InstanceNotFoundException ignored) {
+                        // Unregistered concurrently, try again
+                    }
+                }
+            }
+        } catch (JMException e) {
+            throw new IllegalStateException("Cannot register cache " + name, e);
+        }
+    }
+
+    /**
+     * Unregisters the bean with the given name from the platform MBean server. Nothing happens if no bean is
+     * registered with the name anymore.
+     *
+     * @param name the name of the bean returned by {@link #register(String, Cache)}
+     * @throws IllegalStateException if the bean cannot be unregistered
+     */
+    public static void unregister(ObjectName name) {
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+        } catch (InstanceNotFoundException ignored) {
+            // Already unregistered
+        } catch (JMException e) {
+            throw new IllegalStateException("Cannot unregister cache " + name, e);
+        }
+    }
+
+    /**
+     * Returns a snapshot of the statistics of the cache.
+     *
+     * @return a snapshot of the statistics of the cache
+     */
+    private CacheStats stats() {
+        return cache.stats();
+    }
+
+    @Override
+    public long getHitCount() {
+        return stats().hitCount();
+    }
+
+    @Override
+    public long getMissCount() {
+        return stats().missCount();
+    }
+
+    @Override
+    public double getHitRate() {
+        return stats().hitRate();
+    }
+
+    @Override
+    public long getLoadCount() {
+        return stats().loadCount();
+    }
+
+    @Override
+    public long getLoadFailureCount() {
+        return stats().loadFailureCount();
+    }
+
+    @Override
+    public double getAverageLoadPenalty() {
+        return stats().averageLoadPenalty();
+    }
+
+    @Override
+    public long getLoadTime99thPercentile() {
+        return stats().loadTimeQuantile(0.99);
+    }
+
+    @Override
+    public long[] getLoadTimeHistogram() {
+        return stats().loadTimeHistogram();
+    }
+
+    @Override
+    public long getEvictionCount() {
+        return stats().evictionCount();
+    }
+
+    @Override
+    public long getEvictionWeight() {
+        return stats().evictionWeight();
+    }
+
+    @Override
+    public int getSize() {
+        return cache.size();
+    }
+
+    @Override
+    public int getCapacity() {
+        return cache.capacity();
+    }
+
+    @Override
+    public long getWeight() {
+        return cache.weight();
+    }
+
+    @Override
+    public long getMaximumWeight() {
+        return cache.maximumWeight();
+    }
+}
@@ -0,0 +1,122 @@
+package h13.util;
+
+/**
+ * The management interface of the statistics of a {@link Cache}, e.g. to inspect the caches of a running application
+ * with JConsole. The values are read from a new {@link CacheStats} snapshot on every call.
+ *
+ * @see CacheStatsBean
+ */
+public interface CacheStatsMXBean {
+
+    /**
+     * Returns the number of lookups which found a mapping.
+     *
+     * @return the number of lookups which found a mapping
+     * @see CacheStats#hitCount()
+     */
+    long getHitCount();
+
+    /**
+     * Returns the number of lookups which found no mapping.
+     *
+     * @return the number of lookups which found no mapping
+     * @see CacheStats#missCount()
+     */
+    long getMissCount();
+
+    /**
+     * Returns the ratio of lookups which found a mapping.
+     *
+     * @return the ratio of lookups which found a mapping
+     * @see CacheStats#hitRate()
+     */
+    double getHitRate();
+
+    /**
+     * Returns the number of computed values, successful or not.
+     *
+     * @return the number of computed values
+     * @see CacheStats#loadCount()
+     */
+    long getLoadCount();
+
+    /**
+     * Returns the number of computations which returned {@code null} or threw an exception.
+     *
+     * @return the number of failed computations
+     * @see CacheStats#loadFailureCount()
+     */
+    long getLoadFailureCount();
+
+    /**
+     * Returns the average time in nanoseconds spent computing a value.
+     *
+     * @return the average load time in nanoseconds
+     * @see CacheStats#averageLoadPenalty()
+     */
+    double getAverageLoadPenalty();
+
+    /**
+     * Returns an upper bound of the 99th percentile of the load times in nanoseconds.
+     *
+     * @return an upper bound of the 99th percentile of the load times in nanoseconds
+     * @see CacheStats#loadTimeQuantile(double)
+     */
+    long getLoadTime99thPercentile();
+
+    /**
+     * Returns the number of loads per load time bucket.
+     *
+     * @return the load time histogram
+     * @see CacheStats#loadTimeHistogram()
+     */
+    long[] getLoadTimeHistogram();
+
+    /**
+     * Returns the number of mappings which were evicted.
+     *
+     * @return the number of mappings which were evicted
+     * @see CacheStats#evictionCount()
+     */
+    long getEvictionCount();
+
+    /**
+     * Returns the total weight of the mappings which were evicted.
+     *
+     * @return the total weight of the mappings which were evicted
+     * @see CacheStats#evictionWeight()
+     */
+    long getEvictionWeight();
+
+    /**
+     * Returns the number of key-value mappings in the cache.
+     *
+     * @return the number of key-value mappings in the cache
+     * @see Cache#size()
+     */
+    int getSize();
+
+    /**
+     * Returns the maximum number of key-value mappings the cache can hold.
+     *
+     * @return the maximum number of key-value mappings the cache can hold
+     * @see Cache#capacity()
+     */
+    int getCapacity();
+
+    /**
+     * Returns the total weight of the key-value mappings in the cache.
+     *
+     * @return the total weight of the key-value mappings in the cache
+     * @see Cache#weight()
+     */
+    long getWeight();
+
+    /**
+     * Returns the maximum total weight of the key-value mappings the cache can hold.
+     *
+     * @return the maximum total weight of the key-value mappings the cache can hold
+     * @see Cache#maximumWeight()
+     */
+    long getMaximumWeight();
+}
@@ -0,0 +1,503 @@
+package h13.util;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+/**
+ * A thread-safe cache which evicts approximately the least recently used mappings. Unlike {@link LRUCache}, reading a
+ * mapping does not reorder a list, so reads are lock-free and scale with the number of threads.
+ *
+ * <p>The mappings are stored in a {@link ConcurrentHashMap}. Eviction uses the CLOCK algorithm: every mapping has a
+ * reference bit which is set when the mapping is read, and all mappings are kept in a queue in insertion order. If
+ * the capacity or the maximum weight is exceeded, the queue is swept from its head, a mapping whose bit is set gets a
+ * second chance by clearing the bit and moving it to the tail, the first mapping whose bit is clear is evicted. Only
+ * insertions and evictions are serialized by a lock.
+ *
+ * <p>The weight of a mapping is computed by a {@link Weigher} once when it is inserted, e.g. to bound the memory
+ * retained by the cache instead of the number of mappings. A single mapping which is heavier than the maximum weight
+ * is not kept, without evicting any other mapping.
+ *
+ * <p>Values which are expensive to compute should be loaded by
+ * {@link #computeIfAbsentAsync(Object, Function, Executor)}: only a single load per key runs at once, all concurrent
+ * requests for the key share its result, and no lock is held while it runs.
+ *
+ * <p>If enabled, the cache records {@link CacheStats statistics}: lookups by {@link #get(Object)} and
+ * {@link #computeIfAbsent(Object, Function)}, computations and evictions, but not explicit insertions and removals.
+ * Statistics are disabled by default, a disabled cache only checks a final field per operation.
+ *
+ * <p>While mappings are inserted concurrently, the size and weight can exceed their maximum by the mappings whose
+ * insertion is in progress.
+ *
+ * @param <K> the type of keys maintained by this cache
+ * @param <V> the type of mapped values
+ */
+public class ConcurrentLRUCache<K, V> implements Cache<K, V> {
+
+    /**
+     * The mappings of this cache.
+     */
+    private final ConcurrentHashMap<K, Node<K, V>> map;
+
+    /**
+     * The nodes of the mappings in insertion order, guarded by itself. The queue can contain nodes which were
+     * replaced or removed from the map, they are skipped when they reach the head.
+     */
+    private final Deque<Node<K, V>> clock = new ArrayDeque<>();
+
+    /**
+     * The asynchronous loads which are in progress. A load is removed after its value was inserted into the map, so
+     * a key is always either cached, loading or absent.
+     */
+    private final ConcurrentHashMap<K, CompletableFuture<V>> loading = new ConcurrentHashMap<>();
+
+    /**
+     * The maximum number of key-value mappings this cache can hold.
+     */
+    private final int capacity;
+
+    /**
+     * The maximum total weight of the key-value mappings this cache can hold.
+     */
+    private final long maximumWeight;
+
+    /**
+     * The weigher which computes the weight of a mapping.
+     */
+    private final Weigher<? super K, ? super V> weigher;
+
+    /**
+     * The recorder of the statistics, or {@code null} if no statistics are recorded.
+     */
+    private final @Nullable StatsCounter stats;
+
+    /**
+     * The total weight of the mappings in the map, guarded by the queue. The weight of a mapping is subtracted by the
+     * thread which removes it from the map.
+     */
+    private long weight;
+
+    /**
+     * Constructs a new, empty cache with the specified maximum capacity.
+     *
+     * @param capacity the maximum number of key-value mappings this cache can hold
+     * @throws IllegalArgumentException if the capacity is negative
+     */
+    public ConcurrentLRUCache(int capacity) {
+        this(capacity, capacity, Weigher.singleton());
+    }
+
+    /**
+     * Constructs a new, empty cache with the specified maximum total weight whose mappings are weighed by the given
+     * weigher. The number of mappings is not limited.
+     *
+     * @param maximumWeight the maximum total weight of the key-value mappings this cache can hold
+     * @param weigher       the weigher which computes the weight of a mapping
+     * @throws IllegalArgumentException if the maximum weight is negative
+     */
+    public ConcurrentLRUCache(long maximumWeight, Weigher<? super K, ? super V> weigher) {
+        this(Integer.MAX_VALUE, maximumWeight, weigher);
+    }
+
+    /**
+     * Constructs a new, empty cache with the specified maximum capacity and maximum total weight whose mappings are
+     * weighed by the given weigher. Mappings are evicted if either of the limits is exceeded.
+     *
+     * @param capacity      the maximum number of key-value mappings this cache can hold
+     * @param maximumWeight the maximum total weight of the key-value mappings this cache can hold
+     * @param weigher       the weigher which computes the weight of a mapping
+     * @throws IllegalArgumentException if the capacity or maximum weight is negative
+     */
+    public ConcurrentLRUCache(int capacity, long maximumWeight, Weigher<? super K, ? super V> weigher) {
+        this(capacity, maximumWeight, weigher, false);
+    }
+
+    /**
+     * Constructs a new, empty cache with the specified maximum capacity and maximum total weight whose mappings are
+     * weighed by the given weigher and which optionally records statistics.
+     *
+     * @param capacity      the maximum number of key-value mappings this cache can hold
+     * @param maximumWeight the maximum total weight of the key-value mappings this cache can hold
+     * @param weigher       the weigher which computes the weight of a mapping
+     * @param recordStats   whether the cache records statistics, see {@link #stats()}
+     * @throws IllegalArgumentException if the capacity or maximum weight is negative
+     */
+    public ConcurrentLRUCache(
+        int capacity,
+        long maximumWeight,
+        Weigher<? super K, ? super V> weigher,
+        boolean recordStats
+    ) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity cannot be negative");
+        }
+        if (maximumWeight < 0) {
+            throw new IllegalArgumentException("Maximum weight cannot be negative");
+        }
+        this.map = new ConcurrentHashMap<>(Math.min(capacity, 256));
+        this.capacity = capacity;
+        this.maximumWeight = maximumWeight;
+        this.weigher = weigher;
+        this.stats = recordStats ? new StatsCounter() : null;
+    }
+
+    @Override
+    public @Nullable V get(K key) {
+        Node<K, V> node = map.get(key);
+        if (node == null) {
+            if (stats != null) {
+                stats.recordMiss();
+            }
+            return null;
+        }
+        if (stats != null) {
+            stats.recordHit();
+        }
+        node.reference();
+        return node.value;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws NullPointerException     if the value is {@code null}
+     * @throws IllegalArgumentException if the weight of the mapping is negative
+     */
+    @Override
+    public @Nullable V put(K key, V value) {
+        Node<K, V> node = createNode(key, Objects.requireNonNull(value));
+        Node<K, V> previous = map.put(key, node);
+        added(node, previous);
+        return previous != null ? previous.value : null;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>The value is computed atomically: if several threads request the same absent key at once, the mapper is
+     * invoked exactly once and all threads receive its value. Other keys are not blocked by a running computation
+     * unless they share a bin of the underlying {@link ConcurrentHashMap}, so the mapper should be short. If the
+     * mapper returns {@code null}, no mapping is recorded. If the key is being loaded by
+     * {@link #computeIfAbsentAsync(Object, Function, Executor)}, the load is awaited instead, and the value is only
+     * computed if the load fails.
+     *
+     * @throws IllegalArgumentException if the weight of the computed mapping is negative
+     */
+    @Override
+    public @Nullable V computeIfAbsent(K key, Function<? super K, ? extends V> mapper) {
+        V cached = get(key);
+        if (cached != null) {
+            return cached;
+        }
+        CompletableFuture<V> pending = loading.get(key);
+        if (pending != null) {
+            try {
+                return pending.join();
+            } catch (CompletionException e) {
+                // Failed loads are not cached, so the value is computed below
+            }
+        }
+        Object[] created = new Object[1];
+        Node<K, V> node = map.computeIfAbsent(key, k -> {
+            V value = load(k, mapper);
+            if (value == null) {
+                return null;
+            }
+            Node<K, V> computed = createNode(k, value);
+            created[0] = computed;
+            return computed;
+        });
+        if (node == null) {
+            return null;
+        }
+        if (node == created[0]) {
+            added(node, null);
+        } else {
+            node.reference();
+        }
+        return node.value;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Only a single load per key runs at once: a request for a key which is being loaded joins the running load.
+     * Unlike {@link #computeIfAbsent(Object, Function)}, the mapper runs without blocking any other key, so it can be
+     * long. If the mapper returns {@code null}, the future is completed with {@code null} and no mapping is recorded.
+     * If the executor rejects the load, the future is completed exceptionally.
+     *
+     * @throws IllegalArgumentException if the weight of the computed mapping is negative, the future is completed
+     *                                  exceptionally with it
+     */
+    @Override
+    public CompletableFuture<V> computeIfAbsentAsync(
+        K key,
+        Function<? super K, ? extends V> mapper,
+        Executor executor
+    ) {
+        V cached = get(key);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        CompletableFuture<V> created = new CompletableFuture<>();
+        CompletableFuture<V> pending = loading.putIfAbsent(key, created);
+        if (pending != null) {
+            // A copy, so a caller which cancels its future or times out does not complete the shared load
+            return pending.copy();
+        }
+        try {
+            executor.execute(() -> complete(key, mapper, created));
+        } catch (RuntimeException e) {
+            loading.remove(key, created);
+            created.completeExceptionally(e);
+        }
+        return created.copy();
+    }
+
+    /**
+     * Loads the value of the given key, inserts it into the map and completes the given future of the load with it.
+     *
+     * @param key    the key whose value is loaded
+     * @param mapper the function to compute the value
+     * @param future the future of the load
+     */
+    private void complete(K key, Function<? super K, ? extends V> mapper, CompletableFuture<V> future) {
+        try {
+            // The previous load of the key could have completed just before this load was registered
+            Node<K, V> node = map.get(key);
+            if (node == null) {
+                V value = load(key, mapper);
+                if (value != null) {
+                    Node<K, V> created = createNode(key, value);
+                    node = map.putIfAbsent(key, created);
+                    if (node == null) {
+                        added(created, null);
+                        node = created;
+                    }
+                }
+            }
+            future.complete(node != null ? node.value : null);
+        } catch (Throwable e) {
+            future.completeExceptionally(e);
+        } finally {
+            loading.remove(key, future);
+        }
+    }
+
+    /**
+     * Computes the value of the given key and records the load time if statistics are recorded.
+     *
+     * @param key    the key whose value is computed
+     * @param mapper the function to compute the value
+     * @return the computed value, or {@code null} if the mapper returned {@code null}
+     */
+    private @Nullable V load(K key, Function<? super K, ? extends V> mapper) {
+        if (stats == null) {
+            return mapper.apply(key);
+        }
+        long start = System.nanoTime();
+        V value = null;
+        try {
+            value = mapper.apply(key);
+            return value;
+        } finally {
+            long nanos = System.nanoTime() - start;
+            if (value != null) {
+                stats.recordLoadSuccess(nanos);
+            } else {
+                stats.recordLoadFailure(nanos);
+            }
+        }
+    }
+
+    /**
+     * Creates the node of the given mapping with its weight.
+     *
+     * @param key   the key of the mapping
+     * @param value the value of the mapping
+     * @return the node of the mapping
+     * @throws IllegalArgumentException if the weight of the mapping is negative
+     */
+    private Node<K, V> createNode(K key, V value) {
+        long nodeWeight = weigher.weigh(key, value);
+        if (nodeWeight < 0) {
+            throw new IllegalArgumentException("Weight cannot be negative: " + nodeWeight);
+        }
+        return new Node<>(key, value, nodeWeight);
+    }
+
+    /**
+     * Records the given node which was inserted into the map and evicts mappings if the capacity or maximum weight is
+     * exceeded.
+     *
+     * @param node     the inserted node
+     * @param replaced the node which was replaced by the inserted node, or {@code null} if there was none
+     */
+    private void added(Node<K, V> node, @Nullable Node<K, V> replaced) {
+        synchronized (clock) {
+            weight += node.weight;
+            if (replaced != null) {
+                weight -= replaced.weight;
+            }
+            if (node.weight > maximumWeight) {
+                // Evicting other mappings would not make room for it
+                if (map.remove(node.key, node)) {
+                    weight -= node.weight;
+                    recordEviction(node);
+                }
+                return;
+            }
+            clock.addLast(node);
+            // Every node is visited at most twice, once to clear its reference bit and once to evict it
+            for (int steps = 2 * clock.size(); steps > 0 && needsSweep(); steps--) {
+                Node<K, V> head = clock.removeFirst();
+                if (map.get(head.key) != head) {
+                    // Replaced or removed
+                    continue;
+                }
+                if (head.referenced) {
+                    head.referenced = false;
+                    clock.addLast(head);
+                } else if (exceeded() && map.remove(head.key, head)) {
+                    weight -= head.weight;
+                    recordEviction(head);
+                } else {
+                    clock.addLast(head);
+                }
+            }
+        }
+    }
+
+    /**
+     * Records the eviction of the given node if statistics are recorded.
+     *
+     * @param node the evicted node
+     */
+    private void recordEviction(Node<K, V> node) {
+        if (stats != null) {
+            stats.recordEviction(node.weight);
+        }
+    }
+
+    /**
+     * Returns whether the capacity or maximum weight is exceeded.
+     *
+     * @return {@code true} if the capacity or maximum weight is exceeded
+     */
+    private boolean exceeded() {
+        return map.size() > capacity || weight > maximumWeight;
+    }
+
+    /**
+     * Returns whether the queue has to be swept, either because the capacity or maximum weight is exceeded or because
+     * the queue contains too many replaced or removed nodes.
+     *
+     * @return {@code true} if the queue has to be swept
+     */
+    private boolean needsSweep() {
+        return !clock.isEmpty() && (exceeded() || clock.size() > 2 * map.size() + 16);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Mappings whose insertion is in progress while the cache is cleared can remain in the cache.
+     */
+    @Override
+    public void clear() {
+        synchronized (clock) {
+            for (Node<K, V> node : clock) {
+                if (map.remove(node.key, node)) {
+                    weight -= node.weight;
+                }
+            }
+            clock.clear();
+        }
+    }
+
+    @Override
+    public int size() {
+        return map.size();
+    }
+
+    @Override
+    public int capacity() {
+        return capacity;
+    }
+
+    @Override
+    public long weight() {
+        synchronized (clock) {
+            return weight;
+        }
+    }
+
+    @Override
+    public long maximumWeight() {
+        return maximumWeight;
+    }
+
+    @Override
+    public CacheStats stats() {
+        return stats != null ? stats.snapshot() : CacheStats.EMPTY;
+    }
+
+    /**
+     * A mapping of the cache with its weight and reference bit.
+     *
+     * @param <K> the type of the key
+     * @param <V> the type of the value
+     */
+    private static final class Node<K, V> {
+
+        /**
+         * The key of the mapping.
+         */
+        private final K key;
+
+        /**
+         * The value of the mapping.
+         */
+        private final V value;
+
+        /**
+         * The weight of the mapping.
+         */
+        private final long weight;
+
+        /**
+         * Whether the mapping was read since the last time the clock passed it.
+         */
+        private volatile boolean referenced;
+
+        /**
+         * Constructs a node of the given mapping.
+         *
+         * @param key    the key of the mapping
+         * @param value  the value of the mapping
+         * @param weight the weight of the mapping
+         */
+        private Node(K key, V value, long weight) {
+            this.key = key;
+            this.value = value;
+            this.weight = weight;
+        }
+
+        /**
+         * Marks the mapping as read. The bit is only written if it is clear, so frequently read mappings do not
+         * invalidate the cache line of other processors on every read.
+         */
+        private void reference() {
+            if (!referenced) {
+                referenced = true;
+            }
+        }
+    }
+}
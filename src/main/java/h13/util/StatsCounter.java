@@ -0,0 +1,137 @@
+package h13.util;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records the statistics of a {@link Cache} which can be read as a {@link CacheStats} snapshot. A counter can be used
+ * by several threads at once. All statistics including the buckets of the load time histogram are counted with
+ * {@link LongAdder}s, so recording them from many threads does not contend on a single counter.
+ */
+public final class StatsCounter {
+
+    /**
+     * The number of lookups which found a mapping.
+     */
+    private final LongAdder hitCount = new LongAdder();
+
+    /**
+     * The number of lookups which found no mapping.
+     */
+    private final LongAdder missCount = new LongAdder();
+
+    /**
+     * The number of values which were computed successfully.
+     */
+    private final LongAdder loadSuccessCount = new LongAdder();
+
+    /**
+     * The number of computations which returned {@code null} or threw an exception.
+     */
+    private final LongAdder loadFailureCount = new LongAdder();
+
+    /**
+     * The total time in nanoseconds spent computing values.
+     */
+    private final LongAdder totalLoadTime = new LongAdder();
+
+    /**
+     * The number of mappings which were evicted.
+     */
+    private final LongAdder evictionCount = new LongAdder();
+
+    /**
+     * The total weight of the mappings which were evicted.
+     */
+    private final LongAdder evictionWeight = new LongAdder();
+
+    /**
+     * The number of loads per load time bucket, see {@link CacheStats#loadTimeBucket(long)}.
+     */
+    private final LongAdder[] loadTimeHistogram = new LongAdder[CacheStats.LOAD_TIME_BUCKETS];
+
+    /**
+     * Constructs a counter without any recorded statistics.
+     */
+    public StatsCounter() {
+        for (int i = 0; i < loadTimeHistogram.length; i++) {
+            loadTimeHistogram[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Records a lookup which found a mapping.
+     */
+    public void recordHit() {
+        hitCount.increment();
+    }
+
+    /**
+     * Records a lookup which found no mapping.
+     */
+    public void recordMiss() {
+        missCount.increment();
+    }
+
+    /**
+     * Records a value which was computed successfully.
+     *
+     * @param nanos the time in nanoseconds spent computing the value
+     */
+    public void recordLoadSuccess(long nanos) {
+        loadSuccessCount.increment();
+        recordLoadTime(nanos);
+    }
+
+    /**
+     * Records a computation which returned {@code null} or threw an exception.
+     *
+     * @param nanos the time in nanoseconds spent computing the value
+     */
+    public void recordLoadFailure(long nanos) {
+        loadFailureCount.increment();
+        recordLoadTime(nanos);
+    }
+
+    /**
+     * Records the time spent computing a value.
+     *
+     * @param nanos the time in nanoseconds spent computing the value
+     */
+    private void recordLoadTime(long nanos) {
+        totalLoadTime.add(Math.max(nanos, 0));
+        loadTimeHistogram[CacheStats.loadTimeBucket(nanos)].increment();
+    }
+
+    /**
+     * Records a mapping which was evicted.
+     *
+     * @param weight the weight of the evicted mapping
+     */
+    public void recordEviction(long weight) {
+        evictionCount.increment();
+        evictionWeight.add(weight);
+    }
+
+    /**
+     * Returns a snapshot of the recorded statistics. Statistics which are recorded while the snapshot is taken may be
+     * partially included.
+     *
+     * @return a snapshot of the recorded statistics
+     */
+    public CacheStats snapshot() {
+        long[] histogram = new long[CacheStats.LOAD_TIME_BUCKETS];
+        for (int i = 0; i < histogram.length; i++) {
+            histogram[i] = loadTimeHistogram[i].sum();
+        }
+        return new CacheStats(
+            hitCount.sum(),
+            missCount.sum(),
+            loadSuccessCount.sum(),
+            loadFailureCount.sum(),
+            totalLoadTime.sum(),
+            evictionCount.sum(),
+            evictionWeight.sum(),
+            histogram
+        );
+    }
+}
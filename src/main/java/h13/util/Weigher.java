@@ -0,0 +1,32 @@
+package h13.util;
+
+/**
+ * Computes the weight of a cache mapping, e.g. an estimate of the memory it retains in bytes. A cache with a maximum
+ * weight evicts mappings until the total weight of its mappings does not exceed the maximum weight.
+ *
+ * @param <K> the type of keys
+ * @param <V> the type of values
+ */
+@FunctionalInterface
+public interface Weigher<K, V> {
+
+    /**
+     * Returns a weigher which weighs every mapping with 1, so the weight of a cache is its size.
+     *
+     * @param <K> the type of keys
+     * @param <V> the type of values
+     * @return a weigher which weighs every mapping with 1
+     */
+    static <K, V> Weigher<K, V> singleton() {
+        return (key, value) -> 1;
+    }
+
+    /**
+     * Returns the weight of the given mapping. The weight of a mapping must not change while it is cached.
+     *
+     * @param key   the key of the mapping
+     * @param value the value of the mapping
+     * @return the non-negative weight of the mapping
+     */
+    long weigh(K key, V value);
+}
@@ -0,0 +1,95 @@
+package h13.batch;
+
+import h13.noise.GradientMode;
+import h13.noise.PerlinNoise;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests for the {@link BatchRenderer} and {@link BatchOptions}.
+ */
+public class BatchRendererTest {
+
+    @Test
+    public void testParseOptions() {
+        BatchOptions options = BatchOptions.parse(
+            "--algorithm", "Fractal", "--seeds", "-2..5", "--size", "64x32", "--octaves", "4", "--format", "raw16"
+        );
+        assertEquals("fractal", options.getAlgorithm());
+        assertEquals(-2, options.getFromSeed());
+        assertEquals(5, options.getToSeed());
+        assertEquals(64, options.getWidth());
+        assertEquals(32, options.getHeight());
+        assertEquals(4, options.getOctaves());
+        assertEquals(BatchRenderer.Format.RAW16, options.getFormat());
+        assertEquals(GradientMode.TABLE, options.getGradientMode());
+        assertEquals(GradientMode.HASHED, BatchOptions.parse("--gradients", "hashed").getGradientMode());
+        assertEquals(GradientMode.FIXED, BatchOptions.parse("--gradients", "fixed").getGradientMode());
+        assertEquals(
+            GradientMode.PARALLEL_TABLE,
+            BatchOptions.parse("--gradients", "parallel-table").getGradientMode()
+        );
+
+        assertThrows(IllegalArgumentException.class, () -> BatchOptions.parse("--unknown", "1"));
+        assertThrows(IllegalArgumentException.class, () -> BatchOptions.parse("--seeds"));
+        assertThrows(IllegalArgumentException.class, () -> BatchOptions.parse("--seeds", "3..1"));
+        assertThrows(IllegalArgumentException.class, () -> BatchOptions.parse("--size", "64"));
+        assertThrows(IllegalArgumentException.class, () -> BatchOptions.parse("--octaves", "many"));
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> BatchOptions.parse("--algorithm", "improved", "--gradients", "hashed")
+        );
+    }
+
+    @Test
+    public void testHeightFilesMatchNoise(@TempDir Path directory) throws IOException {
+        BatchOptions options = BatchOptions.parse(
+            "--algorithm", "fractal", "--seeds", "3..5", "--size", "40x30", "--octaves", "3",
+            "--format", "raw32", "--output", directory.toString(), "--threads", "2"
+        );
+        BatchRenderer renderer = new BatchRenderer(options);
+        List<Path> files = renderer.run();
+        assertEquals(3, files.size());
+        for (int seed = 3; seed <= 5; seed++) {
+            Path file = files.get(seed - 3);
+            assertEquals("fractal-" + seed + ".r32", file.getFileName().toString());
+            ByteBuffer data = ByteBuffer.wrap(Files.readAllBytes(file)).order(ByteOrder.LITTLE_ENDIAN);
+            assertEquals(40 * 30 * Float.BYTES, data.remaining());
+            PerlinNoise noise = PerlinNoise.normalized(renderer.createNoise(seed));
+            for (int y = 0; y < 30; y++) {
+                for (int x = 0; x < 40; x++) {
+                    float expected = (float) Math.max(0, Math.min(1, noise.compute(x, y)));
+                    assertEquals(expected, data.getFloat(), 1e-5);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testImageFiles(@TempDir Path directory) throws IOException {
+        BatchOptions options = BatchOptions.parse(
+            "--algorithm", "improved", "--seeds", "7", "--size", "70x90", "--output", directory.toString()
+        );
+        List<Path> files = new BatchRenderer(options).run();
+        assertEquals(List.of(directory.resolve("improved-7.png")), files);
+        BufferedImage image = ImageIO.read(files.get(0).toFile());
+        assertEquals(70, image.getWidth());
+        assertEquals(90, image.getHeight());
+        int rgb = image.getRGB(10, 10);
+        // Gray pixels
+        assertEquals(rgb & 0xFF, rgb >>> 16 & 0xFF);
+        assertEquals(rgb & 0xFF, rgb >>> 8 & 0xFF);
+    }
+}
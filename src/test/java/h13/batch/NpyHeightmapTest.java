@@ -0,0 +1,94 @@
+package h13.batch;
+
+import h13.noise.PerlinNoise;
+import h13.noise.SimplePerlinNoise;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the {@link NpyHeightmap}.
+ */
+public class NpyHeightmapTest {
+
+    @Test
+    public void testHeaderIsNpyCompatible(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("heightmap.npy");
+        try (NpyHeightmap heightmap = NpyHeightmap.create(file, NpyHeightmap.Type.FLOAT32, 7, 5, Map.of("seed", "3"))) {
+            assertEquals(7, heightmap.getWidth());
+        }
+        byte[] bytes = Files.readAllBytes(file);
+        assertEquals((byte) 0x93, bytes[0]);
+        assertEquals("NUMPY", new String(bytes, 1, 5, StandardCharsets.US_ASCII));
+        assertEquals(1, bytes[6]);
+        int length = (bytes[8] & 0xFF) | (bytes[9] & 0xFF) << 8;
+        assertEquals(0, (10 + length) % 64);
+        assertEquals(10 + length + 7 * 5 * Float.BYTES, bytes.length);
+        String header = new String(bytes, 10, length, StandardCharsets.US_ASCII);
+        assertTrue(header.startsWith("{'descr': '<f4', 'fortran_order': False, 'shape': (5, 7), } # noise: seed=3"));
+        assertTrue(header.endsWith("\n"));
+    }
+
+    @Test
+    public void testNoiseRoundTrip(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("heightmap.npy");
+        PerlinNoise noise = new SimplePerlinNoise(64, 64, 0.05, new Random(2));
+        try (NpyHeightmap heightmap = NpyHeightmap.create(
+            file, NpyHeightmap.Type.FLOAT32, 40, 30, Map.of("algorithm", "simple", "frequency", "0.05")
+        )) {
+            heightmap.write(noise, 3, 4, ForkJoinPool.commonPool());
+        }
+        try (NpyHeightmap heightmap = NpyHeightmap.open(file)) {
+            assertEquals(NpyHeightmap.Type.FLOAT32, heightmap.getType());
+            assertEquals(40, heightmap.getWidth());
+            assertEquals(30, heightmap.getHeight());
+            assertEquals(Map.of("algorithm", "simple", "frequency", "0.05"), heightmap.getParameters());
+            float[] values = new float[10 * 20];
+            heightmap.read(5, 6, 10, 20, values, 0, 10);
+            float[] expected = new float[10];
+            for (int j = 0; j < 20; j++) {
+                noise.computeRow(3 + 5, 4 + 6 + j, 10, expected, 0);
+                assertArrayEquals(expected, Arrays.copyOfRange(values, j * 10, j * 10 + 10));
+            }
+            assertThrows(IllegalStateException.class, () -> heightmap.write(0, 0, 1, 1, values, 0, 1));
+            assertThrows(IndexOutOfBoundsException.class, () -> heightmap.get(40, 0));
+        }
+    }
+
+    @Test
+    public void testUnsignedRegions(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("heightmap.npy");
+        try (NpyHeightmap heightmap = NpyHeightmap.create(file, NpyHeightmap.Type.UINT16, 6, 4, Map.of())) {
+            float[] values = {0, 0.5f, 1, 2, -1, 0.25f};
+            heightmap.write(2, 1, 3, 2, values, 0, 3);
+            assertEquals(0, heightmap.get(0, 0));
+            assertEquals(0, heightmap.get(2, 1));
+            assertEquals(0.5f, heightmap.get(3, 1), 1e-4);
+            assertEquals(1, heightmap.get(4, 1));
+            assertEquals(1, heightmap.get(2, 2));
+            assertEquals(0, heightmap.get(3, 2));
+            assertEquals(0.25f, heightmap.get(4, 2), 1e-4);
+        }
+        try (NpyHeightmap heightmap = NpyHeightmap.open(file)) {
+            assertEquals(NpyHeightmap.Type.UINT16, heightmap.getType());
+            assertTrue(heightmap.getParameters().isEmpty());
+            assertEquals(1, heightmap.get(4, 1));
+        }
+        assertThrows(IllegalArgumentException.class, () -> NpyHeightmap.create(
+            file, NpyHeightmap.Type.UINT16, 6, 4, Map.of("name", "two words")
+        ));
+    }
+}
@@ -0,0 +1,100 @@
+package h13.batch;
+
+import h13.noise.PerlinNoise;
+import h13.noise.SimplePerlinNoise;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests for the {@link TiledJob}.
+ */
+public class TiledJobTest {
+
+    @Test
+    public void testTilesMatchNoise(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("map.npy");
+        PerlinNoise noise = new SimplePerlinNoise(32, 32, 0.1, new Random(4));
+        TiledJob job = job(noise, file, Map.of("seed", "4"));
+        assertEquals(12, job.getTileCount());
+        assertEquals(12, job.run());
+        assertEquals(13, Files.readAllLines(job.getManifest()).size());
+        assertMatches(noise, file);
+        // A finished job has nothing left to do
+        assertEquals(0, job.run());
+    }
+
+    @Test
+    public void testResumeKilledJob(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("map.npy");
+        PerlinNoise noise = new SimplePerlinNoise(32, 32, 0.1, new Random(5));
+        TiledJob job = job(noise, file, Map.of("seed", "5"));
+        job.run();
+
+        // Forget the last five tiles, erase one of them and leave a partially written line
+        List<String> lines = Files.readAllLines(job.getManifest());
+        String manifest = String.join("\n", lines.subList(0, lines.size() - 5)) + "\n1";
+        Files.writeString(job.getManifest(), manifest, StandardCharsets.US_ASCII);
+        int erased = Integer.parseInt(lines.get(lines.size() - 1));
+        try (NpyHeightmap heightmap = NpyHeightmap.open(file, true)) {
+            heightmap.write(erased % 4 * 16, erased / 4 * 16, 2, 2, new float[4], 0, 2);
+        }
+
+        assertEquals(5, job.run());
+        assertMatches(noise, file);
+    }
+
+    @Test
+    public void testManifestOfAnotherJob(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("map.npy");
+        PerlinNoise noise = new SimplePerlinNoise(32, 32, 0.1, new Random(6));
+        job(noise, file, Map.of("seed", "6")).run();
+        assertThrows(IOException.class, () -> job(noise, file, Map.of("seed", "7")).run());
+    }
+
+    /**
+     * Creates a job which evaluates the noise into a 60 x 40 heightmap with tiles of size 16.
+     *
+     * @param noise      the noise to evaluate
+     * @param file       the heightmap file to write
+     * @param parameters the noise parameters of the job
+     * @return the created job
+     */
+    private static TiledJob job(PerlinNoise noise, Path file, Map<String, String> parameters) {
+        return new TiledJob(
+            noise, file, NpyHeightmap.Type.FLOAT32, 60, 40, 16, parameters, ForkJoinPool.commonPool()
+        );
+    }
+
+    /**
+     * Asserts that the heightmap contains the values of the noise.
+     *
+     * @param noise the noise
+     * @param file  the heightmap file
+     * @throws IOException if the heightmap cannot be read
+     */
+    private static void assertMatches(PerlinNoise noise, Path file) throws IOException {
+        try (NpyHeightmap heightmap = NpyHeightmap.open(file)) {
+            float[] values = new float[60 * 40];
+            heightmap.read(0, 0, 60, 40, values, 0, 60);
+            float[] expected = new float[60];
+            for (int y = 0; y < 40; y++) {
+                noise.computeRow(0, y, 60, expected, 0);
+                for (int x = 0; x < 60; x++) {
+                    assertEquals(expected[x], values[y * 60 + x]);
+                }
+            }
+        }
+    }
+}
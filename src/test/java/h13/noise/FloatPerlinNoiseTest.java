@@ -0,0 +1,69 @@
+package h13.noise;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Tests for {@link FloatPerlinNoise}.
+ */
+public class FloatPerlinNoiseTest {
+
+    /**
+     * The maximum difference between single and double precision noise values.
+     */
+    private static final double TOLERANCE = 1e-4;
+
+    @Test
+    public void testMatchesDoublePrecision() {
+        int[] p = ImprovedPerlinNoise.shuffledPermutation(new Random(0));
+        SimplePerlinNoise simple = new SimplePerlinNoise(256, 256, 0.02, new Random(0));
+        PerlinNoise[] noises = {
+            simple,
+            new ImprovedPerlinNoise(simple, p),
+            new FractalPerlinNoise(PerlinNoise.normalized(simple), 4, 2, 0.5),
+            new SimplePerlinNoise(256, 256, 0.02, new Random(0), GradientMode.HASHED),
+            new SimplePerlinNoise(256, 256, 0.02, new Random(0), GradientMode.FIXED),
+            new ImprovedPerlinNoise(256, 256, 0.02, new Random(0), p, GradientMode.FIXED),
+        };
+        float[] row = new float[200];
+        for (PerlinNoise noise : noises) {
+            PerlinNoise single = PerlinNoise.singlePrecision(noise);
+            for (int y : new int[]{0, 31, 200}) {
+                single.computeRow(5, y, row.length, row, 0);
+                for (int i = 0; i < row.length; i++) {
+                    double expected = noise.compute(5 + i, y);
+                    assertEquals(expected, single.compute(5 + i, y), TOLERANCE);
+                    assertEquals(expected, row[i], TOLERANCE);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testOverriddenFunctionsAreNotConverted() {
+        SimplePerlinNoise simple = new SimplePerlinNoise(256, 256, 0.02, new Random(0));
+        PerlinNoise fade = new SimplePerlinNoise(256, 256, 0.02, new Random(0)) {
+            @Override
+            public double fade(double t) {
+                return t;
+            }
+        };
+        PerlinNoise fractal = new FractalPerlinNoise(simple, 1, 4, 2, 0.5) {
+            @Override
+            public double compute(int x, int y) {
+                return 0;
+            }
+        };
+        PerlinNoise normalized = PerlinNoise.normalized(fade);
+
+        assertSame(fade, PerlinNoise.singlePrecision(fade));
+        assertSame(fractal, PerlinNoise.singlePrecision(fractal));
+        assertSame(normalized, PerlinNoise.singlePrecision(normalized));
+        assertInstanceOf(FloatPerlinNoise.class, PerlinNoise.singlePrecision(simple));
+    }
+}
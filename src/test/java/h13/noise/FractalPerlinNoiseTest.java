@@ -0,0 +1,103 @@
+package h13.noise;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for {@link FractalPerlinNoise}.
+ */
+public class FractalPerlinNoiseTest {
+
+    @Test
+    public void testComputeRowMatchesCompute() {
+        PerlinNoise simple = new SimplePerlinNoise(512, 512, 0.01, new Random(0));
+        FractalPerlinNoise[] noises = {
+            new FractalPerlinNoise(simple, 6, 2, 0.5),
+            new FractalPerlinNoise(PerlinNoise.normalized(simple), 2.0, 4, 1.8, 0.6),
+        };
+        double[] row = new double[128];
+        for (FractalPerlinNoise noise : noises) {
+            for (int y : new int[]{0, 77}) {
+                noise.computeRow(10, y, row.length, row, 0);
+                for (int i = 0; i < row.length; i++) {
+                    assertEquals(noise.compute(10 + i, y), row[i]);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testToleranceSkipsOctaves() {
+        // The improved noise wraps around, so the high frequencies of the last octaves stay in the gradient domain
+        int[] p = ImprovedPerlinNoise.shuffledPermutation(new Random(0));
+        PerlinNoise improved = new ImprovedPerlinNoise(new SimplePerlinNoise(16, 16, 0.002, new Random(0)), p);
+        FractalPerlinNoise exact = new FractalPerlinNoise(improved, 16, 2, 0.5);
+        FractalPerlinNoise culled = new FractalPerlinNoise(improved, 16, 2, 0.5);
+        double tolerance = 0.5 / 255;
+        culled.setTolerance(tolerance);
+
+        assertEquals(16, exact.getEffectiveOctaves());
+        assertTrue(culled.getEffectiveOctaves() < 16);
+
+        double[] expected = new double[64];
+        double[] actual = new double[64];
+        for (int y = 0; y < 64; y += 7) {
+            exact.computeRow(0, y, expected.length, expected, 0);
+            culled.computeRow(0, y, actual.length, actual, 0);
+            for (int i = 0; i < expected.length; i++) {
+                assertEquals(expected[i], actual[i], tolerance);
+                assertEquals(culled.compute(i, y), actual[i]);
+            }
+        }
+
+        culled.setOctaves(4);
+        assertEquals(4, culled.getEffectiveOctaves());
+    }
+
+    @Test
+    public void testConversionsKeepTolerance() {
+        FractalPerlinNoise fractal = new FractalPerlinNoise(
+            new SimplePerlinNoise(64, 64, 0.01, new Random(0)), 1.0, 8, 2, 0.5, 0.01
+        );
+        assertEquals(0.01, fractal.getTolerance());
+
+        PerlinNoise single = PerlinNoise.singlePrecision(fractal);
+        assertEquals(0.01, assertInstanceOf(FractalPerlinNoise.class, single).getTolerance());
+        assertEquals(fractal.getEffectiveOctaves(), ((FractalPerlinNoise) single).getEffectiveOctaves());
+
+        PerlinNoise normalized = PerlinNoise.singlePrecision(PerlinNoise.normalized(fractal));
+        NormalizedPerlinNoise wrapper = assertInstanceOf(NormalizedPerlinNoise.class, normalized);
+        assertEquals(0.01, assertInstanceOf(FractalPerlinNoise.class, wrapper.delegate).getTolerance());
+
+        double pixel = FractalPerlinNoise.quantizationTolerance(8);
+        assertEquals(1.0 / 255, pixel);
+        PerlinNoise culled = PerlinNoise.withTolerance(PerlinNoise.normalized(fractal), 0.02);
+        FractalPerlinNoise converted = assertInstanceOf(
+            FractalPerlinNoise.class, assertInstanceOf(NormalizedPerlinNoise.class, culled).delegate
+        );
+        assertEquals(0.02, converted.getTolerance());
+        assertEquals(0.01, fractal.getTolerance());
+        // A larger tolerance is kept
+        assertSame(fractal, PerlinNoise.withTolerance(fractal, 0.001));
+    }
+
+    @Test
+    public void testSubclassesKeepTheirTolerance() {
+        PerlinNoise simple = new SimplePerlinNoise(256, 256, 0.02, new Random(0));
+        FractalPerlinNoise fractal = new FractalPerlinNoise(simple, 1, 8, 2, 0.5) {
+            @Override
+            public double compute(int x, int y) {
+                return 0;
+            }
+        };
+
+        assertSame(fractal, PerlinNoise.withTolerance(fractal, 0.02));
+        assertEquals(0, fractal.getTolerance());
+    }
+}
@@ -0,0 +1,80 @@
+package h13.noise;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests for the bulk evaluation methods of {@link GradientNoise}.
+ */
+public class GradientNoiseTest {
+
+    @Test
+    public void testComputeRegionIntoBuffer() {
+        PerlinNoise noise = new SimplePerlinNoise(64, 64, 0.1, new Random(0));
+        int offset = 3;
+        int stride = 12;
+        double[] buffer = new double[offset + 5 * stride];
+        buffer[offset + 10] = -42;
+        noise.compute(7, 9, 10, 5, buffer, offset, stride);
+        for (int j = 0; j < 5; j++) {
+            for (int i = 0; i < 10; i++) {
+                assertEquals(noise.compute(7 + i, 9 + j), buffer[offset + j * stride + i]);
+            }
+        }
+        // Padding between rows is left untouched
+        assertEquals(-42, buffer[offset + 10]);
+    }
+
+    @Test
+    public void testComputeRegionIntoFloatAndDirectBuffer() {
+        PerlinNoise noise = new SimplePerlinNoise(64, 64, 0.1, new Random(0));
+        float[] floats = new float[8 * 4];
+        DoubleBuffer direct = ByteBuffer.allocateDirect(8 * 4 * Double.BYTES)
+            .order(ByteOrder.nativeOrder())
+            .asDoubleBuffer();
+        assertFalse(direct.hasArray());
+        noise.compute(2, 1, 8, 4, floats, 0, 8);
+        noise.compute(2, 1, 8, 4, direct, 0, 8);
+        for (int j = 0; j < 4; j++) {
+            for (int i = 0; i < 8; i++) {
+                double expected = noise.compute(2 + i, 1 + j);
+                assertEquals((float) expected, floats[j * 8 + i]);
+                assertEquals(expected, direct.get(j * 8 + i));
+            }
+        }
+        // Enough rows for bands of several rows per task
+        DoubleBuffer tall = ByteBuffer.allocateDirect(3 * 101 * Double.BYTES)
+            .order(ByteOrder.nativeOrder())
+            .asDoubleBuffer();
+        noise.compute(5, 0, 3, 101, tall, 0, 3);
+        for (int j = 0; j < 101; j++) {
+            for (int i = 0; i < 3; i++) {
+                assertEquals(noise.compute(5 + i, j), tall.get(j * 3 + i));
+            }
+        }
+    }
+
+    @Test
+    public void testComputeRegionUsesSizes() {
+        PerlinNoise noise = new SimplePerlinNoise(64, 64, 0.1, new Random(0));
+        double[][] values = noise.compute(5, 6, 3, 2);
+        assertEquals(3, values.length);
+        assertEquals(2, values[0].length);
+        assertEquals(noise.compute(7, 7), values[2][1]);
+    }
+
+    @Test
+    public void testComputeRegionOutOfBounds() {
+        PerlinNoise noise = new SimplePerlinNoise(64, 64, 0.1, new Random(0));
+        assertThrows(IndexOutOfBoundsException.class, () -> noise.compute(0, 0, 4, 4, new double[15], 0, 4));
+        assertThrows(IllegalArgumentException.class, () -> noise.compute(0, 0, 4, 4, new double[16], 0, 3));
+    }
+}
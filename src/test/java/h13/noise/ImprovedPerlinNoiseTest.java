@@ -0,0 +1,36 @@
+package h13.noise;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for {@link ImprovedPerlinNoise}.
+ */
+public class ImprovedPerlinNoiseTest {
+
+    @Test
+    public void testImprovedNoiseOnlyCreatesPermutedGradients() {
+        int[] p = ImprovedPerlinNoise.shuffledPermutation(new Random(0));
+        // A domain whose full gradient table would not fit into an array
+        ImprovedPerlinNoise large = new ImprovedPerlinNoise(1 << 20, 1 << 20, 0.05, new Random(0), p);
+        assertEquals(ImprovedPerlinNoise.PERMUTATION_SIZE, large.getGradients().length);
+        // A domain with fewer points than permuted gradients
+        ImprovedPerlinNoise small = new ImprovedPerlinNoise(new SimplePerlinNoise(4, 4, 0.05, new Random(0)), p);
+        assertEquals(ImprovedPerlinNoise.PERMUTATION_SIZE, small.getGradients().length);
+
+        double[] row = new double[100];
+        for (ImprovedPerlinNoise noise : new ImprovedPerlinNoise[]{large, small}) {
+            for (int y : new int[]{0, 17, 1 << 19}) {
+                noise.computeRow(1 << 19, y, row.length, row, 0);
+                for (int i = 0; i < row.length; i++) {
+                    assertEquals(noise.compute((1 << 19) + i, y), row[i]);
+                    assertTrue(Math.abs(row[i]) <= 1);
+                }
+            }
+        }
+    }
+}
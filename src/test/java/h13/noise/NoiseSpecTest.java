@@ -0,0 +1,75 @@
+package h13.noise;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Tests for {@link NoiseSpec}.
+ */
+public class NoiseSpecTest {
+
+    @Test
+    public void testSpecIdentifiesSeededNoise() {
+        SimplePerlinNoise noise = new SimplePerlinNoise(64, 64, 0.05, 7L, GradientMode.TABLE);
+        SimplePerlinNoise same = new SimplePerlinNoise(64, 64, 0.05, 7L, GradientMode.TABLE);
+        SimplePerlinNoise other = new SimplePerlinNoise(64, 64, 0.05, 8L, GradientMode.TABLE);
+        assertNotNull(noise.getSpec());
+        assertEquals(noise.getSpec(), same.getSpec());
+        assertEquals(noise.getSpec().getFingerprint(), same.getSpec().getFingerprint());
+        assertEquals(noise, same);
+        assertEquals(noise.hashCode(), same.hashCode());
+        assertNotEquals(noise.getSpec(), other.getSpec());
+        assertNotEquals(noise, other);
+
+        // A noise created from a random generator has no specification, but equal gradient vectors
+        SimplePerlinNoise unseeded = new SimplePerlinNoise(64, 64, 0.05, new Random(7), GradientMode.TABLE);
+        assertNull(unseeded.getSpec());
+        assertEquals(unseeded, noise);
+        assertEquals(unseeded.hashCode(), noise.hashCode());
+
+        ImprovedPerlinNoise improved = new ImprovedPerlinNoise(1 << 20, 1 << 20, 0.05, 3L, GradientMode.FIXED);
+        Random random = new Random(3);
+        int[] p = ImprovedPerlinNoise.shuffledPermutation(random);
+        assertEquals(new ImprovedPerlinNoise(1 << 20, 1 << 20, 0.05, random, p, GradientMode.FIXED), improved);
+        assertNotEquals(noise.getSpec(), new ImprovedPerlinNoise(64, 64, 0.05, 7L, GradientMode.TABLE).getSpec());
+
+        PerlinNoise fractal = PerlinNoise.normalized(new FractalPerlinNoise(noise, 4, 2, 0.5));
+        assertEquals(fractal.getSpec(), PerlinNoise.normalized(new FractalPerlinNoise(same, 4, 2, 0.5)).getSpec());
+        assertNotEquals(fractal.getSpec(), PerlinNoise.normalized(new FractalPerlinNoise(same, 5, 2, 0.5)).getSpec());
+        assertNotEquals(fractal.getSpec(), new FractalPerlinNoise(same, 4, 2, 0.5).getSpec());
+        assertNull(PerlinNoise.normalized(unseeded).getSpec());
+    }
+
+    @Test
+    public void testSpecIsReplacedWhenParametersChange() {
+        SimplePerlinNoise noise = new SimplePerlinNoise(64, 64, 0.05, 7L, GradientMode.TABLE);
+        SimplePerlinNoise same = new SimplePerlinNoise(64, 64, 0.05, 7L, GradientMode.TABLE);
+        PerlinNoise fractal = PerlinNoise.normalized(new FractalPerlinNoise(noise, 4, 2, 0.5));
+
+        // Specifications are created once and only replaced when a parameter changes
+        assertSame(noise.getSpec(), noise.getSpec());
+        assertSame(fractal.getSpec(), fractal.getSpec());
+        FractalPerlinNoise octaves = new FractalPerlinNoise(noise, 4, 2, 0.5);
+        NoiseSpec before = octaves.getSpec();
+        int octavesHash = octaves.hashCode();
+        octaves.setOctaves(5);
+        assertNotEquals(before, octaves.getSpec());
+        assertEquals(octavesHash, octaves.hashCode());
+
+        // The hash code does not depend on the frequency, so noises can still be found after changing it
+        int hash = same.hashCode();
+        NoiseSpec spec = same.getSpec();
+        same.setFrequency(0.1);
+        assertNotEquals(spec, same.getSpec());
+        assertNotEquals(noise.getSpec(), same.getSpec());
+        assertNotEquals(noise, same);
+        assertEquals(hash, same.hashCode());
+    }
+}
@@ -0,0 +1,328 @@
+package h13.noise;
+
+import com.sun.management.ThreadMXBean;
+import javafx.geometry.Point2D;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Tests for {@link SimplePerlinNoise}.
+ */
+public class SimplePerlinNoiseTest {
+
+    /**
+     * The number of samples to compute for the allocation measurement.
+     */
+    private static final int SAMPLES = 1_000_000;
+
+    @Test
+    public void testGradientViewMatchesGradients() {
+        SimplePerlinNoise noise = new SimplePerlinNoise(7, 5, new Random(0));
+        Point2D[] gradients = noise.getGradients();
+        assertEquals(8 * 6, gradients.length);
+        for (int y = 0; y <= noise.getHeight(); y++) {
+            for (int x = 0; x <= noise.getWidth(); x++) {
+                assertEquals(gradients[y * 8 + x], noise.getGradient(x, y));
+            }
+        }
+    }
+
+    @Test
+    public void testGradientViewMatchesCreateGradients() {
+        SimplePerlinNoise noise = new SimplePerlinNoise(7, 5, new Random(0));
+        SimplePerlinNoise other = new SimplePerlinNoise(0, 0, new Random(0));
+        other.getRandomGenerator().setSeed(0);
+        Point2D[] expected = other.createGradients(8, 6);
+        Point2D[] actual = noise.getGradients();
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], actual[i]);
+        }
+    }
+
+    @Test
+    public void testGradientTableUsesCreateGradient() {
+        SimplePerlinNoise noise = new SimplePerlinNoise(3, 2, new Random(0)) {
+            @Override
+            protected Point2D createGradient() {
+                return new Point2D(0.25, -0.5);
+            }
+        };
+        for (Point2D gradient : noise.getGradients()) {
+            assertEquals(new Point2D(0.25, -0.5), gradient);
+        }
+    }
+
+    @Test
+    public void testReplacedGradientTableIsUsed() throws ReflectiveOperationException {
+        Point2D[] table = new Point2D[9];
+        for (int i = 0; i < table.length; i++) {
+            table[i] = new Point2D(Math.cos(i), Math.sin(i));
+        }
+        Field field = AbstractPerlinNoise.class.getDeclaredField("gradients");
+        field.setAccessible(true);
+
+        // Replace the table after the components of the original table were unpacked
+        SimplePerlinNoise noise = new SimplePerlinNoise(0, 0, new Random(0));
+        assertEquals(1, noise.getGradientsX().length);
+        field.set(noise, table);
+        double dx = 0.5;
+        double dy = 0.25;
+        double expected = noise.interpolate(
+            noise.interpolate(dot(noise.getGradient(1, 0), dx, dy), dot(noise.getGradient(2, 0), dx - 1, dy), noise.fade(dx)),
+            noise.interpolate(dot(noise.getGradient(1, 1), dx, dy - 1), dot(noise.getGradient(2, 1), dx - 1, dy - 1), noise.fade(dx)),
+            noise.fade(dy)
+        );
+        assertEquals(expected, noise.compute(1 + dx, dy));
+
+        // An overridden gradient lookup is used instead of the gradient table
+        List<Point2D> used = new ArrayList<>();
+        SimplePerlinNoise recording = new SimplePerlinNoise(0, 0, new Random(0)) {
+            @Override
+            public Point2D getGradient(int x, int y) {
+                Point2D gradient = super.getGradient(x, y);
+                used.add(gradient);
+                return gradient;
+            }
+        };
+        field.set(recording, table);
+        assertEquals(expected, recording.compute(1 + dx, dy));
+        assertEquals(List.of(table[1], table[2], table[2], table[3]), used);
+    }
+
+    @Test
+    public void testComputeDoesNotAllocate() {
+        ThreadMXBean bean = allocationBean();
+        long thread = Thread.currentThread().getId();
+
+        SimplePerlinNoise noise = new SimplePerlinNoise(64, 64, new Random(0));
+        // Warm up, so class loading and compilation are not measured
+        double sink = computeSamples(noise);
+
+        long before = bean.getThreadAllocatedBytes(thread);
+        sink += computeSamples(noise);
+        long allocated = bean.getThreadAllocatedBytes(thread) - before;
+
+        assertTrue(!Double.isNaN(sink));
+        assertTrue(
+            allocated < 1024,
+            "Computing %d samples allocated %d bytes".formatted(SAMPLES, allocated)
+        );
+    }
+
+    @Test
+    public void testComputeRowDoesNotAllocate() {
+        ThreadMXBean bean = allocationBean();
+        long thread = Thread.currentThread().getId();
+
+        // Vectors are only elided once the vector kernel is compiled, so the scalar path is measured
+        PerlinNoise simple = new SimplePerlinNoise(1100, 300, 0.01, new Random(0)) {
+            @Override
+            public double fade(double t) {
+                return super.fade(t);
+            }
+        };
+        PerlinNoise[] noises = {simple, new FractalPerlinNoise(simple, 4, 2, 0.5)};
+        double[] row = new double[256];
+        float[] floats = new float[256];
+        for (PerlinNoise noise : noises) {
+            // Warm up, so class loading, compilation and the scratch rows are not measured
+            computeRows(noise, row, floats);
+
+            long before = bean.getThreadAllocatedBytes(thread);
+            computeRows(noise, row, floats);
+            long allocated = bean.getThreadAllocatedBytes(thread) - before;
+            assertTrue(allocated < 1024, "Computing rows allocated %d bytes".formatted(allocated));
+        }
+    }
+
+    @Test
+    public void testComputeRowMatchesCompute() {
+        int[] p = ImprovedPerlinNoise.shuffledPermutation(new Random(0));
+        SimplePerlinNoise simple = new SimplePerlinNoise(256, 256, 0.05, new Random(0));
+        PerlinNoise[] noises = {simple, new ImprovedPerlinNoise(simple, p)};
+        double[] row = new double[300];
+        for (PerlinNoise noise : noises) {
+            for (int y : new int[]{0, 17, 255}) {
+                noise.computeRow(3, y, row.length, row, 0);
+                for (int i = 0; i < row.length; i++) {
+                    assertEquals(noise.compute(3 + i, y), row[i]);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testVectorKernelMatchesCompute() {
+        assumeTrue(ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent());
+        SpanKernel kernel = SpanKernel.vectorized();
+        assertNotNull(kernel);
+
+        SimplePerlinNoise noise = new SimplePerlinNoise(64, 64, 0.01, new Random(0));
+        double[] coefficients = {0.3, -0.2, -0.7, 0.1, 0.5, 0.4, -0.1, -0.6};
+        double[] span = new double[37];
+        kernel.computeSpan(span, 0, 100, span.length, noise.getFrequency(), 1, noise.fade(0.25), coefficients);
+        for (int i = 0; i < span.length; i++) {
+            double dx = (100 + i) * noise.getFrequency() - 1;
+            double fx = noise.fade(dx);
+            double lx0 = noise.interpolate(0.3 * dx - 0.2, -0.7 * (dx - 1) + 0.1, fx);
+            double lx1 = noise.interpolate(0.5 * dx + 0.4, -0.1 * (dx - 1) - 0.6, fx);
+            assertEquals(noise.interpolate(lx0, lx1, noise.fade(0.25)), span[i], SpanKernel.TOLERANCE);
+        }
+    }
+
+    @Test
+    public void testHashedGradientsWithoutTable() {
+        // A table of this size could not be allocated
+        SimplePerlinNoise noise = new SimplePerlinNoise(
+            Integer.MAX_VALUE - 1, Integer.MAX_VALUE - 1, 0.01, new Random(3), GradientMode.HASHED
+        );
+        SimplePerlinNoise same = new SimplePerlinNoise(16, 16, 0.01, new Random(3), GradientMode.HASHED);
+        SimplePerlinNoise other = new SimplePerlinNoise(16, 16, 0.01, new Random(4), GradientMode.HASHED);
+        assertEquals(GradientMode.HASHED, noise.getGradientMode());
+
+        double[] row = new double[500];
+        int differences = 0;
+        for (int y : new int[]{-1_000_000, 0, 123_456_789}) {
+            noise.computeRow(2_000_000_000, y, row.length, row, 0);
+            for (int i = 0; i < row.length; i++) {
+                assertEquals(noise.compute(2_000_000_000 + i, y), row[i]);
+                assertEquals(same.compute(2_000_000_000 + i, y), row[i]);
+                assertTrue(row[i] >= -1 && row[i] <= 1);
+                if (other.compute(2_000_000_000 + i, y) != row[i]) {
+                    differences++;
+                }
+            }
+        }
+        assertTrue(differences > row.length);
+
+        Point2D gradient = new Point2D(noise.dotGradient(-5, 7, 1, 0), noise.dotGradient(-5, 7, 0, 1));
+        assertEquals(gradient.getX() * 0.3 + gradient.getY() * -0.4, noise.dotGradient(-5, 7, 0.3, -0.4), 1e-12);
+        assertTrue(gradient.magnitude() > 0 && gradient.magnitude() <= 1 + 1e-12);
+        assertTrue(gradient.getY() >= 0);
+    }
+
+    @Test
+    public void testParallelTableIsReproducible() {
+        // More gradients than a single chunk
+        SimplePerlinNoise noise = new SimplePerlinNoise(300, 200, 0.05, new Random(9), GradientMode.PARALLEL_TABLE);
+        assertEquals(noise, new SimplePerlinNoise(300, 200, 0.05, new Random(9), GradientMode.PARALLEL_TABLE));
+        assertEquals(301 * 201, noise.getGradientsX().length);
+
+        SplittableRandom random = new SplittableRandom(new Random(9).nextLong());
+        for (int i = 0; i < noise.getGradientsX().length; i++) {
+            double angle = random.nextDouble() * Math.PI;
+            double radius = Math.nextUp(random.nextDouble());
+            assertEquals(Math.cos(angle) * radius, noise.getGradientsX()[i]);
+            assertEquals(Math.sin(angle) * radius, noise.getGradientsY()[i]);
+        }
+    }
+
+    @Test
+    public void testFixedGradients() {
+        int[] p = ImprovedPerlinNoise.shuffledPermutation(new Random(0));
+        SimplePerlinNoise simple = new SimplePerlinNoise(
+            Integer.MAX_VALUE - 1, Integer.MAX_VALUE - 1, 0.01, new Random(3), GradientMode.FIXED
+        );
+        ImprovedPerlinNoise improved = new ImprovedPerlinNoise(
+            Integer.MAX_VALUE - 1, Integer.MAX_VALUE - 1, 0.01, new Random(3), p, GradientMode.FIXED
+        );
+        assertEquals(simple, new SimplePerlinNoise(
+            Integer.MAX_VALUE - 1, Integer.MAX_VALUE - 1, 0.01, new Random(3), GradientMode.FIXED
+        ));
+        assertEquals(0, improved.getGradientsX().length);
+
+        double[] row = new double[500];
+        for (SimplePerlinNoise noise : new SimplePerlinNoise[]{simple, improved}) {
+            assertEquals(GradientMode.FIXED, noise.getGradientMode());
+            for (int y : new int[]{-1_000_000, 0, 123_456_789}) {
+                noise.computeRow(2_000_000_000, y, row.length, row, 0);
+                for (int i = 0; i < row.length; i++) {
+                    assertEquals(noise.compute(2_000_000_000 + i, y), row[i]);
+                    assertTrue(row[i] >= -1 && row[i] <= 1);
+                }
+            }
+            Point2D gradient = new Point2D(noise.dotGradient(-5, 7, 1, 0), noise.dotGradient(-5, 7, 0, 1));
+            assertTrue(Math.abs(gradient.getX()) + Math.abs(gradient.getY()) >= 1);
+            assertTrue(Math.abs(gradient.getX()) <= 1 && Math.abs(gradient.getY()) <= 1);
+            assertEquals(gradient.getX() * 0.3 + gradient.getY() * -0.4, noise.dotGradient(-5, 7, 0.3, -0.4));
+        }
+        // Perlin's reference implementation selects the direction by the lowest bits of the permutation array
+        for (int x = 0; x < 300; x += 7) {
+            int direction = improved.gradientIndex(x, 11) & (FixedGradients.DIRECTIONS - 1);
+            assertEquals(FixedGradients.gradientX(direction), improved.getGradient(x, 11).getX());
+            assertEquals(FixedGradients.gradientY(direction), improved.getGradient(x, 11).getY());
+        }
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> new ImprovedPerlinNoise(16, 16, 0.01, new Random(3), p, GradientMode.HASHED)
+        );
+    }
+
+    /**
+     * Computes 1000 rows of the noise with double and single precision and at a coarser resolution.
+     *
+     * @param noise  the noise to compute the rows of
+     * @param row    the buffer for the double precision rows
+     * @param floats the buffer for the single precision rows
+     */
+    private static void computeRows(PerlinNoise noise, double[] row, float[] floats) {
+        for (int y = 0; y < 1000; y++) {
+            noise.computeRow(0, y % 64, row.length, row, 0);
+            noise.computeRow(0, y % 64, floats.length, floats, 0);
+            noise.computeStridedRow(0, y % 64 * 4, floats.length, 4, floats, 0);
+        }
+    }
+
+    /**
+     * Returns the thread bean which measures the memory allocated by a thread. The test is skipped if the JVM cannot
+     * measure it.
+     *
+     * @return the thread bean with enabled allocation measurement
+     */
+    private static ThreadMXBean allocationBean() {
+        assumeTrue(ModuleLayer.boot().findModule("jdk.management").isPresent());
+        java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        assumeTrue(threads instanceof ThreadMXBean bean && bean.isThreadAllocatedMemorySupported());
+        ThreadMXBean bean = (ThreadMXBean) threads;
+        bean.setThreadAllocatedMemoryEnabled(true);
+        return bean;
+    }
+
+    /**
+     * Computes the dot product of the given gradient vector and distance vector.
+     *
+     * @param gradient the gradient vector
+     * @param dx       the x component of the distance vector
+     * @param dy       the y component of the distance vector
+     * @return the dot product of the gradient vector and the distance vector
+     */
+    private static double dot(Point2D gradient, double dx, double dy) {
+        return gradient.getX() * dx + gradient.getY() * dy;
+    }
+
+    /**
+     * Computes {@value #SAMPLES} noise samples spread over the noise domain.
+     *
+     * @param noise the noise to compute the samples of
+     * @return the sum of all computed samples
+     */
+    private static double computeSamples(PerlinNoise noise) {
+        double sum = 0;
+        for (int i = 0; i < SAMPLES; i++) {
+            sum += noise.compute((i % 6400) * 0.01, (i / 6400 % 64) + 0.5);
+        }
+        return sum;
+    }
+}
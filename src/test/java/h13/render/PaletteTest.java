@@ -0,0 +1,64 @@
+package h13.render;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests for the {@link Palette}.
+ */
+public class PaletteTest {
+
+    @Test
+    public void testLookupSamplesMapper() {
+        Palette palette = new Palette(value -> (int) Math.round(value * 1000), 1001);
+        assertEquals(0, palette.applyAsInt(0));
+        assertEquals(1000, palette.applyAsInt(1));
+        assertEquals(250, palette.applyAsInt(0.25));
+        assertEquals(300, palette.applyAsInt(0.3004));
+        // Values outside [0, 1] are clamped
+        assertEquals(0, palette.applyAsInt(-3));
+        assertEquals(1000, palette.applyAsInt(7));
+        assertEquals(0, palette.applyAsInt(Double.NaN));
+    }
+
+    @Test
+    public void testBulkMapping() {
+        Palette palette = new Palette(value -> value < 0.5 ? 1 : 2);
+        float[] floats = {0, 0.2f, 0.7f, 1};
+        double[] doubles = {0, 0.2, 0.7, 1};
+        int[] pixels = new int[6];
+        palette.map(floats, 1, pixels, 2, 3);
+        assertEquals(0, pixels[1]);
+        assertEquals(1, pixels[2]);
+        assertEquals(2, pixels[3]);
+        assertEquals(2, pixels[4]);
+        int[] other = new int[4];
+        palette.map(doubles, 0, other, 0, 4);
+        for (int i = 0; i < 4; i++) {
+            assertEquals(palette.applyAsInt(doubles[i]), other[i]);
+        }
+    }
+
+    @Test
+    public void testArgb() {
+        assertEquals(0xFF00FF80, Palette.argb(0, 1, 128 / 255.0, 1));
+        assertEquals(0x80400000, Palette.argb(0.5, 0, 0, 128 / 255.0));
+        assertThrows(IllegalArgumentException.class, () -> new Palette(value -> 0, 1));
+    }
+
+    @Test
+    public void testColorSchemes() {
+        assertEquals(0xFF000000, ColorScheme.GRAY.getPalette().applyAsInt(0));
+        assertEquals(0xFFFFFFFF, ColorScheme.GRAY.getPalette().applyAsInt(1));
+        // Water and land
+        assertEquals(Palette.argb(0, 0, 0.5, 1), ColorScheme.SIMPLE.getMapper().applyAsInt(0.25));
+        assertEquals(Palette.argb(0, 0.75, 0, 1), ColorScheme.SIMPLE.getMapper().applyAsInt(0.75));
+        // Snow
+        assertEquals(Palette.argb(0.9, 0.9, 0.9, 1), ColorScheme.MOUNTAIN.getMapper().applyAsInt(0.9));
+        for (ColorScheme scheme : ColorScheme.values()) {
+            assertEquals(scheme.getMapper().applyAsInt(0.3), scheme.getPalette().applyAsInt(0.3));
+        }
+    }
+}
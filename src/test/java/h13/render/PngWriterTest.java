@@ -0,0 +1,62 @@
+package h13.render;
+
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.Adler32;
+import java.util.zip.Deflater;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests for the {@link PngWriter}.
+ */
+public class PngWriterTest {
+
+    @Test
+    public void testWrittenImageIsReadable() throws IOException {
+        int width = 37;
+        int height = 29;
+        int[] pixels = new int[width * height];
+        Random random = new Random(0);
+        for (int i = 0; i < pixels.length; i++) {
+            pixels[i] = 0xFF000000 | random.nextInt(1 << 24);
+        }
+        // Premultiplied pixels with transparency
+        pixels[0] = 0x80400000;
+        pixels[1] = 0;
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new PngWriter(ForkJoinPool.commonPool(), Deflater.DEFAULT_COMPRESSION, 4)
+            .write(width, height, PngWriter.of(pixels, width), out);
+
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(out.toByteArray()));
+        assertEquals(width, image.getWidth());
+        assertEquals(height, image.getHeight());
+        for (int j = 0; j < height; j++) {
+            for (int i = j == 0 ? 2 : 0; i < width; i++) {
+                assertEquals(pixels[j * width + i], image.getRGB(i, j));
+            }
+        }
+        assertEquals(0x80800000, image.getRGB(0, 0));
+        assertEquals(0, image.getRGB(1, 0) >>> 24);
+    }
+
+    @Test
+    public void testCombineChecksums() {
+        byte[] data = new byte[100_000];
+        new Random(1).nextBytes(data);
+        Adler32 whole = new Adler32();
+        whole.update(data);
+        Adler32 first = new Adler32();
+        first.update(data, 0, 70_000);
+        Adler32 second = new Adler32();
+        second.update(data, 70_000, 30_000);
+        assertEquals(whole.getValue(), PngWriter.combine(first.getValue(), second.getValue(), 30_000));
+    }
+}
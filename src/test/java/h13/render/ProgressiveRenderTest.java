@@ -0,0 +1,67 @@
+package h13.render;
+
+import h13.noise.FractalPerlinNoise;
+import h13.noise.GradientNoise;
+import h13.noise.PerlinNoise;
+import h13.noise.SimplePerlinNoise;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.DoubleToIntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the {@link ProgressiveRender}.
+ */
+public class ProgressiveRenderTest {
+
+    /**
+     * Maps a noise value to the bits of its single precision value, so the samples can be read from the pixels.
+     */
+    private static final DoubleToIntFunction BITS = value -> Float.floatToRawIntBits((float) value);
+
+    @Test
+    public void testPassesConvergeToNoise() {
+        PerlinNoise noise = PerlinNoise.singlePrecision(PerlinNoise.normalized(
+            new FractalPerlinNoise(new SimplePerlinNoise(512, 512, 0.01, new Random(3)), 4, 2, 0.5)
+        ));
+        int w = 75;
+        int h = 50;
+        ProgressiveRender render = new ProgressiveRender(noise, BITS, 0, 0, w, h);
+        int[] steps = {8, 4, 2, 1};
+        for (int expectedStep : steps) {
+            assertTrue(render.hasNext());
+            ProgressiveRender.Pass pass = render.next();
+            assertEquals(expectedStep, pass.step());
+            assertEquals((w + expectedStep - 1) / expectedStep, pass.width());
+            assertEquals((h + expectedStep - 1) / expectedStep, pass.height());
+            for (int j = 0; j < pass.height(); j++) {
+                for (int i = 0; i < pass.width(); i++) {
+                    float sample = Float.intBitsToFloat(pass.pixels()[j * pass.width() + i]);
+                    assertEquals(noise.compute(i * expectedStep, j * expectedStep), sample, 1e-4);
+                }
+            }
+        }
+        assertFalse(render.hasNext());
+    }
+
+    @Test
+    public void testEverySampleComputedOnce() {
+        ConcurrentHashMap<Long, Integer> counts = new ConcurrentHashMap<>();
+        GradientNoise noise = new TestNoise(64, (x, y) -> {
+            counts.merge((long) x << 32 | y, 1, Integer::sum);
+            return 0;
+        });
+        ProgressiveRender render = new ProgressiveRender(noise, BITS, 0, 0, 37, 21, 4, ForkJoinPool.commonPool());
+        while (render.hasNext()) {
+            render.next();
+        }
+        assertEquals(37 * 21, counts.size());
+        counts.values().forEach(count -> assertEquals(1, (int) count));
+    }
+}
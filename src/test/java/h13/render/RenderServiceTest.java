@@ -0,0 +1,63 @@
+package h13.render;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the {@link RenderService}.
+ */
+public class RenderServiceTest {
+
+    @Test
+    public void testPassesArePublished() throws InterruptedException {
+        BlockingQueue<Runnable> publisher = new LinkedBlockingQueue<>();
+        List<Integer> steps = new CopyOnWriteArrayList<>();
+        try (RenderService service = new RenderService(publisher::add)) {
+            service.submit(TestNoise.constant(0.5, 0), value -> 7, 0, 0, 20, 10, pass -> steps.add(pass.step()), e -> {
+            });
+            for (int i = 0; i < 4; i++) {
+                Runnable task = publisher.poll(10, TimeUnit.SECONDS);
+                assertTrue(task != null);
+                task.run();
+            }
+        }
+        assertEquals(List.of(8, 4, 2, 1), steps);
+    }
+
+    @Test
+    public void testCancelledJobIsNotPublished() throws InterruptedException {
+        BlockingQueue<Runnable> publisher = new LinkedBlockingQueue<>();
+        List<Integer> pixels = new CopyOnWriteArrayList<>();
+        CountDownLatch finished = new CountDownLatch(1);
+        try (RenderService service = new RenderService(publisher::add)) {
+            ProgressiveRender slow = service.submit(
+                TestNoise.constant(0, 1), value -> 1, 0, 0, 64, 64, pass -> pixels.add(pass.pixels()[0]), e -> {
+                }
+            );
+            service.submit(TestNoise.constant(0, 0), value -> 2, 0, 0, 8, 8, pass -> {
+                pixels.add(pass.pixels()[0]);
+                if (pass.isFinal()) {
+                    finished.countDown();
+                }
+            }, e -> {
+            });
+            assertTrue(slow.isCancelled());
+            while (finished.getCount() > 0) {
+                Runnable task = publisher.poll(10, TimeUnit.SECONDS);
+                assertTrue(task != null);
+                task.run();
+            }
+        }
+        // Only the passes of the newer job are drawn
+        assertTrue(pixels.stream().allMatch(pixel -> pixel == 2));
+    }
+}
@@ -0,0 +1,98 @@
+package h13.render;
+
+import h13.noise.GradientNoise;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A square {@link GradientNoise} whose values are computed by a function, used to observe which values the renderers
+ * compute.
+ */
+final class TestNoise implements GradientNoise {
+
+    /**
+     * Computes the noise value at the specified coordinates.
+     */
+    @FunctionalInterface
+    interface Values {
+
+        /**
+         * Computes the noise value at the specified coordinates.
+         *
+         * @param x the x-coordinate
+         * @param y the y-coordinate
+         * @return the noise value at the specified coordinates
+         */
+        double compute(int x, int y);
+    }
+
+    /**
+     * The width and height of the noise domain.
+     */
+    private final int size;
+
+    /**
+     * The function computing the noise values.
+     */
+    private final Values values;
+
+    /**
+     * Creates a new noise with the given size whose values are computed by the given function.
+     *
+     * @param size   the width and height of the noise domain
+     * @param values the function computing the noise values
+     */
+    TestNoise(int size, Values values) {
+        this.size = size;
+        this.values = values;
+    }
+
+    /**
+     * Returns a noise which counts the computed values and returns a distinct value for every coordinate.
+     *
+     * @param size    the width and height of the noise domain
+     * @param counter the counter of the computed values
+     * @return a noise which counts the computed values
+     */
+    static TestNoise counting(int size, AtomicInteger counter) {
+        return new TestNoise(size, (x, y) -> {
+            counter.incrementAndGet();
+            return x + y * (double) size;
+        });
+    }
+
+    /**
+     * Returns a noise with the given constant value.
+     *
+     * @param value the value of the noise
+     * @param delay the milliseconds to wait for every computed value
+     * @return a noise with the given constant value
+     */
+    static TestNoise constant(double value, long delay) {
+        return new TestNoise(1024, (x, y) -> {
+            if (delay > 0) {
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return value;
+        });
+    }
+
+    @Override
+    public int getWidth() {
+        return size;
+    }
+
+    @Override
+    public int getHeight() {
+        return size;
+    }
+
+    @Override
+    public double compute(int x, int y) {
+        return values.compute(x, y);
+    }
+}
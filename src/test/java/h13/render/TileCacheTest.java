@@ -0,0 +1,114 @@
+package h13.render;
+
+import h13.noise.GradientNoise;
+import h13.noise.PerlinNoise;
+import h13.noise.SimplePerlinNoise;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.DoubleToIntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the {@link TileCache}.
+ */
+public class TileCacheTest {
+
+    /**
+     * Maps a noise value to the bits of its single precision value.
+     */
+    private static final DoubleToIntFunction BITS = value -> Float.floatToRawIntBits((float) value);
+
+    @Test
+    public void testRenderMatchesRenderer() {
+        PerlinNoise noise = PerlinNoise.normalized(new SimplePerlinNoise(128, 128, 0.05, new Random(0)));
+        int w = 300;
+        int h = 270;
+        int[] expected = new int[w * h];
+        int[] actual = new int[w * h];
+        new TileRenderer().render(noise, BITS, 10, 20, w, h, expected, 0, w);
+        TileCache cache = new TileCache();
+        cache.render(noise, noise, BITS, 10, 20, w, h, 0, actual, 0, w);
+        assertArrayEquals(expected, actual);
+        int[] cached = new int[w * h];
+        cache.render(noise, noise, BITS, 10, 20, w, h, 0, cached, 0, w);
+        assertArrayEquals(expected, cached);
+    }
+
+    @Test
+    public void testOnlyMissingPixelsAreComputed() {
+        AtomicInteger counter = new AtomicInteger();
+        GradientNoise noise = TestNoise.counting(4096, counter);
+        TileCache cache = new TileCache();
+        int[] pixels = new int[600 * 400];
+        cache.render("spec", noise, BITS, 0, 0, 500, 300, 0, pixels, 0, 600);
+        assertEquals(500 * 300, counter.get());
+        assertTrue(cache.contains("spec", 0, 0, 500, 300, 0));
+        assertFalse(cache.contains("other", 0, 0, 500, 300, 0));
+
+        counter.set(0);
+        cache.render("spec", noise, BITS, 0, 0, 500, 300, 0, pixels, 0, 600);
+        assertEquals(0, counter.get());
+
+        // Growing the region only computes the parts of the tiles which were not rendered yet
+        counter.set(0);
+        cache.render("spec", noise, BITS, 0, 0, 600, 400, 0, pixels, 0, 600);
+        assertTrue(counter.get() < 600 * 400);
+        for (int j = 0; j < 400; j++) {
+            for (int i = 0; i < 600; i++) {
+                assertEquals(BITS.applyAsInt(i + j * 4096), pixels[j * 600 + i]);
+            }
+        }
+    }
+
+    @Test
+    public void testZoomAndStore() {
+        AtomicInteger counter = new AtomicInteger();
+        GradientNoise noise = TestNoise.counting(4096, counter);
+        TileCache cache = new TileCache();
+        int[] pixels = new int[40 * 30];
+        cache.render("spec", noise, BITS, 250, 3, 40, 30, 2, pixels, 0, 40);
+        assertEquals(BITS.applyAsInt((251 << 2) + (4 << 2) * 4096), pixels[40 + 1]);
+
+        int[] stored = new int[20 * 10];
+        Arrays.fill(stored, 42);
+        cache.store("stored", -5, -5, 20, 10, 0, stored, 0, 20);
+        assertTrue(cache.contains("stored", -5, -5, 20, 10, 0));
+        int[] copy = new int[20 * 10];
+        counter.set(0);
+        cache.render("stored", noise, BITS, -5, -5, 20, 10, 0, copy, 0, 20);
+        assertEquals(0, counter.get());
+        assertArrayEquals(stored, copy);
+    }
+
+    @Test
+    public void testPartialTilesAreMerged() {
+        AtomicInteger counter = new AtomicInteger();
+        GradientNoise noise = TestNoise.counting(4096, counter);
+        TileCache cache = new TileCache();
+        int[] pixels = new int[310 * 300];
+        cache.render("spec", noise, BITS, 0, 0, 300, 300, 0, pixels, 0, 310);
+        // The strip is rendered into the tiles which already contain a part of the first region
+        cache.render("spec", noise, BITS, 300, 0, 10, 300, 0, pixels, 300, 310);
+        assertTrue(cache.contains("spec", 0, 0, 300, 300, 0));
+        assertTrue(cache.contains("spec", 0, 0, 310, 300, 0));
+
+        counter.set(0);
+        int[] copy = new int[310 * 300];
+        cache.render("spec", noise, BITS, 0, 0, 310, 300, 0, copy, 0, 310);
+        assertEquals(0, counter.get());
+        assertArrayEquals(pixels, copy);
+
+        int[] stored = new int[10 * 300];
+        Arrays.fill(stored, 42);
+        cache.store("spec", 310, 0, 10, 300, 0, stored, 0, 10);
+        assertTrue(cache.contains("spec", 0, 0, 320, 300, 0));
+        assertFalse(cache.contains("spec", 0, 0, 321, 300, 0));
+    }
+}
@@ -0,0 +1,59 @@
+package h13.render;
+
+import h13.noise.PerlinNoise;
+import h13.noise.SimplePerlinNoise;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.DoubleToIntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests for the {@link TileRenderer}.
+ */
+public class TileRendererTest {
+
+    @Test
+    public void testRenderMatchesRows() {
+        PerlinNoise noise = PerlinNoise.normalized(new SimplePerlinNoise(64, 64, 0.07, new Random(0)));
+        DoubleToIntFunction mapper = value -> 0xFF000000 | (int) (value * 255);
+        int w = 70;
+        int h = 45;
+        int stride = w + 3;
+        int[] pixels = new int[h * stride];
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            // Tiles which do not divide the region evenly
+            new TileRenderer(executor, 16).render(noise, mapper, 4, 2, w, h, pixels, 0, stride);
+        } finally {
+            executor.shutdown();
+        }
+        float[] row = new float[w];
+        for (int j = 0; j < h; j++) {
+            noise.computeRow(4, 2 + j, w, row, 0);
+            for (int i = 0; i < w; i++) {
+                assertEquals(mapper.applyAsInt(row[i]), pixels[j * stride + i]);
+            }
+            assertEquals(0, pixels[j * stride + w]);
+        }
+    }
+
+    @Test
+    public void testRenderPropagatesErrors() {
+        PerlinNoise noise = new SimplePerlinNoise(8, 8, 1, new Random(0));
+        int[] pixels = new int[32 * 32];
+        // The region exceeds the gradient domain of the noise
+        assertThrows(
+            ArrayIndexOutOfBoundsException.class,
+            () -> new TileRenderer().render(noise, value -> 0, 0, 0, 32, 32, pixels, 0, 32)
+        );
+        assertThrows(
+            IndexOutOfBoundsException.class,
+            () -> new TileRenderer().render(noise, value -> 0, 0, 0, 4, 4, new int[8], 0, 4)
+        );
+    }
+}
@@ -0,0 +1,92 @@
+package h13.render;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the {@link Viewport}.
+ */
+public class ViewportTest {
+
+    /**
+     * Returns the pixels which are expected at the given position and zoom level.
+     *
+     * @param x      the x-coordinate of the upper left pixel
+     * @param y      the y-coordinate of the upper left pixel
+     * @param zoom   the zoom level
+     * @param width  the width of the frame
+     * @param height the height of the frame
+     * @return the expected pixels
+     */
+    private static int[] expected(int x, int y, int zoom, int width, int height) {
+        int[] pixels = new int[width * height];
+        for (int j = 0; j < height; j++) {
+            for (int i = 0; i < width; i++) {
+                pixels[j * width + i] = (int) ((x + i) * (1 << zoom) + (y + j) * (1 << zoom) * 65536.0f);
+            }
+        }
+        return pixels;
+    }
+
+    @Test
+    public void testPanRendersOnlyExposedStrips() {
+        AtomicInteger counter = new AtomicInteger();
+        Viewport viewport = new Viewport(
+            new TileCache(), "spec", TestNoise.counting(1 << 16, counter), value -> (int) value, 100, 100, 0, 120, 80
+        );
+        viewport.render();
+        assertTrue(viewport.isExact());
+        int[][] moves = {{7, -3}, {-20, 11}, {0, -30}, {5, 0}};
+        for (int[] move : moves) {
+            counter.set(0);
+            viewport.pan(move[0], move[1]);
+            assertTrue(counter.get() <= Math.abs(move[0]) * 80 + Math.abs(move[1]) * 120);
+            assertArrayEquals(
+                expected(viewport.getX(), viewport.getY(), 0, 120, 80),
+                viewport.getPixels()
+            );
+        }
+        // The viewport stops at the origin
+        viewport.pan(1000, 1000);
+        assertEquals(0, viewport.getX());
+        assertEquals(0, viewport.getY());
+        assertArrayEquals(expected(0, 0, 0, 120, 80), viewport.getPixels());
+    }
+
+    @Test
+    public void testZoomKeepsAnchorAndRefines() {
+        AtomicInteger counter = new AtomicInteger();
+        Viewport viewport = new Viewport(
+            new TileCache(), "spec", TestNoise.counting(1 << 16, counter), value -> (int) value, 64, 64, 0, 64, 48
+        );
+        viewport.render();
+        int anchor = viewport.getPixels()[10 * 64 + 20];
+        assertTrue(viewport.zoom(1, 20, 10));
+        assertEquals(1, viewport.getZoom());
+        assertFalse(viewport.isExact());
+        // The anchor shows the same point of the noise in the interim frame
+        assertEquals(anchor, viewport.getPixels()[10 * 64 + 20]);
+
+        ProgressiveRender refinement = viewport.refinement(ForkJoinPool.commonPool());
+        ProgressiveRender.Pass pass = refinement.next();
+        assertFalse(refinement.hasNext());
+        assertTrue(viewport.update(viewport.getX(), viewport.getY(), viewport.getZoom(), pass.pixels()));
+        assertTrue(viewport.isExact());
+        assertArrayEquals(expected(viewport.getX(), viewport.getY(), 1, 64, 48), viewport.getPixels());
+        assertFalse(viewport.update(viewport.getX() + 1, viewport.getY(), 1, pass.pixels()));
+
+        // Zooming back uses the cached level immediately
+        counter.set(0);
+        assertTrue(viewport.zoom(-1, 20, 10));
+        assertTrue(viewport.isExact());
+        assertEquals(0, counter.get());
+        assertFalse(viewport.zoom(-1, 20, 10));
+    }
+}
@@ -0,0 +1,273 @@
+package h13.util;
+
+import h13.noise.FloatPerlinNoise;
+import h13.noise.ImprovedPerlinNoise;
+import h13.noise.PerlinNoise;
+import h13.noise.SimplePerlinNoise;
+import org.junit.jupiter.api.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the {@link ConcurrentLRUCache}.
+ */
+public class ConcurrentLRUCacheTest {
+
+    /**
+     * The number of threads which access a cache at once.
+     */
+    private static final int THREADS = 16;
+
+    @Test
+    public void testRecentlyReadMappingsAreKept() {
+        Cache<String, String> cache = new ConcurrentLRUCache<>(3);
+        cache.put("a", "1");
+        cache.put("b", "2");
+        cache.put("c", "3");
+        assertEquals("1", cache.get("a"));
+        cache.put("d", "4");
+        assertEquals(3, cache.size());
+        assertEquals("1", cache.get("a"));
+        assertNull(cache.get("b"));
+
+        assertEquals("3", cache.put("c", "5"));
+        assertEquals("5", cache.computeIfAbsent("c", key -> "6"));
+        assertEquals(3, cache.size());
+        assertNull(cache.computeIfAbsent("e", key -> null));
+        assertNull(cache.get("e"));
+
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertThrows(IllegalArgumentException.class, () -> new ConcurrentLRUCache<>(-1));
+    }
+
+    @Test
+    public void testWeightedEviction() {
+        Cache<String, long[]> cache = new ConcurrentLRUCache<>(100, (key, value) -> value.length);
+        cache.put("a", new long[40]);
+        cache.put("b", new long[40]);
+        assertEquals(80, cache.weight());
+        assertEquals(100, cache.maximumWeight());
+        cache.get("a");
+        cache.put("c", new long[30]);
+        assertEquals(70, cache.weight());
+        assertNull(cache.get("b"));
+
+        // Replacing a mapping replaces its weight
+        cache.put("c", new long[10]);
+        assertEquals(50, cache.weight());
+        // A mapping heavier than the maximum weight is not kept, but the other mappings are
+        assertEquals(101, cache.computeIfAbsent("d", key -> new long[101]).length);
+        assertNull(cache.get("d"));
+        assertEquals(2, cache.size());
+        assertEquals(50, cache.weight());
+
+        cache.clear();
+        assertEquals(0, cache.weight());
+        Cache<String, String> negative = new ConcurrentLRUCache<>(1, (key, value) -> -1);
+        assertThrows(IllegalArgumentException.class, () -> negative.put("e", "f"));
+    }
+
+    @Test
+    public void testNoiseWeights() {
+        // The estimated size of an improved noise covers its permuted gradients, not its domain
+        ImprovedPerlinNoise large = new ImprovedPerlinNoise(
+            1 << 20, 1 << 20, 0.05, new Random(0), ImprovedPerlinNoise.shuffledPermutation(new Random(0))
+        );
+        assertTrue(large.estimatedSize() < 32_000, "Size %d".formatted(large.estimatedSize()));
+        SimplePerlinNoise table = new SimplePerlinNoise(1000, 1000, 0.05, new Random(0));
+        assertTrue(table.estimatedSize() >= 16L * 1001 * 1001, "Size %d".formatted(table.estimatedSize()));
+        assertTrue(PerlinNoise.normalized(table).estimatedSize() > table.estimatedSize());
+        assertTrue(new FloatPerlinNoise(table).estimatedSize() > table.estimatedSize());
+
+        // A cache bounded by the estimated sizes keeps the improved noise, but not the gradient table
+        Cache<String, PerlinNoise> cache = new ConcurrentLRUCache<>(1 << 20, (key, noise) -> noise.estimatedSize());
+        cache.put("large", large);
+        cache.put("table", table);
+        assertSame(large, cache.get("large"));
+        assertNull(cache.get("table"));
+    }
+
+    @Test
+    public void testStatistics() throws Exception {
+        Cache<String, String> cache = new ConcurrentLRUCache<>(2, 2, Weigher.singleton(), true);
+        assertNull(cache.get("a"));
+        assertEquals("1", cache.computeIfAbsent("a", key -> "1"));
+        assertEquals("1", cache.computeIfAbsent("a", key -> "2"));
+        assertEquals("1", cache.get("a"));
+        assertNull(cache.computeIfAbsent("b", key -> null));
+        cache.put("c", "3");
+        cache.put("d", "4");
+
+        CacheStats stats = cache.stats();
+        assertEquals(2, stats.hitCount());
+        assertEquals(3, stats.missCount());
+        assertEquals(1, stats.loadSuccessCount());
+        assertEquals(1, stats.loadFailureCount());
+        assertEquals(1, stats.evictionCount());
+        assertEquals(0.4, stats.hitRate());
+        assertEquals(2, Arrays.stream(stats.loadTimeHistogram()).sum());
+        assertTrue(stats.loadTimeQuantile(1) > 0);
+
+        ObjectName name = CacheStatsBean.register("test", cache);
+        // Registering again replaces the bean
+        assertEquals(name, CacheStatsBean.register("test", cache));
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        assertEquals(2L, server.getAttribute(name, "HitCount"));
+        assertEquals(2, server.getAttribute(name, "Size"));
+        CacheStatsBean.unregister(name);
+        assertFalse(server.isRegistered(name));
+        // Unregistering twice is harmless
+        CacheStatsBean.unregister(name);
+
+        Cache<String, String> disabled = new ConcurrentLRUCache<>(2);
+        disabled.computeIfAbsent("a", key -> "1");
+        assertSame(CacheStats.EMPTY, disabled.stats());
+    }
+
+    @Test
+    public void testComputeIfAbsentIsAtomic() throws Exception {
+        Cache<String, Object> cache = new ConcurrentLRUCache<>(4);
+        AtomicInteger computations = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<CompletableFuture<Object>> values = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                values.add(CompletableFuture.supplyAsync(() -> {
+                    await(start);
+                    return cache.computeIfAbsent("key", key -> {
+                        computations.incrementAndGet();
+                        return new Object();
+                    });
+                }, executor));
+            }
+            start.countDown();
+            Object first = values.get(0).get();
+            for (CompletableFuture<Object> value : values) {
+                assertSame(first, value.get());
+            }
+            assertEquals(1, computations.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testComputeIfAbsentAsyncIsSingleFlight() throws Exception {
+        Cache<String, Object> cache = new ConcurrentLRUCache<>(4);
+        AtomicInteger computations = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<CompletableFuture<Object>> values = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                values.add(cache.computeIfAbsentAsync("key", key -> {
+                    computations.incrementAndGet();
+                    await(release);
+                    return new Object();
+                }, executor));
+            }
+            // A caller which times out or cancels its future does not affect the other callers
+            assertThrows(TimeoutException.class, () -> values.get(0).get(10, TimeUnit.MILLISECONDS));
+            values.get(1).cancel(true);
+            release.countDown();
+            Object first = values.get(2).get();
+            for (CompletableFuture<Object> value : values.subList(2, values.size())) {
+                assertSame(first, value.get());
+            }
+            assertSame(first, values.get(0).get());
+            assertSame(first, cache.get("key"));
+            assertSame(first, cache.computeIfAbsentAsync("key", key -> new Object(), executor).get());
+            assertEquals(1, computations.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testFailedAsyncLoadIsNotCached() throws Exception {
+        Cache<String, String> cache = new ConcurrentLRUCache<>(4);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            CompletableFuture<String> failed = cache.computeIfAbsentAsync("key", key -> {
+                throw new IllegalStateException("Load failed");
+            }, executor);
+            ExecutionException e = assertThrows(ExecutionException.class, failed::get);
+            assertTrue(e.getCause() instanceof IllegalStateException);
+            assertEquals(0, cache.size());
+            assertNull(cache.computeIfAbsentAsync("other", key -> null, executor).get());
+            assertEquals(0, cache.size());
+            assertEquals("value", cache.computeIfAbsentAsync("key", key -> "value", executor).get());
+            assertEquals("value", cache.get("key"));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testCapacityUnderContention() throws Exception {
+        Cache<Integer, Integer> cache = new ConcurrentLRUCache<>(64);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<CompletableFuture<Void>> workers = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                Random random = new Random(i);
+                workers.add(CompletableFuture.runAsync(() -> {
+                    for (int j = 0; j < 20_000; j++) {
+                        int key = random.nextInt(256);
+                        Integer value = random.nextBoolean()
+                            ? cache.computeIfAbsent(key, k -> k * 2)
+                            : cache.get(key);
+                        if (value != null) {
+                            assertEquals(key * 2, value.intValue());
+                        }
+                        if (random.nextInt(16) == 0) {
+                            cache.put(key, key * 2);
+                        }
+                    }
+                }, executor));
+            }
+            for (CompletableFuture<Void> worker : workers) {
+                worker.get();
+            }
+            assertTrue(cache.size() <= cache.capacity(), "Size %d".formatted(cache.size()));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Waits until the latch has counted down.
+     *
+     * @param latch the latch to wait for
+     */
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}